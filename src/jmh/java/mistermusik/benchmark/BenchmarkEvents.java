@@ -0,0 +1,65 @@
+package mistermusik.benchmark;
+
+import mistermusik.commons.events.eventtypes.RecurringSeries;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Practice;
+import mistermusik.workload.WorkloadGenerator;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Generates the save file lines of the event lists used by the benchmarks with the workload generator, adding
+ * some recurring series. Events are spread over ten years around today, so that reminders, the list of upcoming
+ * events and the calendar see a realistic share of them. Generated events end by 2300, leaving 2300 to 2359
+ * free on every day for events added by the benchmarks without clashes.
+ */
+final class BenchmarkEvents {
+    /**
+     * Seed of the generator, fixed so that runs of different versions use the same lists.
+     */
+    static final long SEED = WorkloadGenerator.DEFAULT_SEED;
+
+    static final int NUM_DAYS = WorkloadGenerator.DEFAULT_NUM_DAYS;
+
+    static final LocalDate FIRST_DAY = LocalDate.now().minusDays(NUM_DAYS / 2);
+
+    /**
+     * Number of individual events per recurring series generated.
+     */
+    private static final int EVENTS_PER_SERIES = 1000;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private BenchmarkEvents() {
+    }
+
+    /**
+     * Generates the save file lines of a list of individual events, followed by some weekly practices.
+     *
+     * @param numEvents number of individual events
+     * @param seed      seed of the generator
+     * @return lines of the save file
+     */
+    static ArrayList<String> generateLines(int numEvents, long seed) {
+        ArrayList<String> lines = new WorkloadGenerator(seed).setSpan(FIRST_DAY, NUM_DAYS)
+                .generateSaveFileLines(numEvents);
+        Random random = new Random(seed);
+        for (int i = 0; i <= numEvents / EVENTS_PER_SERIES; i++) {
+            String day = getDay(random.nextInt(NUM_DAYS));
+            lines.add(new RecurringSeries(new Practice("Weekly sectional", day + " 0700", day + " 0800"), 7, 18)
+                    .toStringForFile());
+        }
+        return lines;
+    }
+
+    /**
+     * Gets the date of a day of the generated range, in the format of the save file.
+     *
+     * @param day number of days after the first day of the range
+     */
+    static String getDay(int day) {
+        return FIRST_DAY.plusDays(day).format(DATE_FORMAT);
+    }
+}
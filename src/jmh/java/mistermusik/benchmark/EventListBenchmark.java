@@ -0,0 +1,176 @@
+package mistermusik.benchmark;
+
+import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.eventtypes.RecurringSeries;
+import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Lesson;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Practice;
+import mistermusik.commons.events.formatting.EventDate;
+import mistermusik.logic.ClashException;
+import mistermusik.logic.EventList;
+import mistermusik.ui.CalendarView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the commands working on the event list in memory. Benchmarks that change the list undo their
+ * change, so that every invocation works on a list of the same size. The changes recorded for Storage are
+ * taken and dropped after each invocation, as saving them is benchmarked separately.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventListBenchmark {
+    /**
+     * Number of distinct events prepared for the benchmarks that add events, used in turn.
+     */
+    private static final int NUM_PREPARED_EVENTS = 1024;
+
+    private static final int BUDGET = 1000000000;
+
+    @Param({"100", "10000", "1000000"})
+    public int numEvents;
+
+    private EventList events;
+
+    private Lesson[] freeLessons = new Lesson[NUM_PREPARED_EVENTS];
+    private Practice[] freePractices = new Practice[NUM_PREPARED_EVENTS];
+    private Concert[] clashingConcerts = new Concert[NUM_PREPARED_EVENTS];
+    private Concert[] budgetConcerts = new Concert[NUM_PREPARED_EVENTS];
+
+    private int next = 0;
+
+    private EventDate calendarStart;
+
+    /**
+     * Creates the event list and the events added by the benchmarks. Added lessons and practices start at
+     * 2315 on a random day, which is always free; added concerts clash with a random timed event of the list.
+     */
+    @Setup
+    public void setUp() {
+        events = new EventList(BenchmarkEvents.generateLines(numEvents, BenchmarkEvents.SEED));
+        events.getBudgeting().setBudget(BUDGET);
+        events.takePendingChanges();
+
+        Random random = new Random(BenchmarkEvents.SEED);
+        ArrayList<Event> timedEvents = new ArrayList<>();
+        for (Event event : events.getEventArrayList()) {
+            if (event.getType() != 'T') {
+                timedEvents.add(event);
+            }
+        }
+        for (int i = 0; i < NUM_PREPARED_EVENTS; i++) {
+            String day = BenchmarkEvents.getDay(random.nextInt(BenchmarkEvents.NUM_DAYS));
+            freeLessons[i] = new Lesson("added lesson", day + " 2315", day + " 2345");
+            freePractices[i] = new Practice("added practice", day + " 2315", day + " 2345");
+            Event clashed = timedEvents.get(random.nextInt(timedEvents.size()));
+            clashingConcerts[i] = new Concert("clashing concert", clashed.getStartDate().getUserInputDateString(),
+                    clashed.getEndDate().getUserInputDateString(), 10);
+            budgetConcerts[i] = new Concert("added concert", day + " 2315", day + " 2345", 10);
+        }
+        calendarStart = new EventDate(BenchmarkEvents.getDay(BenchmarkEvents.NUM_DAYS / 2) + " 0000");
+    }
+
+    private int nextPreparedEvent() {
+        next = (next + 1) % NUM_PREPARED_EVENTS;
+        return next;
+    }
+
+    /**
+     * Adds an event that does not clash with any other, then deletes it again.
+     */
+    @Benchmark
+    public int addEventWithClashCheck() throws Exception {
+        Lesson lesson = freeLessons[nextPreparedEvent()];
+        events.addEvent(lesson);
+        int index = events.getIndexOfEvent(lesson);
+        events.deleteEvent(index);
+        events.takePendingChanges();
+        events.takePendingDetailChanges();
+        return index;
+    }
+
+    /**
+     * Tries to add an event that clashes with one in the list.
+     */
+    @Benchmark
+    public Object addClashingEvent() throws Exception {
+        try {
+            events.addEvent(clashingConcerts[nextPreparedEvent()]);
+        } catch (ClashException e) {
+            return e;
+        }
+        throw new IllegalStateException("Concert did not clash");
+    }
+
+    /**
+     * Adds a weekly practice over one semester, checking each occurrence for clashes, then deletes its
+     * occurrences one by one until the series is removed.
+     */
+    @Benchmark
+    public int addRecurringEvent() throws Exception {
+        events.addRecurringEvent(freePractices[nextPreparedEvent()], 7);
+        ArrayList<RecurringSeries> seriesList = events.getRecurringSeriesList();
+        RecurringSeries series = seriesList.get(seriesList.size() - 1);
+        int numOccurrences = series.getNumOccurrences();
+        for (int occurrence = 0; occurrence < numOccurrences; occurrence++) {
+            events.deleteEvent(events.getIndexOfFirstEventFrom(series.getStart(occurrence)));
+        }
+        events.takePendingChanges();
+        events.takePendingDetailChanges();
+        return numOccurrences;
+    }
+
+    /**
+     * Gets the reminder of the events in the next week.
+     */
+    @Benchmark
+    public String getReminder() {
+        return events.getReminder(7);
+    }
+
+    /**
+     * Finds the events with two keywords.
+     */
+    @Benchmark
+    public ArrayList<Integer> findEvents() {
+        return events.findEvents("horn practice");
+    }
+
+    /**
+     * Builds the calendar of a week in the middle of the list.
+     */
+    @Benchmark
+    public String getCalendarWeek() {
+        CalendarView calendarView = new CalendarView(events, calendarStart);
+        calendarView.setCalendarInfo();
+        return calendarView.getStringForOutput();
+    }
+
+    /**
+     * Adds the cost of a concert to its month and removes it again.
+     */
+    @Benchmark
+    public int updateBudget() throws Exception {
+        Concert concert = budgetConcerts[nextPreparedEvent()];
+        events.getBudgeting().updateMonthlyCost(concert);
+        events.getBudgeting().removeMonthlyCost(concert);
+        return concert.getCost();
+    }
+}
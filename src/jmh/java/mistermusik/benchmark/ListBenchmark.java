@@ -0,0 +1,50 @@
+package mistermusik.benchmark;
+
+import mistermusik.logic.EventList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of rendering the list of upcoming events. The list is built by joining strings one event at a
+ * time, so its cost grows with the square of the number of events, and it is only measured up to 10000 events;
+ * larger lists can be given with -p numEvents=...
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int numEvents;
+
+    private EventList events;
+
+    /**
+     * Creates the event list.
+     */
+    @Setup
+    public void setUp() {
+        events = new EventList(BenchmarkEvents.generateLines(numEvents, BenchmarkEvents.SEED));
+    }
+
+    /**
+     * Renders the events after now.
+     */
+    @Benchmark
+    public String listEvents() {
+        return events.listOfEvents_String();
+    }
+}
@@ -0,0 +1,114 @@
+package mistermusik.benchmark;
+
+import mistermusik.commons.events.eventtypes.eventsubclasses.ToDo;
+import mistermusik.logic.EventList;
+import mistermusik.storage.Storage;
+import mistermusik.ui.UI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of loading and saving the event list, with each format of snapshot. The save file is written to
+ * a temporary folder, and the messages Storage prints while loading are discarded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int numEvents;
+
+    @Param({"text", "binary", "mapped"})
+    public String format;
+
+    private File folder;
+
+    private File file;
+
+    private Storage storage;
+
+    private EventList events;
+
+    private UI ui = new UI();
+
+    private PrintStream standardOutput;
+
+    /**
+     * Writes the save file, then loads and saves it once so that the snapshot is in the format benchmarked.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        standardOutput = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        new File("data").mkdirs(); //otherwise Storage replaces the save file with the sample one
+        folder = Files.createTempDirectory("mistermusik-benchmark").toFile();
+        file = new File(folder, "mistermusik.txt");
+        Files.write(file.toPath(), BenchmarkEvents.generateLines(numEvents, BenchmarkEvents.SEED));
+        storage = createStorage();
+        events = storage.readEventList(ui);
+        storage.saveToFile(events, ui);
+    }
+
+    /**
+     * Deletes the save files and restores the standard output.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(folder.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+        System.setOut(standardOutput);
+    }
+
+    private Storage createStorage() {
+        Storage newStorage = new Storage(file);
+        newStorage.setBinarySnapshotUsed(format.equals("binary"));
+        newStorage.setMappedSnapshotUsed(format.equals("mapped"));
+        return newStorage;
+    }
+
+    /**
+     * Loads the event list from the save files.
+     */
+    @Benchmark
+    public EventList loadEventList() {
+        return createStorage().readEventList(ui);
+    }
+
+    /**
+     * Adds a todo before all other events and saves, then deletes it and saves again. Most saves append to the
+     * journal, and the snapshot is written again whenever the journal has grown large enough, as after any command.
+     */
+    @Benchmark
+    public int saveChange() {
+        events.addNewTodo(new ToDo("benchmark todo", BenchmarkEvents.getDay(-1)));
+        storage.saveToFile(events, ui);
+        int index = events.getIndexOfFirstEventFrom(Long.MIN_VALUE);
+        events.deleteEvent(index);
+        storage.saveToFile(events, ui);
+        return index;
+    }
+}
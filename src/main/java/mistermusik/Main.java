@@ -10,48 +10,192 @@ import mistermusik.logic.Command;
 import mistermusik.ui.Parser;
 import mistermusik.ui.UI;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.function.Consumer;
 
 public class Main {
     private static Parser parser = new Parser();
     private static UI ui = new UI();
     private static Storage storage;
     private static EventList tasks;
-    private static InstrumentList instruments = new InstrumentList();
+    private static InstrumentList instruments;
     private static EventDate calendarStartDate;
     public static boolean allowCalendarFrequentPrint;
 
+    private static final String SYNC_INTERVAL_OPTION = "--sync-interval=";
+
+    private static final String BATCH_OPTION = "--batch=";
+
+    private static final String SAVE_INTERVAL_OPTION = "--save-every=";
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private static final String SCRIPT_UNREADABLE = "could not read the script: ";
+
     /**
      * Main component. Runs the application.
+     *
+     * @param args "--binary-snapshot" to save snapshots of the event list in binary format, or
+     *             "--mapped-snapshot" to save them in a memory-mapped archive whose events are read when needed,
+     *             and "--sync-interval=N" to write the changes of all commands in the last N milliseconds
+     *             together instead of after every command, and "--metrics" to measure the time taken by each
+     *             command from the start, and "--batch=FILE" to run the commands in FILE instead of those
+     *             entered, saving the changes once at the end or every N commands with "--save-every=N"
      */
     public static void main(String[] args) throws IOException {
-        setup();
+        setup(Arrays.asList(args).contains("--binary-snapshot"), Arrays.asList(args).contains("--mapped-snapshot"),
+                getNumericOption(args, SYNC_INTERVAL_OPTION));
+        Command.getMetrics().setEnabled(Arrays.asList(args).contains("--metrics"));
+        String scriptPath = getOption(args, BATCH_OPTION);
+        if (scriptPath != null) {
+            runBatch(scriptPath, getNumericOption(args, SAVE_INTERVAL_OPTION));
+            return;
+        }
+
         ui.welcome();
         String userInput = parser.readUserInput().toLowerCase();
         while (!userInput.equals("bye")) {
-            if (userInput.equals("calendar on")) {
-                allowCalendarFrequentPrint = true;
-            } else if (userInput.equals("calendar off")) {
-                allowCalendarFrequentPrint = false;
-            }
-            Command currCommand = parser.parseInput(userInput);
-            currCommand.execute(tasks, ui, storage, instruments, calendarStartDate, allowCalendarFrequentPrint);
+            executeCommand(userInput);
             userInput = parser.readUserInput();
         }
 
+        storage.flush(ui); //changes of the last commands may still be queued
+        UI.printGoodbyeMsg();
+    }
+
+    private static void executeCommand(String userInput) {
+        if (userInput.equals("calendar on")) {
+            allowCalendarFrequentPrint = true;
+        } else if (userInput.equals("calendar off")) {
+            allowCalendarFrequentPrint = false;
+        }
+        Command currCommand = parser.parseInput(userInput);
+        currCommand.execute(tasks, ui, storage, instruments, calendarStartDate, allowCalendarFrequentPrint);
+    }
+
+    /**
+     * Runs the commands of a script file, with the output buffered and the changes only saved every saveInterval
+     * commands (or once at the end if it is 0), so that long scripts are not slowed down by the console or the
+     * disk. Ends with a summary of the commands that failed.
+     *
+     * @param scriptPath   path of the script
+     * @param saveInterval number of commands between saves, 0 to save once at the end
+     */
+    private static void runBatch(String scriptPath, long saveInterval) {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out),
+                OUTPUT_BUFFER_SIZE), false));
+        Command.setSaveDeferred(true);
+        long startTime = System.nanoTime();
+        int numCommands = 0;
+        ArrayList<String> failures = new ArrayList<>();
+        try (BufferedReader script = Files.newBufferedReader(Paths.get(scriptPath))) {
+            numCommands = runScript(script, ui, Main::executeCommand, saveInterval,
+                    () -> Command.saveChanges(tasks, instruments, ui, storage), failures);
+        } catch (IOException exceptionInputOutput) {
+            failures.add(SCRIPT_UNREADABLE + exceptionInputOutput.getMessage());
+        } finally {
+            Command.saveChanges(tasks, instruments, ui, storage);
+            storage.flush(ui);
+            Command.setSaveDeferred(false);
+        }
+
+        ui.printBatchSummary(numCommands, (System.nanoTime() - startTime) / 1000000, failures);
         UI.printGoodbyeMsg();
+        System.out.flush();
+        System.setOut(console);
+    }
+
+    /**
+     * Runs the commands of a script, one per line, until its end or a "bye" line, skipping blank lines. The
+     * script is read one line at a time. A command fails if it prints an error through the user interface.
+     *
+     * @param script         script to read the commands from
+     * @param ui             user interface the commands print to
+     * @param commandRunner  runs a single command
+     * @param saveInterval   number of commands between saves, 0 to leave saving to the caller
+     * @param saver          saves the changes of the commands run so far
+     * @param failures       list the line number and text of each failed command are added to, and the error
+     *                       if the script cannot be read
+     * @return number of commands run
+     */
+    public static int runScript(BufferedReader script, UI ui, Consumer<String> commandRunner, long saveInterval,
+                                Runnable saver, ArrayList<String> failures) {
+        int numCommands = 0;
+        try {
+            int lineNumber = 0;
+            String userInput = script.readLine();
+            while (userInput != null && !userInput.trim().equals("bye")) {
+                lineNumber++;
+                if (!userInput.trim().isEmpty()) {
+                    int numErrorsBefore = ui.getNumErrors();
+                    commandRunner.accept(userInput);
+                    numCommands++;
+                    if (ui.getNumErrors() != numErrorsBefore) {
+                        failures.add("line " + lineNumber + ": " + userInput);
+                    }
+                    if (saveInterval > 0 && numCommands % saveInterval == 0) {
+                        saver.run();
+                    }
+                }
+                userInput = script.readLine();
+            }
+        } catch (IOException exceptionInputOutput) {
+            failures.add(SCRIPT_UNREADABLE + exceptionInputOutput.getMessage());
+        }
+        return numCommands;
+    }
+
+    /**
+     * Gets the value of an option given in the arguments as its prefix followed by the value, null if none is
+     * given.
+     */
+    private static String getOption(String[] args, String prefix) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the non-negative number given in the arguments for an option, e.g. the time to wait for more changes
+     * before writing them, 0 if none is given.
+     */
+    private static long getNumericOption(String[] args, String prefix) {
+        String value = getOption(args, prefix);
+        try {
+            return (value == null) ? 0 : Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 
     /**
-     * Instantiates all necessary classes to run duke program.
+     * Instantiates all necessary classes to run duke program. Changes are written on a background thread,
+     * after every command or every syncIntervalMillis milliseconds.
      */
-    private static void setup() {
+    private static void setup(boolean isBinarySnapshotUsed, boolean isMappedSnapshotUsed, long syncIntervalMillis) {
         parser = new Parser();
         ui = new UI();
         storage = new Storage(new File("data/mistermusik.txt"));
-        tasks = new EventList(storage.readFromFile(ui));
+        storage.setBinarySnapshotUsed(isBinarySnapshotUsed);
+        storage.setMappedSnapshotUsed(isMappedSnapshotUsed);
+        tasks = storage.readEventList(ui);
+        instruments = storage.readInstrumentList(ui);
+        storage.startBackgroundWriter(syncIntervalMillis);
         calendarStartDate = new EventDate(new Date());
         allowCalendarFrequentPrint = false;
     }
@@ -0,0 +1,170 @@
+package mistermusik.commons.budgeting;
+
+import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * What-if view of the monthly budgets, used to try out adding and removing concerts without changing Budgeting.
+ * Only the changes to the cost of each month are stored on top of Budgeting, so a simulation is cheap to create
+ * and each change takes O(log k) time for k months changed. Results reflect Budgeting as it is when asked for.
+ */
+public class BudgetSimulation {
+    private Budgeting budgeting;
+
+    private int budget;
+
+    /**
+     * change to the total concert cost of each month changed, keyed by year * 12 + month - 1.
+     */
+    private TreeMap<Long, Long> costChanges = new TreeMap<>();
+
+    /**
+     * concerts added or removed in the simulation.
+     */
+    private Set<Concert> addedConcerts = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Set<Concert> removedConcerts = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Creates a simulation with no changes, using the current budget.
+     *
+     * @param budgeting budgeting system the changes are made on top of
+     */
+    BudgetSimulation(Budgeting budgeting) {
+        this.budgeting = budgeting;
+        this.budget = budgeting.getBudget();
+    }
+
+    /**
+     * Adds a concert in the simulation. Does nothing if the concert is already in the simulated budgets.
+     *
+     * @param concert Concert object to be added
+     * @return this simulation, so that changes can be chained
+     */
+    public BudgetSimulation addConcert(Concert concert) {
+        if (removedConcerts.remove(concert)) {
+            changeCost(concert, concert.getCost());
+        } else if (!budgeting.containsConcert(concert) && addedConcerts.add(concert)) {
+            changeCost(concert, concert.getCost());
+        }
+        return this;
+    }
+
+    /**
+     * Removes a concert in the simulation. Does nothing if the concert is not in the simulated budgets.
+     *
+     * @param concert Concert object to be removed
+     * @return this simulation, so that changes can be chained
+     */
+    public BudgetSimulation removeConcert(Concert concert) {
+        if (addedConcerts.remove(concert)) {
+            changeCost(concert, -concert.getCost());
+        } else if (budgeting.containsConcert(concert) && removedConcerts.add(concert)) {
+            changeCost(concert, -concert.getCost());
+        }
+        return this;
+    }
+
+    /**
+     * Sets the monthly budget used in the simulation.
+     *
+     * @param budget simulated monthly budget
+     * @return this simulation, so that changes can be chained
+     */
+    public BudgetSimulation setBudget(int budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    private void changeCost(Concert concert, long costChange) {
+        long month = Budgeting.getMonthKey(concert.getStartDate());
+        long newCostChange = costChanges.getOrDefault(month, 0L) + costChange;
+        costChanges.put(month, newCostChange); //kept even when 0, so the month is still reported
+    }
+
+    /**
+     * Gets the simulated total concert cost of a month.
+     *
+     * @param monthAndYear String containing month and year "mm-YYYY"
+     * @throws NumberFormatException if the string is not a valid month
+     */
+    public long getCostForMonth(String monthAndYear) throws NumberFormatException {
+        long month = Budgeting.getMonthKey(monthAndYear);
+        if (month == Budgeting.NO_MONTH) {
+            throw new NumberFormatException();
+        }
+        return budgeting.getCostForMonth(month) + costChanges.getOrDefault(month, 0L);
+    }
+
+    /**
+     * Gets the result of the simulation for every month changed by it, in order of month.
+     */
+    public ArrayList<MonthResult> getChangedMonths() {
+        ArrayList<MonthResult> results = new ArrayList<>();
+        for (Map.Entry<Long, Long> costChange : costChanges.entrySet()) {
+            long month = costChange.getKey();
+            if (month != Budgeting.NO_MONTH) {
+                long oldCost = budgeting.getCostForMonth(month);
+                results.add(new MonthResult(month, oldCost, oldCost + costChange.getValue(), budget));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Gets the result of the simulation for every month changed by it that exceeds the simulated budget.
+     */
+    public ArrayList<MonthResult> getMonthsOverBudget() {
+        ArrayList<MonthResult> results = new ArrayList<>();
+        for (MonthResult result : getChangedMonths()) {
+            if (result.getAmountOverBudget() > 0) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Simulated concert costs of a month.
+     */
+    public static class MonthResult {
+        private long month;
+        private long oldCost;
+        private long newCost;
+        private int budget;
+
+        private MonthResult(long month, long oldCost, long newCost, int budget) {
+            this.month = month;
+            this.oldCost = oldCost;
+            this.newCost = newCost;
+            this.budget = budget;
+        }
+
+        /**
+         * Gets the month in "MM-yyyy" format.
+         */
+        public String getMonthAndYear() {
+            return String.format("%02d-%04d", month % 12 + 1, month / 12);
+        }
+
+        public long getOldCost() {
+            return oldCost;
+        }
+
+        public long getNewCost() {
+            return newCost;
+        }
+
+        /**
+         * Gets the amount by which the simulated cost exceeds the budget, 0 if it does not.
+         */
+        public long getAmountOverBudget() {
+            return Math.max(0, newCost - budget);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package mistermusik.commons.budgeting;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of adding or removing the cost of a concert from its month.
+ */
+@Name("mistermusik.BudgetUpdate")
+@Label("Budget Update")
+@Category({"MisterMusik", "Budgeting"})
+@Description("Adding or removing the cost of a concert from the costs of its month")
+class BudgetUpdateTrace extends Event {
+    @Label("Operation")
+    @Description("add or remove")
+    String operation;
+
+    @Label("Cost")
+    int cost;
+
+    @Label("Month Cost")
+    @Description("Total cost of the month after the update")
+    int monthCost;
+
+    @Label("Within Budget")
+    boolean isWithinBudget;
+}
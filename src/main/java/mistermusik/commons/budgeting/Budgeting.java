@@ -6,22 +6,31 @@ import mistermusik.commons.events.eventtypes.Event;
 import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
 import mistermusik.commons.events.formatting.EventDate;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.HashMap;
 
 public class Budgeting {
 
     /**
-     * Map that stores all information regarding monthly budgeting for concerts
-     * String is the month followed by year "MM-yyyy" representing the month that we analyze budget
+     * Map that stores all information regarding monthly budgeting for concerts.
+     * Keys are months given as year * 12 + month - 1, so that finding the month of a concert needs no strings.
      * MonthlyBudget is the class corresponding to the month being analyzed, stores all details
      * for budget analysis including the corresponding Concert objects.
      */
-    private HashMap<String, MonthlyBudget> monthlyCosts;
+    private MonthlyBudgetMap monthlyCosts = new MonthlyBudgetMap();
+
+    /**
+     * Prefix sums of the monthly costs, used to total the costs of a range of months.
+     */
+    private MonthlyCostTree costTree = new MonthlyCostTree();
 
     private int budget; //current user defined budget
 
+    /**
+     * Key used for concerts without a valid date.
+     */
+    static final long NO_MONTH = -1;
+
     /**
      * Constructor for budgeting system. Sets budget and creates new map of monthly costs.
      *
@@ -39,13 +48,24 @@ public class Budgeting {
      * @param concert Concert object to be deleted.
      */
     public void removeMonthlyCost(Concert concert) {
-        String monthAndYear = getMonthAndYear(concert.getStartDate());
+        BudgetUpdateTrace trace = new BudgetUpdateTrace();
+        trace.begin();
+        long month = getMonthKey(concert.getStartDate());
 
-        MonthlyBudget currMonthlyBudget = monthlyCosts.get(monthAndYear);
-        currMonthlyBudget.removeConcert(concert);
+        MonthlyBudget currMonthlyBudget = monthlyCosts.get(month);
+        try {
+            if (currMonthlyBudget == null) {
+                return;
+            }
+            int oldCost = currMonthlyBudget.getTotalCost();
+            currMonthlyBudget.removeConcert(concert);
+            updateCostTree(month, currMonthlyBudget.getTotalCost() - oldCost);
 
-        if (currMonthlyBudget.getListOfConcerts().isEmpty()) {
-            monthlyCosts.remove(monthAndYear);
+            if (currMonthlyBudget.isEmpty()) {
+                monthlyCosts.remove(month);
+            }
+        } finally {
+            commitTrace(trace, "remove", concert, month, true);
         }
     }
 
@@ -55,15 +75,47 @@ public class Budgeting {
      * @param concert Concert object to be added.
      */
     public void updateMonthlyCost(Concert concert) throws CostExceedsBudgetException, NumberFormatException {
-        String monthAndYear = getMonthAndYear(concert.getStartDate());
-
-        MonthlyBudget currMonthlyBudget = monthlyCosts.get(monthAndYear);
-        if (currMonthlyBudget == null) {
-            currMonthlyBudget = new MonthlyBudget(concert.getStartDate());
-            currMonthlyBudget.addConcert(concert, this.budget);
-            monthlyCosts.put(monthAndYear, currMonthlyBudget);
-        } else {
-            currMonthlyBudget.addConcert(concert, this.budget);
+        BudgetUpdateTrace trace = new BudgetUpdateTrace();
+        trace.begin();
+        long month = getMonthKey(concert.getStartDate());
+
+        MonthlyBudget currMonthlyBudget = monthlyCosts.get(month);
+        boolean isWithinBudget = false;
+        try {
+            if (currMonthlyBudget == null) {
+                currMonthlyBudget = new MonthlyBudget();
+                currMonthlyBudget.addConcert(concert, this.budget);
+                monthlyCosts.put(month, currMonthlyBudget);
+                updateCostTree(month, currMonthlyBudget.getTotalCost());
+            } else {
+                int oldCost = currMonthlyBudget.getTotalCost();
+                currMonthlyBudget.addConcert(concert, this.budget);
+                updateCostTree(month, currMonthlyBudget.getTotalCost() - oldCost);
+            }
+            isWithinBudget = true;
+        } finally {
+            commitTrace(trace, "add", concert, month, isWithinBudget);
+        }
+    }
+
+    /**
+     * Writes the flight recorder event of an update of the costs of a month, if a recording enables it.
+     */
+    private void commitTrace(BudgetUpdateTrace trace, String operation, Concert concert, long month,
+                             boolean isWithinBudget) {
+        if (trace.shouldCommit()) {
+            MonthlyBudget monthlyBudget = monthlyCosts.get(month);
+            trace.operation = operation;
+            trace.cost = concert.getCost();
+            trace.monthCost = (monthlyBudget == null) ? 0 : monthlyBudget.getTotalCost();
+            trace.isWithinBudget = isWithinBudget;
+            trace.commit();
+        }
+    }
+
+    private void updateCostTree(long month, int costChange) {
+        if (month != NO_MONTH && costChange != 0) {
+            costTree.add(month, costChange);
         }
     }
 
@@ -80,95 +132,138 @@ public class Budgeting {
     }
 
     /**
-     * Creates a map where key is the month(MM-yyyy format) and value is the MonthlyBudget object for that month.
+     * Fills the map of months to MonthlyBudget objects in a single pass, in any order of events.
+     * Concerts read from the save file are not checked against the budget.
      *
      * @param eventList list of all events in the current list.
-     * @return created map.
      */
     private void createMap(ArrayList<Event> eventList) {
-        if (eventList.isEmpty() || !hasConcerts(eventList)) { //if empty list, initialize map and return
-            monthlyCosts = new HashMap<>();
-            return;
-        }
-
-        monthlyCosts = new HashMap<>();
-        EventDate monthlyDate = null; //stores a date of a day in the month we are currently checking for
-        ArrayList<Event> listOfConcerts = new ArrayList<Event>(); //to store the concerts in a given month
-        String monthAndYear = "";
-
         for (Event currEvent : eventList) {
             if (currEvent.getType() != 'C') { //if not concert type event, skip iteration
                 continue;
             }
 
-            if (!isSameMonth(currEvent.getStartDate(), monthlyDate)) {
-                if (!listOfConcerts.isEmpty()) {
-                    this.monthlyCosts.put(monthAndYear, new MonthlyBudget(listOfConcerts));
-                }
-
-                monthlyDate = currEvent.getStartDate();
-                monthAndYear = getMonthAndYear(monthlyDate);
-                listOfConcerts.clear();
+            long month = getMonthKey(currEvent.getStartDate());
+            MonthlyBudget currMonthlyBudget = monthlyCosts.get(month);
+            if (currMonthlyBudget == null) {
+                currMonthlyBudget = new MonthlyBudget();
+                monthlyCosts.put(month, currMonthlyBudget);
             }
-
-            listOfConcerts.add(currEvent);
+            int oldCost = currMonthlyBudget.getTotalCost();
+            currMonthlyBudget.storeConcert((Concert) currEvent);
+            updateCostTree(month, currMonthlyBudget.getTotalCost() - oldCost);
         }
-
-        this.monthlyCosts.put(monthAndYear, new MonthlyBudget(listOfConcerts));
     }
 
     /**
-     * Checks list of events for concerts.
+     * Gets the month of a date as year * 12 + month - 1.
+     *
+     * @return key of the month, NO_MONTH if the date is not valid
      */
-    private boolean hasConcerts(ArrayList<Event> eventList) {
-        for (Event event : eventList) {
-            if (event.getType() == 'C') {
-                return true;
-            }
+    static long getMonthKey(EventDate date) {
+        if (!date.isValidDate()) {
+            return NO_MONTH;
         }
+        LocalDate day = LocalDate.ofEpochDay(date.getEpochDay());
+        return day.getYear() * 12L + day.getMonthValue() - 1;
+    }
 
-        return false;
+    /**
+     * Gets the month given in "MM-yyyy" format as year * 12 + month - 1.
+     *
+     * @return key of the month, NO_MONTH if the string is not a valid month
+     */
+    static long getMonthKey(String monthAndYear) {
+        return getMonthKey(new EventDate("01-" + monthAndYear));
     }
 
     /**
-     * Checks whether two EventDate objects have the same month.
+     * Gets total concert costs for a month.
+     *
+     * @param monthAndYear String containing month and year "mm-YYYY" to retrieve costs from
+     * @throws NullPointerException if there are no concerts in the month
      */
-    private boolean isSameMonth(EventDate eventDateA, EventDate eventDateB) {
-        try {
-            Calendar cal = Calendar.getInstance();
-            cal.setTime(eventDateA.getEventJavaDate());
+    public int getCostForMonth(String monthAndYear) throws NullPointerException {
+        long month = getMonthKey(monthAndYear);
+        if (month == NO_MONTH) {
+            throw new NullPointerException();
+        }
+        return monthlyCosts.get(month).getTotalCost();
+    }
 
-            int monthA = cal.get(Calendar.MONTH);
-            int yearA = cal.get(Calendar.YEAR);
+    /**
+     * Gets total concert costs for a month, 0 if there are no concerts in the month.
+     *
+     * @param month key of the month
+     */
+    long getCostForMonth(long month) {
+        MonthlyBudget currMonthlyBudget = monthlyCosts.get(month);
+        return (currMonthlyBudget == null) ? 0 : currMonthlyBudget.getTotalCost();
+    }
 
-            cal.setTime(eventDateB.getEventJavaDate());
+    /**
+     * Checks whether a Concert object is counted in the monthly costs.
+     */
+    boolean containsConcert(Concert concert) {
+        MonthlyBudget currMonthlyBudget = monthlyCosts.get(getMonthKey(concert.getStartDate()));
+        return currMonthlyBudget != null && currMonthlyBudget.contains(concert);
+    }
 
-            int monthB = cal.get(Calendar.MONTH);
-            int yearB = cal.get(Calendar.YEAR);
+    /**
+     * Starts a what-if simulation of adding and removing concerts, which leaves this object unchanged.
+     *
+     * @return simulation with no changes yet, using the current budget
+     */
+    public BudgetSimulation simulate() {
+        return new BudgetSimulation(this);
+    }
 
-            return (monthA == monthB) && (yearA == yearB);
-        } catch (NullPointerException e) {
-            return false;
+    /**
+     * Gets total concert costs for a range of months.
+     *
+     * @param fromMonthAndYear String containing the first month "mm-YYYY" of the range
+     * @param toMonthAndYear   String containing the last month "mm-YYYY" of the range
+     * @throws NumberFormatException if either string is not a valid month
+     */
+    public long getCostBetween(String fromMonthAndYear, String toMonthAndYear) throws NumberFormatException {
+        long fromMonth = getMonthKey(fromMonthAndYear);
+        long toMonth = getMonthKey(toMonthAndYear);
+        if (fromMonth == NO_MONTH || toMonth == NO_MONTH) {
+            throw new NumberFormatException();
         }
+        return costTree.getCostBetween(fromMonth, toMonth);
     }
 
     /**
-     * Retrieves the month and year in a string "mm-YYYY" from an EvenDate object.
+     * Gets total concert costs for a number of months, ending with the given month.
+     *
+     * @param monthAndYear String containing the last month "mm-YYYY"
+     * @param numMonths    number of months
+     * @throws NumberFormatException if the string is not a valid month or the number of months is not positive
      */
-    private String getMonthAndYear(EventDate date) {
-        String monthAndYear = date.getUserInputDateString();
-        monthAndYear = monthAndYear.substring(3, 10); //get MM-yyyy from dd-MM-yyyy HHmm
-
-        return monthAndYear;
+    public long getRollingCost(String monthAndYear, int numMonths) throws NumberFormatException {
+        long month = getMonthKey(monthAndYear);
+        if (month == NO_MONTH || numMonths <= 0) {
+            throw new NumberFormatException();
+        }
+        return costTree.getCostBetween(month - numMonths + 1, month);
     }
 
     /**
-     * Gets total concert costs for a month.
+     * Gets the months of a year in which concert costs exceed the current budget, e.g. after the budget is lowered.
      *
-     * @param monthAndYear String containing month and year "mm-YYYY" to retrieve costs from
+     * @param year year to check
+     * @return months in "MM-yyyy" format, in order
      */
-    public int getCostForMonth(String monthAndYear) throws NullPointerException {
-        return monthlyCosts.get(monthAndYear).getTotalCost();
+    public ArrayList<String> getMonthsOverBudget(int year) {
+        ArrayList<String> monthsOverBudget = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            MonthlyBudget currMonthlyBudget = monthlyCosts.get(year * 12L + month - 1);
+            if (currMonthlyBudget != null && currMonthlyBudget.getTotalCost() > budget) {
+                monthsOverBudget.add(String.format("%02d-%04d", month, year));
+            }
+        }
+        return monthsOverBudget;
     }
 
     /**
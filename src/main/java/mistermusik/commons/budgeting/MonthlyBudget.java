@@ -2,55 +2,41 @@
 
 package mistermusik.commons.budgeting;
 
-import mistermusik.commons.events.eventtypes.Event;
 import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
-import mistermusik.commons.events.formatting.EventDate;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 public class MonthlyBudget {
-    private ArrayList<Concert> listOfConcerts; //list storing all concerts happening in the month
-    private int totalCost; //total cost of concerts in month
-    private EventDate date;
-
     /**
-     * Constructor for monthly budget class.
-     *
-     * @param listOfConcerts Contains the list of Concert objects in the current month
+     * set storing all concerts happening in the month, compared by identity so that concerts with the same
+     * details are kept apart.
      */
-    public MonthlyBudget(ArrayList<Event> listOfConcerts) {
-        this.listOfConcerts = new ArrayList<>();
-        setDateToFirstOfMonth(listOfConcerts.get(0).getStartDate()); //set EventDate date to first day of month
-        storeConcerts(listOfConcerts); //convert events to Concert objects, and store in list.
-    }
+    private Set<Concert> concerts = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private int totalCost = 0; //total cost of concerts in month
 
     /**
      * Constructs an empty MonthlyBudget object.
-     *
-     * @param date corresponding date
      */
-    public MonthlyBudget(EventDate date) {
-        this.totalCost = 0;
-        setDateToFirstOfMonth(date);
-        listOfConcerts = new ArrayList<>();
+    public MonthlyBudget() {
     }
 
     /**
-     * stores all concerts in the listOfConcerts, and updates concert costs accordingly.
+     * Adds a concert read from the save file, without checking it against the budget.
      *
-     * @param concertsInMonth list of concerts to be added
+     * @param concert Concert object to be added
      */
-    private void storeConcerts(ArrayList<Event> concertsInMonth) {
-        this.totalCost = 0;
-        for (Event currEvent : concertsInMonth) {
-            Concert tempConcert = (Concert) currEvent;
-            this.listOfConcerts.add(tempConcert);
-            this.totalCost += tempConcert.getCost();
+    public void storeConcert(Concert concert) {
+        if (concerts.add(concert)) {
+            this.totalCost += concert.getCost();
         }
     }
 
     /**
-     * Attempts to add a new concert to the listOfConcerts, updates monthly budget. Throws exception
+     * Attempts to add a new concert to the month, updates monthly budget. Throws exception
      * if this cannot be done due to cost exceeding budget.
      *
      * @param concert Concert object to be added
@@ -61,44 +47,41 @@ public class MonthlyBudget {
         int newCost = this.totalCost + concert.getCost();
         if (newCost > budget) {
             throw new CostExceedsBudgetException(concert, budget);
-        } else {
-            this.totalCost = newCost;
         }
-        this.listOfConcerts.add(concert);
+        storeConcert(concert);
     }
 
     /**
-     * Updates EventDate date to correct value.
-     *
-     * @param date EventDate of first event in the list of concerts for the current month
+     * Returns list of concerts for this MonthlyBudget.
      */
-    private void setDateToFirstOfMonth(EventDate date) {
-        String dateString = date.getUserInputDateString();
-        dateString = "01" + dateString.substring(2, 10);
-        this.date = new EventDate(dateString);
+    public ArrayList<Concert> getListOfConcerts() {
+        return new ArrayList<>(concerts);
     }
 
     /**
-     * Returns list of concerts for this MonthlyBudget.
+     * Checks whether this exact Concert object is in the month.
      */
-    public ArrayList<Concert> getListOfConcerts() {
-        return this.listOfConcerts;
+    public boolean contains(Concert concert) {
+        return concerts.contains(concert);
+    }
+
+    /**
+     * Checks whether there are no concerts left in the month.
+     */
+    public boolean isEmpty() {
+        return concerts.isEmpty();
     }
 
     /**
-     * Removes a concert from the list. Updates cost accordingly.
+     * Removes a concert from the month. Updates cost accordingly.
+     * Does nothing if this exact Concert object is not in the month.
+     *
      * @param concert Concert object to be removed.
      */
     public void removeConcert(Concert concert) {
-        for (Concert currConcert : listOfConcerts) {
-            if (currConcert.getStartDate().getUserInputDateString().equals(
-                    concert.getStartDate().getUserInputDateString())) {
-                listOfConcerts.remove(currConcert);
-                break;
-            }
+        if (concerts.remove(concert)) {
+            this.totalCost -= concert.getCost();
         }
-
-        this.totalCost -= concert.getCost();
     }
 
     /**
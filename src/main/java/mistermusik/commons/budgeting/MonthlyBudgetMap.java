@@ -0,0 +1,130 @@
+package mistermusik.commons.budgeting;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from month keys (year * 12 + month - 1) to MonthlyBudget objects, using open addressing with
+ * linear probing on primitive keys so that no key objects are created on lookups.
+ */
+class MonthlyBudgetMap {
+    /**
+     * Key marking an empty slot, never a valid month key.
+     */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys;
+    private MonthlyBudget[] values;
+    private int size = 0;
+
+    /**
+     * Creates an empty map.
+     */
+    MonthlyBudgetMap() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new MonthlyBudget[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Gets the MonthlyBudget for a month.
+     *
+     * @param key month key
+     * @return MonthlyBudget for the month, null if there is none
+     */
+    MonthlyBudget get(long key) {
+        int slot = findSlot(key);
+        return (keys[slot] == EMPTY) ? null : values[slot];
+    }
+
+    /**
+     * Sets the MonthlyBudget for a month, replacing the old one if there is one.
+     *
+     * @param key   month key
+     * @param value MonthlyBudget for the month
+     */
+    void put(long key, MonthlyBudget value) {
+        int slot = findSlot(key);
+        if (keys[slot] == EMPTY) {
+            if (2 * (size + 1) > keys.length) { //keep the table at most half full
+                resize();
+                slot = findSlot(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Removes the MonthlyBudget for a month. Does nothing if there is none.
+     *
+     * @param key month key
+     */
+    void remove(long key) {
+        int slot = findSlot(key);
+        if (keys[slot] == EMPTY) {
+            return;
+        }
+        size--;
+
+        //move back later keys of the same probe sequence, so lookups never stop early at the freed slot
+        int mask = keys.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == EMPTY) {
+                break;
+            }
+            int home = hash(keys[next]) & mask;
+            boolean isHomeBetween = (slot <= next) ? (slot < home && home <= next) : (slot < home || home <= next);
+            if (!isHomeBetween) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        keys[slot] = EMPTY;
+        values[slot] = null;
+    }
+
+    /**
+     * Gets number of months stored.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the slot holding the key, or the empty slot where it would be inserted.
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L; //spread consecutive months over the table
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        MonthlyBudget[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new MonthlyBudget[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
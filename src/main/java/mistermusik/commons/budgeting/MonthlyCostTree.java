@@ -0,0 +1,139 @@
+package mistermusik.commons.budgeting;
+
+import java.util.TreeMap;
+
+/**
+ * Fenwick tree (binary indexed tree) of concert costs over a range of consecutive months, used to total the
+ * costs of any range of months in O(log m) time. The range of months covered grows as needed. Months too far
+ * from the others to be covered (e.g. dates with mistyped years) are kept in a sorted map instead.
+ */
+class MonthlyCostTree {
+    /**
+     * Largest number of months covered by the tree, about 87000 years.
+     */
+    private static final int MAX_MONTHS = 1 << 20;
+
+    private static final int INITIAL_MONTHS = 64;
+
+    /**
+     * month key (year * 12 + month - 1) of the first month covered.
+     */
+    private long firstMonth = 0;
+
+    /**
+     * total cost of each month covered.
+     */
+    private long[] costs = new long[0];
+
+    /**
+     * Fenwick tree over costs, tree[i] holds the total cost of the (i & -i) months ending with month i - 1.
+     */
+    private long[] tree = new long[1];
+
+    /**
+     * total cost of each month not covered by the tree.
+     */
+    private TreeMap<Long, Long> outlyingCosts = new TreeMap<>();
+
+    /**
+     * Adds to the total cost of a month.
+     *
+     * @param month month key
+     * @param cost  cost to be added, negative to remove costs
+     */
+    void add(long month, long cost) {
+        if (!isCovered(month) && !cover(month)) {
+            long newCost = outlyingCosts.getOrDefault(month, 0L) + cost;
+            if (newCost == 0) {
+                outlyingCosts.remove(month);
+            } else {
+                outlyingCosts.put(month, newCost);
+            }
+            return;
+        }
+        int index = (int) (month - firstMonth);
+        costs[index] += cost;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += cost;
+        }
+    }
+
+    /**
+     * Gets the total cost of the months from fromMonth to toMonth, both included.
+     *
+     * @param fromMonth month key of the first month
+     * @param toMonth   month key of the last month
+     * @return total cost, 0 if toMonth is before fromMonth
+     */
+    long getCostBetween(long fromMonth, long toMonth) {
+        if (fromMonth > toMonth) {
+            return 0;
+        }
+        long totalCost = getCostBefore(toMonth + 1) - getCostBefore(fromMonth);
+        for (long cost : outlyingCosts.subMap(fromMonth, true, toMonth, true).values()) {
+            totalCost += cost;
+        }
+        return totalCost;
+    }
+
+    /**
+     * Gets the total cost of the months covered by the tree before the given month.
+     */
+    private long getCostBefore(long month) {
+        int numMonths = (int) Math.min(Math.max(month - firstMonth, 0), costs.length);
+        long totalCost = 0;
+        for (int i = numMonths; i > 0; i -= i & -i) {
+            totalCost += tree[i];
+        }
+        return totalCost;
+    }
+
+    private boolean isCovered(long month) {
+        return month >= firstMonth && month - firstMonth < costs.length;
+    }
+
+    /**
+     * Grows the range of months covered to include the given month, at least doubling it so that growing
+     * takes amortised constant time.
+     *
+     * @return true if the month is now covered, false if the range would become too large
+     */
+    private boolean cover(long month) {
+        long lastMonth = firstMonth + costs.length - 1;
+        long span = (costs.length == 0) ? 1 : Math.max(lastMonth, month) - Math.min(firstMonth, month) + 1;
+        if (span > MAX_MONTHS) {
+            return false;
+        }
+        int newLength = Math.max(INITIAL_MONTHS, costs.length * 2);
+        while (newLength < span) {
+            newLength *= 2;
+        }
+        newLength = Math.min(newLength, MAX_MONTHS);
+
+        long newFirstMonth;
+        if (costs.length == 0) {
+            newFirstMonth = month;
+        } else if (month < firstMonth) { //leave the new space before the months covered
+            newFirstMonth = lastMonth + 1 - newLength;
+        } else {
+            newFirstMonth = firstMonth;
+        }
+        long[] newCosts = new long[newLength];
+        if (costs.length > 0) {
+            System.arraycopy(costs, 0, newCosts, (int) (firstMonth - newFirstMonth), costs.length);
+        }
+        costs = newCosts;
+        firstMonth = newFirstMonth;
+
+        //build the tree in linear time, each entry adding itself to the next entry covering it
+        tree = new long[newLength + 1];
+        for (int i = 1; i <= newLength; i++) {
+            tree[i] += costs[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= newLength) {
+                tree[parent] += tree[i];
+            }
+        }
+        return true;
+    }
+}
@@ -6,11 +6,12 @@ import mistermusik.commons.Contact;
 import mistermusik.commons.Goal;
 
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 /**
  * Parent class of all event types.
  */
-public abstract class Event implements Comparable<Event> {
+public abstract class Event implements Comparable<Event>, Cloneable {
     /**
      * event description.
      */
@@ -51,6 +52,12 @@ public abstract class Event implements Comparable<Event> {
      */
     private Checklist checklist;
 
+    /**
+     * reads the goals, contacts and checklist saved for the event into it, null once they are read or if
+     * none were saved.
+     */
+    private Consumer<Event> savedDetailsReader;
+
     /**
      * Creates event with one date input (e.g todo).
      *
@@ -88,6 +95,27 @@ public abstract class Event implements Comparable<Event> {
         this.checklist = new Checklist();
     }
 
+    /**
+     * Creates event with dates that are already parsed (e.g. read from a binary snapshot).
+     *
+     * @param description    event description
+     * @param isDone         boolean representing state of event completion
+     * @param startEventDate start date of event
+     * @param endEventDate   end date of event, null for a ToDo
+     * @param eventType      character signifying event type
+     */
+    public Event(String description, boolean isDone, EventDate startEventDate, EventDate endEventDate,
+                 char eventType) {
+        this.description = description;
+        this.isDone = isDone;
+        this.startEventDate = startEventDate;
+        this.endEventDate = endEventDate;
+        this.eventType = eventType;
+        this.goalsList = new ArrayList<>();
+        this.contactList = new ArrayList<>();
+        this.checklist = new Checklist();
+    }
+
     /**
      * Edit event with new description and two date input.
      *
@@ -195,6 +223,7 @@ public abstract class Event implements Comparable<Event> {
      * @param goalInput Goal object to be added.
      */
     public void addGoal(Goal goalInput) {
+        readSavedDetails();
         goalsList.add(goalInput);
     }
 
@@ -204,6 +233,7 @@ public abstract class Event implements Comparable<Event> {
      * @param goalID Index of goal to be removed.
      */
     public void removeGoal(int goalID) {
+        readSavedDetails();
         goalsList.remove(goalID);
     }
 
@@ -213,6 +243,7 @@ public abstract class Event implements Comparable<Event> {
      * @return ArrayList containing goals retrieved.
      */
     public ArrayList<Goal> getGoalList() {
+        readSavedDetails();
         return goalsList;
     }
 
@@ -222,6 +253,7 @@ public abstract class Event implements Comparable<Event> {
      * @param goalID Index of goal object to be retrieved.
      */
     public Goal getGoalObject(int goalID) {
+        readSavedDetails();
         return goalsList.get(goalID);
     }
 
@@ -232,6 +264,7 @@ public abstract class Event implements Comparable<Event> {
      * @param index     Index of goal to be edited.
      */
     public void editGoalList(Goal goalInput, int index) {
+        readSavedDetails();
         goalsList.set(index, goalInput);
     }
 
@@ -241,6 +274,7 @@ public abstract class Event implements Comparable<Event> {
      * @param goalID Index of goal in list.
      */
     public void updateGoalAchieved(int goalID) {
+        readSavedDetails();
         goalsList.get(goalID).setAchieved();
     }
 
@@ -252,6 +286,7 @@ public abstract class Event implements Comparable<Event> {
      * @param contactInput Contact object to be added to list.
      */
     public void addContact(Contact contactInput) {
+        readSavedDetails();
         contactList.add(contactInput);
     }
 
@@ -261,6 +296,7 @@ public abstract class Event implements Comparable<Event> {
      * @param contactIndex Index for Contact to be removed.
      */
     public void removeContact(int contactIndex) {
+        readSavedDetails();
         contactList.remove(contactIndex);
     }
 
@@ -268,6 +304,7 @@ public abstract class Event implements Comparable<Event> {
      * Retrieves list of contacts for the event.
      */
     public ArrayList<Contact> getContactList() {
+        readSavedDetails();
         return contactList;
     }
 
@@ -280,6 +317,7 @@ public abstract class Event implements Comparable<Event> {
      * @param newContact   Information required for editing, in form of string.
      */
     public void editContact(int contactIndex, char editType, String newContact) {
+        readSavedDetails();
         if (editType == 'N') {
             contactList.get(contactIndex).setName(newContact);
         } else if (editType == 'E') {
@@ -295,6 +333,7 @@ public abstract class Event implements Comparable<Event> {
      * Adds a new checklist for an event.
      */
     public void addChecklist(String newChecklist) {
+        readSavedDetails();
         this.checklist.addItem(newChecklist);
     }
 
@@ -304,6 +343,7 @@ public abstract class Event implements Comparable<Event> {
      * @return ArrayList of Strings containing checklist information.
      */
     public ArrayList<String> getChecklist() {
+        readSavedDetails();
         return this.checklist.getChecklist();
     }
 
@@ -314,6 +354,7 @@ public abstract class Event implements Comparable<Event> {
      * @param newChecklist   String containing information required for edition.
      */
     public void editChecklist(int checklistIndex, String newChecklist) {
+        readSavedDetails();
         this.checklist.editItem(checklistIndex, newChecklist);
     }
 
@@ -323,20 +364,59 @@ public abstract class Event implements Comparable<Event> {
      * @param checklistIndex Index of item to be deleted.
      */
     public void deleteChecklist(int checklistIndex) {
+        readSavedDetails();
         this.checklist.deleteItem(checklistIndex);
     }
 
     //@@author
 
     /**
-     * Compares two Event objects based on date, used to sort the list of Events.
+     * Sets how the goals, contacts and checklist saved for the event are read, which is only done the first
+     * time any of them is used, so that loading the event list does not pay for them.
+     *
+     * @param savedDetailsReader adds the saved goals, contacts and checklist items to the event
+     */
+    public void setSavedDetailsReader(Consumer<Event> savedDetailsReader) {
+        this.savedDetailsReader = savedDetailsReader;
+    }
+
+    /**
+     * Copies the event, e.g. to write it to a snapshot on another thread while the event itself is changed.
+     * The copy shares the goals, contacts and checklist of the event, and its dates, which are replaced rather
+     * than changed when the event is rescheduled.
+     */
+    public Event copy() {
+        try {
+            return (Event) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e); //Event is Cloneable
+        }
+    }
+
+    /**
+     * Checks whether the event has saved goals, contacts or checklist items that are not read yet.
+     */
+    public boolean hasUnreadSavedDetails() {
+        return savedDetailsReader != null;
+    }
+
+    /**
+     * Reads the saved goals, contacts and checklist into the event if they have not been read yet.
+     */
+    private void readSavedDetails() {
+        if (savedDetailsReader != null) {
+            Consumer<Event> reader = savedDetailsReader;
+            savedDetailsReader = null; //the reader adds the details through the methods calling this
+            reader.accept(this);
+        }
+    }
+
+    /**
+     * Compares two Event objects based on start date and time, used to sort the list of Events.
+     * Returns 0 for events starting at the same time.
      */
     @Override
     public int compareTo(Event currEvent) {
-        if (this.startEventDate.getEventJavaDate().compareTo(currEvent.startEventDate.getEventJavaDate()) > 0) {
-            return 1;
-        } else {
-            return -1;
-        }
+        return Long.compare(this.startEventDate.getEpochMinute(), currEvent.startEventDate.getEpochMinute());
     }
 }
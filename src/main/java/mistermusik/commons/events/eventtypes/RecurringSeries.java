@@ -0,0 +1,329 @@
+package mistermusik.commons.events.eventtypes;
+
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Lesson;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Practice;
+import mistermusik.commons.events.formatting.EventDate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Recurring lesson or practice, stored as a single rule (first occurrence, period and number of occurrences)
+ * instead of one Event per occurrence. Occurrences are created on demand. Occurrences that were deleted,
+ * or taken out of the series to be changed on their own, are kept as exclusions.
+ */
+public class RecurringSeries {
+    /**
+     * character signifying type of the occurrences (L for lesson, P for practice).
+     */
+    private char eventType;
+
+    private String description;
+
+    private boolean isDone;
+
+    /**
+     * start of the first occurrence in epoch-minutes.
+     */
+    private long firstStart;
+
+    /**
+     * length of each occurrence in minutes.
+     */
+    private long duration;
+
+    /**
+     * number of days between occurrences.
+     */
+    private int period;
+
+    /**
+     * number of occurrences in the series, including excluded ones.
+     */
+    private int count;
+
+    /**
+     * sorted numbers of occurrences no longer part of the series.
+     */
+    private ArrayList<Integer> excludedOccurrences = new ArrayList<>();
+
+    /**
+     * Creates a series from its first occurrence.
+     *
+     * @param firstOccurrence first occurrence of the series, a Lesson or Practice
+     * @param period          number of days between occurrences
+     * @param count           number of occurrences
+     */
+    public RecurringSeries(Event firstOccurrence, int period, int count) {
+        this.eventType = firstOccurrence.getType();
+        this.description = firstOccurrence.getDescription();
+        this.isDone = firstOccurrence.getDoneSymbol().equals("V");
+        this.firstStart = firstOccurrence.getStartDate().getEpochMinute();
+        this.duration = firstOccurrence.getEndDate().getEpochMinute() - firstStart;
+        this.period = period;
+        this.count = count;
+    }
+
+    /**
+     * Creates a series read from the save file.
+     *
+     * @param eventType           character signifying type of the occurrences
+     * @param description         description of the occurrences
+     * @param isDone              boolean representing state of completion
+     * @param startDateAndTime    string representing start date of the first occurrence
+     * @param endDateAndTime      string representing end date of the first occurrence
+     * @param period              number of days between occurrences
+     * @param count               number of occurrences
+     * @param excludedOccurrences comma separated numbers of occurrences no longer part of the series
+     */
+    public RecurringSeries(char eventType, String description, boolean isDone, String startDateAndTime,
+                           String endDateAndTime, int period, int count, String excludedOccurrences) {
+        this.eventType = eventType;
+        this.description = description;
+        this.isDone = isDone;
+        this.firstStart = new EventDate(startDateAndTime).getEpochMinute();
+        this.duration = new EventDate(endDateAndTime).getEpochMinute() - firstStart;
+        this.period = period;
+        this.count = count;
+        for (String occurrence : excludedOccurrences.split(",")) {
+            if (!occurrence.isEmpty()) {
+                excludeOccurrence(Integer.parseInt(occurrence));
+            }
+        }
+    }
+
+    /**
+     * Creates a series from dates that are already parsed (e.g. read from a binary snapshot).
+     *
+     * @param eventType           character signifying type of the occurrences
+     * @param description         description of the occurrences
+     * @param isDone              boolean representing state of completion
+     * @param firstStart          start of the first occurrence in epoch-minutes
+     * @param duration            length of each occurrence in minutes
+     * @param period              number of days between occurrences
+     * @param count               number of occurrences
+     * @param excludedOccurrences numbers of occurrences no longer part of the series
+     */
+    public RecurringSeries(char eventType, String description, boolean isDone, long firstStart, long duration,
+                           int period, int count, List<Integer> excludedOccurrences) {
+        this.eventType = eventType;
+        this.description = description;
+        this.isDone = isDone;
+        this.firstStart = firstStart;
+        this.duration = duration;
+        this.period = period;
+        this.count = count;
+        for (int occurrence : excludedOccurrences) {
+            excludeOccurrence(occurrence);
+        }
+    }
+
+    public char getType() {
+        return eventType;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isDone() {
+        return isDone;
+    }
+
+    /**
+     * Gets the number of days between occurrences.
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * Gets the number of occurrences in the series, including excluded ones.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sorted numbers of occurrences no longer part of the series.
+     */
+    public List<Integer> getExcludedOccurrences() {
+        return Collections.unmodifiableList(excludedOccurrences);
+    }
+
+    /**
+     * Gets the length of each occurrence in minutes.
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the number of the last occurrence, whether or not it is still part of the series.
+     */
+    public int getLastOccurrence() {
+        return count - 1;
+    }
+
+    /**
+     * Gets the start of an occurrence in epoch-minutes.
+     *
+     * @param occurrence number of the occurrence, starting from 0
+     */
+    public long getStart(int occurrence) {
+        return firstStart + occurrence * getPeriodInMinutes();
+    }
+
+    private long getPeriodInMinutes() {
+        return period * EventDate.MINUTES_PER_DAY;
+    }
+
+    /**
+     * Checks whether an occurrence is still part of the series.
+     */
+    public boolean isIncluded(int occurrence) {
+        return occurrence >= 0 && occurrence < count
+                && Collections.binarySearch(excludedOccurrences, occurrence) < 0;
+    }
+
+    /**
+     * Takes an occurrence out of the series, after it is deleted or changed on its own.
+     */
+    public void excludeOccurrence(int occurrence) {
+        int insertionPoint = Collections.binarySearch(excludedOccurrences, occurrence);
+        if (insertionPoint < 0 && occurrence >= 0 && occurrence < count) {
+            excludedOccurrences.add(-insertionPoint - 1, occurrence);
+        }
+    }
+
+    /**
+     * Gets the number of occurrences still part of the series.
+     */
+    public int getNumOccurrences() {
+        return count - excludedOccurrences.size();
+    }
+
+    /**
+     * Gets the start of the last occurrence in epoch-minutes, whether or not it is still part of the series.
+     */
+    public long getLastStart() {
+        return getStart(getLastOccurrence());
+    }
+
+    /**
+     * Gets the number of occurrences still part of the series starting before the given time.
+     *
+     * @param epochMinute time in epoch-minutes
+     */
+    public int countOccurrencesBefore(long epochMinute) {
+        int occurrencesBefore = getFirstOccurrenceFrom(epochMinute);
+        int numExcluded = Collections.binarySearch(excludedOccurrences, occurrencesBefore);
+        return occurrencesBefore - ((numExcluded < 0) ? -numExcluded - 1 : numExcluded);
+    }
+
+    /**
+     * Gets the first occurrence starting at or after the given time, whether or not it is still part of the series.
+     *
+     * @param epochMinute time in epoch-minutes
+     * @return number of the occurrence, or the number of occurrences in the series if there is none
+     */
+    public int getFirstOccurrenceFrom(long epochMinute) {
+        if (epochMinute <= firstStart) {
+            return 0;
+        } else if (epochMinute > getLastStart()) {
+            return count;
+        }
+        return (int) (Math.floorDiv(epochMinute - firstStart - 1, getPeriodInMinutes()) + 1);
+    }
+
+    /**
+     * Gets the occurrence still part of the series starting exactly at the given time.
+     *
+     * @param epochMinute time in epoch-minutes
+     * @return number of the occurrence, -1 if there is none
+     */
+    public int getOccurrenceStartingAt(long epochMinute) {
+        if (epochMinute < firstStart || epochMinute > getLastStart()
+                || (epochMinute - firstStart) % getPeriodInMinutes() != 0) {
+            return -1;
+        }
+        int occurrence = (int) ((epochMinute - firstStart) / getPeriodInMinutes());
+        return isIncluded(occurrence) ? occurrence : -1;
+    }
+
+    /**
+     * Adds Events for all occurrences still part of the series starting in the time span [from, to).
+     *
+     * @param from        start of the time span in epoch-minutes
+     * @param to          end of the time span in epoch-minutes
+     * @param occurrences list the occurrences are added to, in order of start
+     */
+    public void addOccurrencesBetween(long from, long to, List<Event> occurrences) {
+        int occurrence = getFirstOccurrenceFrom(from);
+        for (; occurrence < count && getStart(occurrence) < to; occurrence++) {
+            if (isIncluded(occurrence)) {
+                occurrences.add(createOccurrence(occurrence));
+            }
+        }
+    }
+
+    /**
+     * Finds the earliest occurrence clashing with the time span [start, end). Two events clash if they
+     * overlap in time, or if they start at the same time.
+     *
+     * @param start start of the time span in epoch-minutes
+     * @param end   end of the time span in epoch-minutes
+     * @return number of the clashing occurrence, -1 if there is none
+     */
+    public int getFirstClashingOccurrence(long start, long end) {
+        long latestClashingStart = (end > start) ? end - 1 : start;
+        long first = Math.max(0, Math.floorDiv(start - duration - firstStart, getPeriodInMinutes()));
+        long last = Math.min(count - 1, Math.floorDiv(latestClashingStart - firstStart, getPeriodInMinutes()));
+        for (long occurrence = first; occurrence <= last; occurrence++) {
+            long occurrenceStart = getStart((int) occurrence);
+            boolean isClashing = occurrenceStart + duration > start || occurrenceStart == start;
+            if (isClashing && occurrenceStart <= latestClashingStart && isIncluded((int) occurrence)) {
+                return (int) occurrence;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates an Event for an occurrence of the series.
+     *
+     * @param occurrence number of the occurrence, starting from 0
+     * @return Lesson or Practice for the occurrence
+     */
+    public Event createOccurrence(int occurrence) {
+        EventDate startDate = new EventDate(getStart(occurrence), true);
+        EventDate endDate = new EventDate(getStart(occurrence) + duration, true);
+        if (eventType == 'L') {
+            return new Lesson(description, isDone, startDate, endDate);
+        }
+        return new Practice(description, isDone, startDate, endDate);
+    }
+
+    /**
+     * Copies the series, e.g. to write it to a snapshot on another thread while occurrences are excluded from it.
+     */
+    public RecurringSeries copy() {
+        return new RecurringSeries(eventType, description, isDone, firstStart, duration, period, count,
+                excludedOccurrences);
+    }
+
+    /**
+     * Returns corresponding string containing information to be written to txt file for storage.
+     */
+    public String toStringForFile() {
+        StringBuilder line = new StringBuilder(isDone ? "V" : "X").append("S/").append(eventType).append('/')
+                .append(description).append('/').append(new EventDate(firstStart).getUserInputDateString())
+                .append('/').append(new EventDate(firstStart + duration).getUserInputDateString())
+                .append('/').append(period).append('/').append(count);
+        for (int i = 0; i < excludedOccurrences.size(); i++) {
+            line.append((i == 0) ? '/' : ',').append(excludedOccurrences.get(i));
+        }
+        return line.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package mistermusik.commons.events.eventtypes.eventsubclasses;
 
 import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.formatting.EventDate;
 
 public abstract class Assessment extends Event {
     /**
@@ -13,6 +14,16 @@ public abstract class Assessment extends Event {
         super(description, isDone, startDateAndTime, endDateAndTime, eventType);
     }
 
+    /**
+     * Creates assessment event with dates that are already parsed, for reading from a binary snapshot.
+     *
+     * @param eventType type of event denoted by character
+     */
+    public Assessment(String description, boolean isDone, EventDate startEventDate, EventDate endEventDate,
+                      char eventType) {
+        super(description, isDone, startEventDate, endEventDate, eventType);
+    }
+
     /**
      * Creates assessment without isDone boolean for user input (assumes event entered is incomplete).
      *
@@ -1,6 +1,7 @@
 package mistermusik.commons.events.eventtypes.eventsubclasses;
 
 import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.formatting.EventDate;
 
 /**
  * Class that represents a concert type event.
@@ -16,6 +17,14 @@ public class Concert extends Event {
         this.cost = cost;
     }
 
+    /**
+     * Creates new concert class with dates that are already parsed, to read from a binary snapshot.
+     */
+    public Concert(String description, boolean isDone, EventDate startEventDate, EventDate endEventDate, int cost) {
+        super(description, isDone, startEventDate, endEventDate, 'C');
+        this.cost = cost;
+    }
+
     /**
      * Creates new concert class without boolean to read from user input (assumes incomplete).
      */
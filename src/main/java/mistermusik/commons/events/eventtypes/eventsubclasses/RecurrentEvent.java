@@ -1,6 +1,7 @@
 package mistermusik.commons.events.eventtypes.eventsubclasses;
 
 import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.formatting.EventDate;
 
 /**
  * Abstract class that represents event types that can be created as recurring events.
@@ -16,6 +17,16 @@ public abstract class RecurrentEvent extends Event {
         super(description, isDone, startDateAndTime, endDateAndTime, eventType);
     }
 
+    /**
+     * Creates recurrent event with dates that are already parsed, for reading from a binary snapshot.
+     *
+     * @param eventType type of event denoted by character
+     */
+    public RecurrentEvent(String description, boolean isDone, EventDate startEventDate, EventDate endEventDate,
+                          char eventType) {
+        super(description, isDone, startEventDate, endEventDate, eventType);
+    }
+
     /**
      * Creates recurrent event without isDone boolean for user input (assumes task entered is incomplete).
      *
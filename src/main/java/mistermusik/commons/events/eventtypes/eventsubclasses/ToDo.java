@@ -1,6 +1,7 @@
 package mistermusik.commons.events.eventtypes.eventsubclasses;
 
 import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.formatting.EventDate;
 
 /**
  * Class that represents a ToDo type event.
@@ -13,6 +14,13 @@ public class ToDo extends Event {
         super(description, isDone, dateAndTime);
     }
 
+    /**
+     * Creates ToDo with a date that is already parsed, for reading from a binary snapshot.
+     */
+    public ToDo(String description, boolean isDone, EventDate date) {
+        super(description, isDone, date, null, 'T');
+    }
+
     /**
      * Creates ToDo without boolean, assumed incomplete read from user input.
      */
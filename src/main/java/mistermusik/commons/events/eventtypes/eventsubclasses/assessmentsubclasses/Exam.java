@@ -1,6 +1,7 @@
 package mistermusik.commons.events.eventtypes.eventsubclasses.assessmentsubclasses;
 
 import mistermusik.commons.events.eventtypes.eventsubclasses.Assessment;
+import mistermusik.commons.events.formatting.EventDate;
 
 /**
  * Exam type Event class.
@@ -13,6 +14,13 @@ public class Exam extends Assessment {
         super(description, isDone, startDateAndTime, endDateAndTime, 'E');
     }
 
+    /**
+     * Creates exam event with dates that are already parsed, for reading from a binary snapshot.
+     */
+    public Exam(String description, boolean isDone, EventDate startEventDate, EventDate endEventDate) {
+        super(description, isDone, startEventDate, endEventDate, 'E');
+    }
+
     /**
      * Creates exam without isDone boolean for user input (assumes event entered is incomplete).
      */
@@ -1,6 +1,7 @@
 package mistermusik.commons.events.eventtypes.eventsubclasses.assessmentsubclasses;
 
 import mistermusik.commons.events.eventtypes.eventsubclasses.Assessment;
+import mistermusik.commons.events.formatting.EventDate;
 
 /**
  * Recital type Event class.
@@ -13,6 +14,13 @@ public class Recital extends Assessment {
         super(description, isDone, startDateAndTime, endDateAndTime, 'R');
     }
 
+    /**
+     * Creates recital event with dates that are already parsed, for reading from a binary snapshot.
+     */
+    public Recital(String description, boolean isDone, EventDate startEventDate, EventDate endEventDate) {
+        super(description, isDone, startEventDate, endEventDate, 'R');
+    }
+
     /**
      * Creates recital without isDone boolean for user input (assumes event entered is incomplete).
      */
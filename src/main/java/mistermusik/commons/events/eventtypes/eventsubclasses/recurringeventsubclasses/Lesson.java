@@ -1,6 +1,7 @@
 package mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses;
 
 import mistermusik.commons.events.eventtypes.eventsubclasses.RecurrentEvent;
+import mistermusik.commons.events.formatting.EventDate;
 
 /**
  * Lesson type Event class.
@@ -14,6 +15,13 @@ public class Lesson extends RecurrentEvent {
         super(description, isDone, startDateAndTime, endDateAndTime, 'L');
     }
 
+    /**
+     * creates new lesson class with dates that are already parsed, to read from a binary snapshot.
+     */
+    public Lesson(String description, boolean isDone, EventDate startEventDate, EventDate endEventDate) {
+        super(description, isDone, startEventDate, endEventDate, 'L');
+    }
+
     /**
      * creates new lesson class with boolean to read from user input (assume incomplete).
      */
@@ -1,6 +1,7 @@
 package mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses;
 
 import mistermusik.commons.events.eventtypes.eventsubclasses.RecurrentEvent;
+import mistermusik.commons.events.formatting.EventDate;
 
 /**
  * Practice type Event class.
@@ -14,6 +15,13 @@ public class Practice extends RecurrentEvent {
         super(description, isDone, startDateAndTime, endDateAndTime, 'P');
     }
 
+    /**
+     * creates new practice class with dates that are already parsed, to read from a binary snapshot.
+     */
+    public Practice(String description, boolean isDone, EventDate startEventDate, EventDate endEventDate) {
+        super(description, isDone, startEventDate, endEventDate, 'P');
+    }
+
     /**
      * creates new practice class without boolean to read from user input (assume incomplete).
      */
@@ -1,90 +1,304 @@
 package mistermusik.commons.events.formatting;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 import java.util.Date;
 import java.util.Locale;
 
 /**
  * Model_Class.DateObj object stores the input date and time as a java object.
+ * The date is kept as a single number of minutes since the epoch in local time, and the date strings
+ * are only formatted when first asked for.
  */
 
 public class EventDate {
 
-    private String userInputDateString;
+    /**
+     * Epoch-minute of dates that could not be parsed.
+     */
+    static final long INVALID_DATE = Long.MIN_VALUE;
 
-    private Date javaDate;
+    /**
+     * Kinds of dates: with a time, date only (at the start of the day), and date only at 23:59:59.
+     */
+    private static final byte DATE_AND_TIME = 0;
+    private static final byte DATE_ONLY = 1;
+    private static final byte END_OF_DAY = 2;
 
-    private String formattedDateString;
+    public static final long MINUTES_PER_DAY = 24 * 60;
 
-    private static final int STRING_TO_DATE = 1;
+    /**
+     * Shared formatters, which (unlike SimpleDateFormat) are immutable and thread-safe.
+     * Years are printed like SimpleDateFormat does: padded to 4 digits, without a sign when longer.
+     */
+    private static final DateTimeFormatter INPUT_DATE_TIME_FORMAT = new DateTimeFormatterBuilder()
+            .appendPattern("dd-MM-").appendValue(ChronoField.YEAR_OF_ERA, 4, 9, SignStyle.NORMAL)
+            .appendPattern(" HHmm").toFormatter(Locale.ENGLISH);
+    private static final DateTimeFormatter INPUT_DATE_FORMAT = new DateTimeFormatterBuilder()
+            .appendPattern("dd-MM-").appendValue(ChronoField.YEAR_OF_ERA, 4, 9, SignStyle.NORMAL)
+            .toFormatter(Locale.ENGLISH);
+    private static final DateTimeFormatter DISPLAY_DATE_TIME_FORMAT = new DateTimeFormatterBuilder()
+            .appendPattern("EEE, dd MMM ").appendValue(ChronoField.YEAR_OF_ERA, 4, 9, SignStyle.NORMAL)
+            .appendPattern(", HH:mm").toFormatter(Locale.ENGLISH);
+    private static final DateTimeFormatter DISPLAY_DATE_FORMAT = new DateTimeFormatterBuilder()
+            .appendPattern("EEE, dd MMM ").appendValue(ChronoField.YEAR_OF_ERA, 4, 9, SignStyle.NORMAL)
+            .toFormatter(Locale.ENGLISH);
 
-    private static final int DATE_TO_STRING = 2;
+    /**
+     * Largest year accepted by the parser, same as the largest year of java.util.GregorianCalendar.
+     */
+    private static final int MAX_YEAR = 292278994;
+
+    /**
+     * minutes since the epoch in local time, INVALID_DATE if the user input could not be parsed as a date.
+     */
+    private long epochMinute;
+
+    private byte kind;
+
+    /**
+     * date in dd-MM-yyyy HHmm or dd-MM-yyyy format, formatted on first use. Holds the user input if it is not a date.
+     */
+    private String userInputDateString;
+
+    /**
+     * date in display format, formatted on first use.
+     */
+    private String formattedDateString;
 
     /**
      * Creates a custom "date object" for string to date.
      */
     public EventDate(String userInputDateString) {
-        this.userInputDateString = userInputDateString;
-        formatDate(STRING_TO_DATE);
+        this.epochMinute = parseDateTime(userInputDateString);
+        this.kind = DATE_AND_TIME;
+        if (epochMinute == INVALID_DATE) {
+            this.epochMinute = parseDate(userInputDateString);
+            this.kind = DATE_ONLY;
+        }
+        if (epochMinute == INVALID_DATE) {
+            this.userInputDateString = userInputDateString;
+            this.formattedDateString = userInputDateString;
+        }
     }
 
     /**
      * Creates a custom "date object" for date to string (used for recurring events).
+     * Seconds are dropped, as dates are kept to the minute.
      */
     public EventDate(Date dateClass) {
-        this.javaDate = dateClass;
-        formatDate(DATE_TO_STRING);
+        Instant instant = dateClass.toInstant();
+        long localSeconds = instant.getEpochSecond() + ZoneId.systemDefault().getRules().getOffset(instant)
+                .getTotalSeconds();
+        this.epochMinute = Math.floorDiv(localSeconds, 60L);
+        this.kind = DATE_AND_TIME;
+    }
+
+    /**
+     * Creates a custom "date object" from a number of minutes since the epoch in local time
+     * (used for occurrences of recurring series).
+     */
+    public EventDate(long epochMinute) {
+        this.epochMinute = epochMinute;
+        this.kind = DATE_AND_TIME;
+    }
+
+    /**
+     * Creates a custom "date object" from a date that is already parsed (used for binary snapshots).
+     *
+     * @param epochMinute minutes since the epoch in local time
+     * @param hasTime     false if the date has no time, the time is then set to the start of the day
+     */
+    public EventDate(long epochMinute, boolean hasTime) {
+        this.epochMinute = hasTime ? epochMinute : Math.floorDiv(epochMinute, MINUTES_PER_DAY) * MINUTES_PER_DAY;
+        this.kind = hasTime ? DATE_AND_TIME : DATE_ONLY;
+    }
+
+    /**
+     * Parses a string starting with a date in dd-MM-yyyy HHmm format, without throwing exceptions.
+     * Follows the rules of a non-lenient SimpleDateFormat: day and month may have any number of digits,
+     * blanks before a number are skipped, and any text after the date is ignored. Dates are read in the
+     * proleptic ISO calendar, which only differs from SimpleDateFormat before the year 1583.
+     *
+     * @param dateString string to parse
+     * @return epoch-minute in local time of the date and time parsed, INVALID_DATE if the string does not
+     *     start with a valid date and time
+     */
+    static long parseDateTime(String dateString) {
+        return parse(dateString, true);
     }
 
     /**
-     * Takes in an identifier and performs the corresponding actions.
+     * Parses a string starting with a date in dd-MM-yyyy format, without throwing exceptions.
+     * Follows the same rules as {@link #parseDateTime(String)}.
      *
-     * @param identifier identify the date information is string to date or date to string
-     */
-    private void formatDate(int identifier) {
-        if (identifier == STRING_TO_DATE) { //convert user input to java date and store both.
-            try {
-                SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy HHmm");
-                SimpleDateFormat formatter = new SimpleDateFormat("EEE, dd MMM yyyy, HH:mm", Locale.ENGLISH);
-                dateFormat.setLenient(false);
-                this.javaDate = dateFormat.parse(userInputDateString);
-                this.formattedDateString = formatter.format(javaDate);
-                this.userInputDateString = dateFormat.format(javaDate);
-            } catch (ParseException pe) {
-                try {
-                    SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy");
-                    SimpleDateFormat formatter = new SimpleDateFormat("EEE, dd MMM yyyy", Locale.ENGLISH);
-                    dateFormat.setLenient(false);
-                    this.javaDate = dateFormat.parse(userInputDateString);
-                    this.formattedDateString = formatter.format(javaDate);
-                    this.userInputDateString = dateFormat.format(javaDate);
-                } catch (ParseException pe2) {
-                    this.formattedDateString = userInputDateString;
-                }
+     * @param dateString string to parse
+     * @return epoch-minute in local time of the start of the day parsed, INVALID_DATE if the string does not
+     *     start with a valid date
+     */
+    static long parseDate(String dateString) {
+        return parse(dateString, false);
+    }
+
+    private static long parse(String dateString, boolean hasTime) {
+        if (dateString == null) {
+            return INVALID_DATE;
+        }
+        int[] position = {0};
+        int day = parseNumber(dateString, position, Integer.MAX_VALUE);
+        if (!skipSeparator(dateString, position, '-')) {
+            return INVALID_DATE;
+        }
+        int month = parseNumber(dateString, position, Integer.MAX_VALUE);
+        if (!skipSeparator(dateString, position, '-')) {
+            return INVALID_DATE;
+        }
+        int year = parseNumber(dateString, position, Integer.MAX_VALUE);
+        int hour = 0;
+        int minute = 0;
+        if (hasTime) {
+            if (!skipSeparator(dateString, position, ' ')) {
+                return INVALID_DATE;
+            }
+            hour = parseNumber(dateString, position, 2); //hours and minutes abut, so hours take 2 digits
+            minute = parseNumber(dateString, position, Integer.MAX_VALUE);
+        }
+        if (year < 1 || year > MAX_YEAR || month < 1 || month > 12 || day < 1
+                || day > daysInMonth(month, year) || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return INVALID_DATE;
+        }
+        ZoneRules rules = ZoneId.systemDefault().getRules();
+        if (!rules.isFixedOffset()) {
+            ZoneOffsetTransition transition = rules.getTransition(LocalDateTime.of(year, month, day, hour, minute));
+            if (transition != null && transition.isGap()) {
+                return INVALID_DATE; //time skipped by a daylight saving change
             }
-        } else if (identifier == DATE_TO_STRING) { //convert date object to input string format and store both.
-            SimpleDateFormat formatter = new SimpleDateFormat("EEE, dd MMM yyyy, HH:mm", Locale.ENGLISH);
-            this.formattedDateString = formatter.format(javaDate);
-            formatter = new SimpleDateFormat("dd-MM-yyyy HHmm");
-            this.userInputDateString = formatter.format(javaDate);
         }
+        return LocalDate.of(year, month, day).toEpochDay() * MINUTES_PER_DAY + hour * 60 + minute;
+    }
+
+    /**
+     * Parses a number starting at the given position, skipping blanks in front of it.
+     * Negative numbers are never valid dates, so only "-0" is accepted with a sign.
+     *
+     * @param text      string to parse
+     * @param position  single element array holding the position to parse from, advanced past the number
+     * @param maxDigits maximum number of characters to read, including blanks
+     * @return number parsed, -1 if there is no number or it is too large
+     */
+    private static int parseNumber(String text, int[] position, int maxDigits) {
+        int index = position[0];
+        int end = (int) Math.min(text.length(), (long) index + maxDigits); //skipped blanks count as digits read
+        while (index < end && (text.charAt(index) == ' ' || text.charAt(index) == '\t')) {
+            index++;
+        }
+        boolean isNegative = index < end && text.charAt(index) == '-';
+        if (isNegative) {
+            index++;
+        }
+        long value = 0;
+        int start = index;
+        while (index < end && text.charAt(index) >= '0' && text.charAt(index) <= '9') {
+            value = Math.min(value * 10 + (text.charAt(index) - '0'), Integer.MAX_VALUE);
+            index++;
+        }
+        position[0] = index;
+        boolean isInvalid = index == start || value == Integer.MAX_VALUE || (isNegative && value != 0);
+        return isInvalid ? -1 : (int) value;
     }
 
+    private static boolean skipSeparator(String text, int[] position, char separator) {
+        if (position[0] >= text.length() || text.charAt(position[0]) != separator) {
+            return false;
+        }
+        position[0]++;
+        return true;
+    }
+
+    private static int daysInMonth(int month, int year) {
+        if (month == 2) {
+            boolean isLeapYear = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+            return isLeapYear ? 29 : 28;
+        }
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+
+    /**
+     * Gets the date and time in local time. Dates set to the end of the day are at 23:59:59.
+     */
+    private LocalDateTime toLocalDateTime() {
+        long seconds = epochMinute * 60 + ((kind == END_OF_DAY) ? 59 : 0);
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Gets the date in dd-MM-yyyy HHmm format, or dd-MM-yyyy format for dates without a time.
+     */
     public String getUserInputDateString() {
+        if (userInputDateString == null) {
+            DateTimeFormatter format = (kind == DATE_AND_TIME) ? INPUT_DATE_TIME_FORMAT : INPUT_DATE_FORMAT;
+            userInputDateString = format.format(toLocalDateTime());
+        }
         return userInputDateString;
     }
 
+    /**
+     * Gets the date in display format, such as "Tue, 03 Dec 2019, 14:00".
+     */
     public String getFormattedDateString() {
-        return this.formattedDateString;
+        if (formattedDateString == null) {
+            DateTimeFormatter format = (kind == DATE_AND_TIME) ? DISPLAY_DATE_TIME_FORMAT : DISPLAY_DATE_FORMAT;
+            formattedDateString = format.format(toLocalDateTime());
+        }
+        return formattedDateString;
+    }
+
+    /**
+     * Checks whether the date was parsed successfully.
+     */
+    public boolean isValidDate() {
+        return epochMinute != INVALID_DATE;
+    }
+
+    /**
+     * Checks whether the date has a time, so that it is saved in dd-MM-yyyy HHmm format.
+     */
+    public boolean hasTime() {
+        return kind == DATE_AND_TIME;
     }
 
     /**
      * Gets the Event java Date object.
      */
     public Date getEventJavaDate() {
-        return this.javaDate;
+        if (!isValidDate()) {
+            return null;
+        }
+        return Date.from(toLocalDateTime().atZone(ZoneId.systemDefault()).withLaterOffsetAtOverlap().toInstant());
+    }
+
+    /**
+     * Gets the date as the number of minutes since the epoch in local time, used as a primitive key
+     * for sorting and searching events.
+     */
+    public long getEpochMinute() {
+        return epochMinute;
+    }
+
+    /**
+     * Gets the day of the date as the number of days since the epoch in local time.
+     */
+    public long getEpochDay() {
+        return Math.floorDiv(epochMinute, MINUTES_PER_DAY);
     }
 
     /**
@@ -98,40 +312,25 @@ public class EventDate {
      * @return Output the result of the comparison according to the algorithm stated above.
      */
     public int compare(EventDate other) {
-        if (javaDate == null || other.getEventJavaDate() == null) {
+        if (!isValidDate() || !other.isValidDate()) {
             return 2;
-        } else {
-            Date otherDate = other.getEventJavaDate();
-            if (javaDate.compareTo(otherDate) > 0) {
-                return 1;
-            } else if (javaDate.compareTo(otherDate) == 0) {
-                return 0;
-            } else if (javaDate.compareTo(otherDate) < 0) {
-                return -1;
-            }
         }
-        return 2;
+        int result = Long.compare(epochMinute, other.epochMinute);
+        if (result == 0) { //end of the day is 59 seconds into the last minute
+            result = Boolean.compare(kind == END_OF_DAY, other.kind == END_OF_DAY);
+        }
+        return result;
     }
 
     /**
-     * Adds n days to the javaDate object.
+     * Adds n days to the date, and sets the time to the end of that day.
      *
      * @param noOfDays numbers of days to add
      */
     public void addDaysAndSetMidnight(int noOfDays) {
-        Calendar dateToSet = Calendar.getInstance();
-        dateToSet.setTime(this.javaDate);
-
-        //sets calender class date to midnight.
-        dateToSet.add(Calendar.DATE, noOfDays);
-        dateToSet.set(Calendar.HOUR_OF_DAY, 23);
-        dateToSet.set(Calendar.MINUTE, 59);
-        dateToSet.set(Calendar.SECOND, 59);
-
-        this.javaDate = dateToSet.getTime();
-        SimpleDateFormat formatter = new SimpleDateFormat("dd-MM-yyyy");
-        this.userInputDateString = formatter.format(javaDate);
-        formatter = new SimpleDateFormat("EEE, dd MMM yyyy", Locale.ENGLISH);
-        this.formattedDateString = formatter.format(javaDate);
+        epochMinute = (getEpochDay() + noOfDays + 1) * MINUTES_PER_DAY - 1;
+        kind = END_OF_DAY;
+        userInputDateString = null;
+        formattedDateString = null;
     }
 }
@@ -49,4 +49,18 @@ public class Instrument {
         return index + ". " + serviceInfoList.get(index - 1).getServiceInfo();
     }
 
+    public int getNumServices() {
+        return serviceInfoList.size();
+    }
+
+    /**
+     * Gets a service.
+     *
+     * @param index Index of the service, starting from 1.
+     * @return The service.
+     */
+    public ServiceInfo getService(int index) {
+        return serviceInfoList.get(index - 1);
+    }
+
 }
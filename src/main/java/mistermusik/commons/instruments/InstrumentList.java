@@ -84,5 +84,19 @@ public class InstrumentList {
     public String getIndexAndService(int instrumentIndex, int serviceIndex) {
         return instrumentList.get(instrumentIndex - 1).getIndexAndService(serviceIndex);
     }
+
+    public int getNumInstruments() {
+        return instrumentList.size();
+    }
+
+    /**
+     * Gets instrument.
+     *
+     * @param index The instrument index, starting from 1.
+     * @return The instrument.
+     */
+    public Instrument getInstrument(int index) {
+        return instrumentList.get(index - 1);
+    }
 }
 
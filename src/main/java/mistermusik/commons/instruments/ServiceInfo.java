@@ -31,4 +31,12 @@ public class ServiceInfo {
         return serviceDescription + " on " + serviceDate.getFormattedDateString();
     }
 
+    public EventDate getServiceDate() {
+        return serviceDate;
+    }
+
+    public String getServiceDescription() {
+        return serviceDescription;
+    }
+
 }
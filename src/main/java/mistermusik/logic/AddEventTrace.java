@@ -0,0 +1,29 @@
+package mistermusik.logic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of adding an event to the list with a clash check.
+ */
+@Name("mistermusik.AddEvent")
+@Label("Add Event")
+@Category({"MisterMusik", "Scheduling"})
+@Description("Adding an event to the list, checking it for clashes and the budget")
+class AddEventTrace extends Event {
+    @Label("Event Type")
+    char eventType;
+
+    @Label("Events In List")
+    int numEvents;
+
+    @Label("Events Scanned")
+    @Description("Events and recurring series checked for clashes")
+    long numEventsScanned;
+
+    @Label("Added")
+    boolean isAdded;
+}
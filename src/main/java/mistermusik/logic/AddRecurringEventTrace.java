@@ -0,0 +1,33 @@
+package mistermusik.logic;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of adding a recurring series to the list, checking each occurrence for clashes.
+ */
+@Name("mistermusik.AddRecurringEvent")
+@Label("Add Recurring Event")
+@Category({"MisterMusik", "Scheduling"})
+@Description("Adding a recurring series to the list, checking each occurrence for clashes")
+class AddRecurringEventTrace extends Event {
+    @Label("Period")
+    @Description("Days between occurrences")
+    int period;
+
+    @Label("Occurrences")
+    int numOccurrences;
+
+    @Label("Events In List")
+    int numEvents;
+
+    @Label("Events Scanned")
+    @Description("Events and recurring series checked for clashes")
+    long numEventsScanned;
+
+    @Label("Added")
+    boolean isAdded;
+}
@@ -3,6 +3,7 @@ package mistermusik.logic;
 import mistermusik.commons.Contact;
 import mistermusik.commons.Goal;
 import mistermusik.commons.instruments.InstrumentList;
+import mistermusik.commons.budgeting.BudgetSimulation;
 import mistermusik.commons.budgeting.CostExceedsBudgetException;
 import mistermusik.commons.events.eventtypes.Event;
 import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
@@ -17,6 +18,8 @@ import mistermusik.storage.Storage;
 import mistermusik.ui.CalendarView;
 import mistermusik.ui.UI;
 
+import java.io.File;
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -45,6 +48,16 @@ public class Command {
 
     private static final int NO_PERIOD = -1;
 
+    /**
+     * Metrics of all commands executed, recorded once enabled.
+     */
+    private static CommandMetrics metrics = new CommandMetrics();
+
+    /**
+     * Whether changes are left for the caller to save with saveChanges, instead of being saved after each command.
+     */
+    private static boolean isSaveDeferred = false;
+
     /**
      * Creates a new command with the command type and specific instructions.
      *
@@ -76,7 +89,11 @@ public class Command {
      */
     public void execute(EventList events, UI ui, Storage storage, InstrumentList instruments,
                         EventDate calendarStartDate, boolean allowCalendarFrequentPrint) {
-        boolean changesMade = true;
+        boolean isMeasured = metrics.isEnabled(); //not if measuring is turned on by this command
+        long startTime = isMeasured ? System.nanoTime() : 0;
+        long numEventsScannedBefore = events.getNumEventsScanned();
+        String commandType = command;
+        int modificationCountBefore = events.getModificationCount();
         switch (command) {
         case "help":
             findHelp(ui);
@@ -84,12 +101,10 @@ public class Command {
 
         case "list":
             listEvents(events, ui);
-            changesMade = false;
             break;
 
         case "reminder":
             remindEvents(events, ui);
-            changesMade = false;
             break;
 
         case "done":
@@ -102,7 +117,6 @@ public class Command {
 
         case "find":
             searchEvents(events, ui);
-            changesMade = false;
             break;
 
         case "todo":
@@ -131,12 +145,14 @@ public class Command {
 
         case "view":
             viewEvents(events, ui);
-            changesMade = false;
             break;
 
         case "check":
             checkFreeDays(events, ui);
-            changesMade = false;
+            break;
+
+        case "free":
+            findFreeSlots(events, ui);
             break;
 
         case "reschedule":
@@ -169,16 +185,30 @@ public class Command {
 
         case "instrument":
             manageInstruments(instruments, ui);
+            if (!isSaveDeferred) {
+                storage.saveInstruments(instruments, ui); //only instruments and services added are written
+            }
+            break;
+
+        case "stats":
+            manageStats(ui);
+            break;
+
+        case "export":
+            exportEvents(events, ui, storage);
             break;
 
         default:
+            commandType = "(invalid)"; //one row for all unknown commands
             ui.printInvalidCommand();
-            changesMade = false;
             break;
         }
-        if (changesMade) {
-            events.sortList();
-            storage.saveToFile(events, ui);
+        if (isMeasured && metrics.isEnabled()) {
+            metrics.recordCommand(commandType, System.nanoTime() - startTime,
+                    events.getNumEventsScanned() - numEventsScannedBefore);
+        }
+        if (events.getModificationCount() != modificationCountBefore && !isSaveDeferred) { //only if list modified
+            saveEvents(events, ui, storage);
         }
         if ((!command.equals("calendar")) && allowCalendarFrequentPrint) {
             CalendarView calendarView = null;
@@ -189,6 +219,94 @@ public class Command {
         }
     }
 
+    /**
+     * Gets the metrics of all commands executed.
+     */
+    public static CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets whether changes are left for the caller to save with saveChanges, e.g. to save a whole script of
+     * commands at once, instead of being saved after each command.
+     */
+    public static void setSaveDeferred(boolean isSaveDeferred) {
+        Command.isSaveDeferred = isSaveDeferred;
+    }
+
+    /**
+     * Saves the changes made to the events and instruments by the commands executed since the last save.
+     *
+     * @param events      list of events
+     * @param instruments list of instruments
+     * @param ui          user interface
+     * @param storage     storage the changes are saved to
+     */
+    public static void saveChanges(EventList events, InstrumentList instruments, UI ui, Storage storage) {
+        saveEvents(events, ui, storage);
+        storage.saveInstruments(instruments, ui);
+    }
+
+    /**
+     * Saves the changes made to the events, recording the time taken and the bytes written while measuring.
+     */
+    private static void saveEvents(EventList events, UI ui, Storage storage) {
+        long saveStartTime = metrics.isEnabled() ? System.nanoTime() : 0;
+        long numBytesWrittenBefore = storage.getNumBytesWritten();
+        storage.saveToFile(events, ui);
+        if (metrics.isEnabled()) {
+            metrics.recordSave(System.nanoTime() - saveStartTime,
+                    storage.getNumBytesWritten() - numBytesWrittenBefore);
+        }
+    }
+
+    /**
+     * Writes the whole list to a file in the text format of the save file, e.g. "export backup.txt".
+     */
+    private void exportEvents(EventList events, UI ui, Storage storage) {
+        String fileName = continuation.trim();
+        if (fileName.isEmpty()) {
+            ui.printInvalidCommand();
+            return;
+        }
+        try {
+            storage.exportToText(events, new File(fileName));
+            ui.printEventsExported(fileName);
+        } catch (IOException exceptionInputOutput) {
+            ui.printErrorWritingToFile();
+        }
+    }
+
+    /**
+     * Prints the metrics of the commands executed, or turns recording them on or off, or clears them.
+     */
+    private void manageStats(UI ui) {
+        switch (continuation.trim()) {
+        case "":
+            if (metrics.isEnabled()) {
+                ui.printStats(metrics.getReport());
+            } else {
+                ui.printStatsEnabled(false);
+            }
+            break;
+        case "on":
+            metrics.setEnabled(true);
+            ui.printStatsEnabled(true);
+            break;
+        case "off":
+            metrics.setEnabled(false);
+            ui.printStatsEnabled(false);
+            break;
+        case "reset":
+            metrics.reset();
+            ui.printStatsEnabled(metrics.isEnabled());
+            break;
+        default:
+            ui.printInvalidCommand();
+            break;
+        }
+    }
+
     //@@author YuanJiayi
 
     /**
@@ -257,12 +375,12 @@ public class Command {
                     int checklistIndex = Integer.parseInt(checklistCommand[2]);
                     switch (checklistCommand[0]) {
                     case "delete":
-                        events.getEvent(eventIndex).deleteChecklist(checklistIndex - 1);
+                        events.deleteChecklistItem(eventIndex, checklistIndex - 1);
                         ui.checklistDeleted(eventIndex);
                         break;
 
                     case "edit":
-                        events.getEvent(eventIndex).editChecklist(checklistIndex - 1, splitChecklist[1]);
+                        events.editChecklistItem(eventIndex, checklistIndex - 1, splitChecklist[1]);
                         ui.checklistEdited(splitChecklist[1], eventIndex);
                         break;
 
@@ -272,7 +390,7 @@ public class Command {
                 } else {
                     switch (checklistCommand[0]) {
                     case "add":
-                        events.getEvent(eventIndex).addChecklist(splitChecklist[1]);
+                        events.addChecklistItem(eventIndex, splitChecklist[1]);
                         System.out.println(splitChecklist[1] + "___" + eventIndex);
                         ui.checklistAdded(splitChecklist[1], eventIndex);
                         break;
@@ -360,6 +478,43 @@ public class Command {
             } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
                 ui.printNotAnInteger();
             }
+        } else if (continuation.startsWith("total ")) { //show total cost for a range of months
+            String[] months = continuation.substring(6).split(" ");
+            try {
+                if (months.length != 2) {
+                    throw new NumberFormatException();
+                }
+                long cost = events.getBudgeting().getCostBetween(months[0], months[1]);
+                UI.printCostBetween(months[0], months[1], cost);
+            } catch (NumberFormatException e) {
+                ui.printBudgetCommandInvalid();
+            }
+        } else if (continuation.startsWith("rolling ")) { //show total cost for the months up to a given month
+            String[] rolling = continuation.substring(8).split(" ");
+            try {
+                if (rolling.length > 2) {
+                    throw new NumberFormatException();
+                }
+                int numMonths = (rolling.length == 2) ? Integer.parseInt(rolling[1]) : 3;
+                long cost = events.getBudgeting().getRollingCost(rolling[0], numMonths);
+                UI.printRollingCost(rolling[0], numMonths, cost);
+            } catch (NumberFormatException e) {
+                ui.printBudgetCommandInvalid();
+            }
+        } else if (continuation.startsWith("simulate ")) { //show costs with concerts added or removed
+            simulateBudget(events, ui);
+        } else if (continuation.startsWith("over ")) { //show months of a year over budget
+            try {
+                int year = Integer.parseInt(continuation.substring(5).trim());
+                ArrayList<String> monthsOverBudget = events.getBudgeting().getMonthsOverBudget(year);
+                ArrayList<Integer> costs = new ArrayList<>();
+                for (String monthAndYear : monthsOverBudget) {
+                    costs.add(events.getBudgeting().getCostForMonth(monthAndYear));
+                }
+                UI.printMonthsOverBudget(year, monthsOverBudget, costs, events.getBudgeting().getBudget());
+            } catch (NumberFormatException e) {
+                ui.printBudgetCommandInvalid();
+            }
         } else { //show budget for given month
             String monthAndYear = continuation;
             try {
@@ -371,54 +526,148 @@ public class Command {
         }
     }
 
+    /**
+     * Prints the concert costs of each month changed by adding or removing concerts, without changing the list or
+     * the budget. Changes are separated by ";", each one of "remove <event number>", "add <concert entry>" in the
+     * format of the concert command, or "set <budget>" to try out another budget.
+     */
+    private void simulateBudget(EventList events, UI ui) {
+        BudgetSimulation simulation = events.getBudgeting().simulate();
+        int budget = events.getBudgeting().getBudget();
+        try {
+            for (String change : continuation.substring(9).split(";")) {
+                change = change.trim();
+                if (change.startsWith("remove ")) {
+                    Event concert = events.getEvent(Integer.parseInt(change.substring(7).trim()) - 1);
+                    if (!(concert instanceof Concert)) {
+                        throw new NumberFormatException();
+                    }
+                    simulation.removeConcert((Concert) concert);
+                } else if (change.startsWith("add ")) {
+                    EntryForEvent entryForEvent = new EntryForEvent().invoke(change.substring(4), true);
+                    simulation.addConcert((Concert) newEvent('C', entryForEvent));
+                } else if (change.startsWith("set ")) {
+                    budget = Integer.parseInt(change.substring(4).trim());
+                    simulation.setBudget(budget);
+                } else {
+                    throw new NumberFormatException();
+                }
+            }
+        } catch (IndexOutOfBoundsException | NumberFormatException | ParseException e) {
+            ui.printBudgetCommandInvalid();
+            return;
+        }
+        UI.printBudgetSimulation(simulation.getChangedMonths(), budget);
+    }
+
     //@@author
     private void searchEvents(EventList events, UI ui) {
         if (continuation.isEmpty()) {
             ui.printEventDescriptionEmpty();
         } else {
             String searchKeyWords = continuation;
-            String foundEvent = "";
-            int viewIndex = 1;
-            for (Event viewEvent : events.getEventArrayList()) {
-                if (viewEvent.toString().contains(searchKeyWords)) {
-                    foundEvent += viewIndex + ". " + viewEvent.toString() + "\n";
-                }
-                viewIndex++;
+            StringBuilder foundEvent = new StringBuilder();
+            for (int index : events.findEvents(searchKeyWords)) {
+                foundEvent.append(index + 1).append(". ").append(events.getEvent(index).toString()).append("\n");
             }
 
-            boolean isEventsFound = !foundEvent.isEmpty();
-            ui.printFoundEvents(foundEvent, isEventsFound);
+            boolean isEventsFound = foundEvent.length() > 0;
+            ui.printFoundEvents(foundEvent.toString(), isEventsFound);
         }
     }
 
     //@@author ZhangYihanNus
 
     /**
-     * Finds the next 3 free days in the schedule and passes them to UI class to be printed.
+     * Finds free days in the schedule and passes them to UI class to be printed.
+     * Finds the next 3 free days from today by default. The number of days can be given, followed optionally by
+     * the first and last dates to check, e.g. "check 5 01-12-2019 31-12-2019".
      */
     private void checkFreeDays(EventList events, UI ui) {
-        EventDate dayToCheckIfFreeObject = new EventDate(new Date());
-        dayToCheckIfFreeObject.addDaysAndSetMidnight(0);
-        Queue<String> daysFree = new LinkedList<>();
-        int nextDays = 1;
-        while (daysFree.size() <= 3) {
-            boolean isFree = true;
-            for (Event viewEvent : events.getEventArrayList()) {
-                if (viewEvent.getStartDate().getFormattedDateString().substring(0, 16)
-                        .equals(dayToCheckIfFreeObject.getFormattedDateString())) {
-                    isFree = false;
-                    break;
-                }
+        String[] checkCommand = continuation.isEmpty() ? new String[0] : continuation.split(" ");
+        int numDays = 3;
+        long fromDay = new EventDate(new Date()).getEpochDay();
+        long toDay = EventList.LAST_DAY;
+        try {
+            if (checkCommand.length == 1 || checkCommand.length == 3) {
+                numDays = Integer.parseInt(checkCommand[0]);
             }
-            if (isFree) {
-                daysFree.add(dayToCheckIfFreeObject.getFormattedDateString());
+            if (checkCommand.length == 3) {
+                EventDate firstDate = new EventDate(checkCommand[1]);
+                EventDate lastDate = new EventDate(checkCommand[2]);
+                if (!firstDate.isValidDate() || !lastDate.isValidDate()) {
+                    ui.printInvalidCommand();
+                    return;
+                }
+                fromDay = firstDate.getEpochDay();
+                toDay = lastDate.getEpochDay() + 1;
             }
-            dayToCheckIfFreeObject.addDaysAndSetMidnight(1);
-            nextDays++;
+        } catch (NumberFormatException e) {
+            ui.printInvalidCommand();
+            return;
+        }
+        if (checkCommand.length == 2 || checkCommand.length > 3 || numDays <= 0) {
+            ui.printInvalidCommand();
+            return;
+        }
+
+        Queue<String> daysFree = new LinkedList<>();
+        for (long freeDay : events.getFreeDays(fromDay, toDay, numDays)) {
+            EventDate freeDate = new EventDate(freeDay * EventDate.MINUTES_PER_DAY);
+            freeDate.addDaysAndSetMidnight(0);
+            daysFree.add(freeDate.getFormattedDateString());
         }
         ui.printFreeDays(daysFree);
     }
 
+    /**
+     * Finds the next free slots of at least the given number of minutes and passes them to UI class to be printed,
+     * e.g. "free 3 120 0900 2200" for the next 3 slots of 2 hours between 9am and 10pm. Slots never span
+     * midnight, so the hours must not be empty and the slots must fit in them.
+     */
+    private void findFreeSlots(EventList events, UI ui) {
+        String[] freeCommand = continuation.split(" ");
+        if (freeCommand.length != 2 && freeCommand.length != 4) {
+            ui.printInvalidCommand();
+            return;
+        }
+        int numSlots;
+        int minutes;
+        try {
+            numSlots = Integer.parseInt(freeCommand[0]);
+            minutes = Integer.parseInt(freeCommand[1]);
+        } catch (NumberFormatException e) {
+            ui.printInvalidCommand();
+            return;
+        }
+        int dayStart = (freeCommand.length == 4) ? parseTimeOfDay(freeCommand[2]) : 0;
+        int dayEnd = (freeCommand.length == 4) ? parseTimeOfDay(freeCommand[3]) : (int) EventDate.MINUTES_PER_DAY;
+        if (numSlots <= 0 || minutes <= 0 || dayStart < 0 || dayEnd < 0 || minutes > dayEnd - dayStart) {
+            ui.printInvalidCommand();
+            return;
+        }
+
+        long now = new EventDate(new Date()).getEpochMinute();
+        ui.printFreeSlots(events.getFreeSlots(now, dayStart, dayEnd, minutes, numSlots), minutes);
+    }
+
+    /**
+     * Parses a time of day in HHmm format, from 0000 to 2400.
+     *
+     * @return minutes after midnight, -1 if the time is invalid
+     */
+    private static int parseTimeOfDay(String time) {
+        if (!time.matches("\\d{4}")) {
+            return -1;
+        }
+        int hours = Integer.parseInt(time.substring(0, 2));
+        int minutes = Integer.parseInt(time.substring(2));
+        if (minutes > 59 || hours * 60 + minutes > EventDate.MINUTES_PER_DAY) {
+            return -1;
+        }
+        return hours * 60 + minutes;
+    }
+
     //@@author yenpeichih
 
     /**
@@ -432,8 +681,13 @@ public class Command {
             String dateToView = continuation;
             ArrayList<String> eventsOnASpecificDate = new ArrayList<>();
             EventDate findDate = new EventDate(dateToView);
-            for (int i = 0; i < events.getEventArrayList().size(); i += 1) {
-                Event viewEvent = events.getEvent(i);
+            if (!findDate.isValidDate()) {
+                ui.printViewCommandInvalid();
+                return;
+            }
+            ArrayList<Event> allEvents = events.getEventArrayList();
+            for (int i = 0; i < allEvents.size(); i += 1) {
+                Event viewEvent = allEvents.get(i);
                 String eventStringWithIndex = "";
                 if (viewEvent.toString().contains(findDate.getFormattedDateString())) {
                     eventStringWithIndex += i + 1 + ". " + viewEvent.toString();
@@ -573,7 +827,7 @@ public class Command {
         try {
             int eventNo = Integer.parseInt(continuation);
             if (events.getEvent(eventNo - 1) instanceof ToDo) {
-                events.getEvent(eventNo - 1).setIsDoneToTrue();
+                events.markEventAsDone(eventNo - 1);
                 ui.eventDone(events.getEvent(eventNo - 1));
             } else {
                 ui.printNoSuchEvent();
@@ -593,29 +847,21 @@ public class Command {
      * @param events The event list.
      */
     private void rescheduleEvent(EventList events, UI ui) {
-        Event newEvent;
-        EventDate copyOfStartDate;
-        EventDate copyOfEndDate;
+        int eventIndex;
+        Event eventToReschedule;
+        EventDate newStartDate;
+        EventDate newEndDate;
         try {
             String[] rescheduleDetail = continuation.split(" "); //split details by space (dd-MM-yyyy HHmm HHmm)
-            int eventIndex = Integer.parseInt(rescheduleDetail[0]) - 1;
+            eventIndex = Integer.parseInt(rescheduleDetail[0]) - 1;
 
-            if (events.getEvent(eventIndex).getType() == 'T') { //reschedule does not work for Todo type
+            eventToReschedule = events.getEvent(eventIndex);
+            if (eventToReschedule.getType() == 'T') { //reschedule does not work for Todo type
                 throw new UnsupportedOperationException();
             }
 
-            newEvent = events.getEvent(eventIndex); //event to be used as a replacement.
-
-            copyOfStartDate = new EventDate(newEvent.getStartDate().getUserInputDateString());
-            copyOfEndDate = new EventDate(newEvent.getEndDate().getUserInputDateString());
-
-            EventDate newStartDate = new EventDate(rescheduleDetail[1] + " " + rescheduleDetail[2]);
-            EventDate newEndDate = new EventDate(rescheduleDetail[1] + " " + rescheduleDetail[3]);
-
-            events.deleteEvent(eventIndex); //delete event from list before continuing
-
-            newEvent.rescheduleStartDate(newStartDate); //reschedule start date & time
-            newEvent.rescheduleEndDate(newEndDate); //reschedule end date & time
+            newStartDate = new EventDate(rescheduleDetail[1] + " " + rescheduleDetail[2]);
+            newEndDate = new EventDate(rescheduleDetail[1] + " " + rescheduleDetail[3]);
 
         } catch (NumberFormatException | IndexOutOfBoundsException | UnsupportedOperationException e) {
             ui.printRescheduleInvalidCommand();
@@ -623,23 +869,14 @@ public class Command {
         }
 
         try {
-            events.addEvent(newEvent);
-            ui.printEventRescheduled(newEvent);
+            eventToReschedule = events.rescheduleEvent(eventIndex, newStartDate, newEndDate);
+            ui.printEventRescheduled(eventToReschedule);
         } catch (ClashException clashE) {
             ui.printScheduleClash(clashE.getClashEvent());
-            newEvent.rescheduleStartDate(copyOfStartDate);
-            newEvent.rescheduleEndDate(copyOfEndDate);
-            events.undoDeletionOfEvent(newEvent);
         } catch (CostExceedsBudgetException e) {
             ui.printCostExceedsBudgetMsg(e.getConcert(), e.getBudget());
-            newEvent.rescheduleStartDate(copyOfStartDate);
-            newEvent.rescheduleEndDate(copyOfEndDate);
-            events.undoDeletionOfEvent(newEvent);
         } catch (Exception e) {
             ui.printEventEndsBeforeStart();
-            newEvent.rescheduleStartDate(copyOfStartDate);
-            newEvent.rescheduleEndDate(copyOfEndDate);
-            events.undoDeletionOfEvent(newEvent);
         }
     }
 
@@ -666,7 +903,7 @@ public class Command {
                     if (!events.getEvent(eventIndex).getGoalList().isEmpty()) {
                         try {
                             String deletedGoal = events.getEvent(eventIndex).getGoalObject(goalIndex - 1).getGoal();
-                            events.getEvent(eventIndex).removeGoal(goalIndex - 1);
+                            events.removeGoal(eventIndex, goalIndex - 1);
                             ui.printGoalDeleted(deletedGoal);
                         } catch (IndexOutOfBoundsException e) {
                             ui.printNoSuchGoal();
@@ -680,7 +917,7 @@ public class Command {
                     if (!events.getEvent(eventIndex).getGoalList().isEmpty()) {
                         try {
                             Goal newGoal = new Goal(splitGoal[1]);
-                            events.getEvent(eventIndex).editGoalList(newGoal, goalIndex - 1);
+                            events.editGoal(eventIndex, newGoal, goalIndex - 1);
                             ui.printGoalUpdated(events, eventIndex, goalIndex - 1);
                         } catch (IndexOutOfBoundsException e) {
                             ui.printNoSuchGoal();
@@ -696,7 +933,7 @@ public class Command {
                             if (events.getEvent(eventIndex).getGoalObject(goalIndex - 1).getBooleanStatus()) {
                                 ui.printGoalAlreadyAchieved();
                             } else {
-                                events.getEvent(eventIndex).updateGoalAchieved(goalIndex - 1);
+                                events.setGoalAchieved(eventIndex, goalIndex - 1);
                                 ui.printGoalSetAsAchieved(events.getEvent(eventIndex).getGoalObject(goalIndex - 1));
                             }
                         } catch (IndexOutOfBoundsException e) {
@@ -715,7 +952,7 @@ public class Command {
                 switch (goalCommand[0]) {
                 case "add":
                     Goal newGoal = new Goal(splitGoal[1]);
-                    events.getEvent(eventIndex).addGoal(newGoal);
+                    events.addGoal(eventIndex, newGoal);
                     ui.printGoalAdded(newGoal.getGoal());
                     break;
 
@@ -764,7 +1001,7 @@ public class Command {
                         throw new UnsupportedOperationException();
                     }
                     Contact newContact = new Contact(contactDetails[0], contactDetails[1], contactDetails[2]);
-                    events.getEvent(eventIndex).addContact(newContact);
+                    events.addContact(eventIndex, newContact);
                     ui.printContactAdded();
                     break;
 
@@ -783,7 +1020,7 @@ public class Command {
                 case "delete":
                     try {
                         int contactIndex = Integer.parseInt(contactCommand[2]) - 1;
-                        events.getEvent(eventIndex).removeContact(contactIndex);
+                        events.removeContact(eventIndex, contactIndex);
                         ui.printContactDeleted();
                     } catch (IndexOutOfBoundsException e) {
                         ui.printNoSuchContact();
@@ -809,7 +1046,7 @@ public class Command {
                     }
                     try {
                         int contactIndex = Integer.parseInt(contactCommand[2]) - 1;
-                        events.getEvent(eventIndex).editContact(contactIndex, editType, splitContact[1]);
+                        events.editContact(eventIndex, contactIndex, editType, splitContact[1]);
                         ui.printContactEdited(events.getEvent(eventIndex).getContactList().get(contactIndex));
                     } catch (IndexOutOfBoundsException e) {
                         ui.printNoSuchContact();
@@ -946,8 +1183,19 @@ public class Command {
          * @return organized entryForEvent object containing information required for a new event.
          */
         private EntryForEvent invoke() throws NumberFormatException, ParseException {
+            return invoke(continuation, command.equals("concert"));
+        }
+
+        /**
+         * contains all info regarding an entry for an event given in the format of the command adding it.
+         *
+         * @param entry     details of the event, e.g. "description/dd-MM-yyyy HHmm HHmm/cost" for a concert
+         * @param isConcert true if the entry is that of a concert
+         * @return organized entryForEvent object containing information required for a new event.
+         */
+        private EntryForEvent invoke(String entry, boolean isConcert) throws NumberFormatException, ParseException {
             int nonRecurring = -1;
-            String[] splitEvent = continuation.split("/");
+            String[] splitEvent = entry.split("/");
             description = splitEvent[0];
 
             String date = splitEvent[1];
@@ -966,7 +1214,7 @@ public class Command {
             if (splitEvent.length == 2) { //cant find period extension of command, event is non-recurring
                 period = nonRecurring;
             } else {
-                if (command.equals("concert")) {
+                if (isConcert) {
                     cost = Integer.parseInt(splitEvent[2]);
                     period = nonRecurring;
                 } else {
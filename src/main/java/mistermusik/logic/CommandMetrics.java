@@ -0,0 +1,97 @@
+package mistermusik.logic;
+
+import java.util.HashMap;
+import java.util.TreeMap;
+
+/**
+ * Metrics of the commands executed, recorded while enabled: a histogram of the time taken by each type of
+ * command, the number of events each command scanned, and the time taken and bytes written by each save after a
+ * command. Recording allocates nothing once a type of command has been seen, so it costs a few tens of
+ * nanoseconds per command.
+ */
+public class CommandMetrics {
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    /**
+     * Metrics of a single type of command.
+     */
+    private static class CommandStats {
+        private Histogram latencies = new Histogram();
+        private Histogram numEventsScanned = new Histogram();
+    }
+
+    private boolean isEnabled = false;
+
+    private HashMap<String, CommandStats> statsByCommand = new HashMap<>();
+
+    private Histogram saveLatencies = new Histogram();
+
+    private Histogram numBytesSaved = new Histogram();
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public void setEnabled(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    /**
+     * Records the time taken by a command and the number of events it scanned.
+     *
+     * @param command          type of the command, e.g. "list"
+     * @param nanos            time taken in nanoseconds
+     * @param numEventsScanned number of events scanned
+     */
+    public void recordCommand(String command, long nanos, long numEventsScanned) {
+        CommandStats stats = statsByCommand.get(command);
+        if (stats == null) {
+            stats = new CommandStats();
+            statsByCommand.put(command, stats);
+        }
+        stats.latencies.record(nanos);
+        stats.numEventsScanned.record(numEventsScanned);
+    }
+
+    /**
+     * Records the time taken by a save and the number of bytes it wrote.
+     *
+     * @param nanos    time taken in nanoseconds
+     * @param numBytes number of bytes written, or queued to be written
+     */
+    public void recordSave(long nanos, long numBytes) {
+        saveLatencies.record(nanos);
+        numBytesSaved.record(numBytes);
+    }
+
+    /**
+     * Clears all metrics recorded.
+     */
+    public void reset() {
+        statsByCommand.clear();
+        saveLatencies = new Histogram();
+        numBytesSaved = new Histogram();
+    }
+
+    /**
+     * Gets a table of the median, 99th percentile and maximum time taken by each type of command and by saves,
+     * with the mean and maximum number of events scanned or bytes written.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder(String.format("%-12s%8s%10s%10s%10s%12s%12s%n", "command",
+                "count", "p50(us)", "p99(us)", "max(us)", "mean items", "max items"));
+        new TreeMap<>(statsByCommand).forEach((command, stats) ->
+                appendRow(report, command, stats.latencies, stats.numEventsScanned));
+        if (saveLatencies.getCount() > 0) {
+            appendRow(report, "(save)", saveLatencies, numBytesSaved);
+        }
+        return report.append("Items are events scanned by commands, and bytes written by saves.\n").toString();
+    }
+
+    private static void appendRow(StringBuilder report, String name, Histogram latencies, Histogram items) {
+        report.append(String.format("%-12s%8d%10.1f%10.1f%10.1f%12.1f%12d%n", name, latencies.getCount(),
+                latencies.getValueAtPercentile(50) / NANOS_PER_MICRO,
+                latencies.getValueAtPercentile(99) / NANOS_PER_MICRO, latencies.getMax() / NANOS_PER_MICRO,
+                items.getMean(), items.getMax()));
+    }
+}
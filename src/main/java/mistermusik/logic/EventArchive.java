@@ -0,0 +1,45 @@
+package mistermusik.logic;
+
+import mistermusik.commons.events.eventtypes.Event;
+
+import java.util.ArrayList;
+
+/**
+ * Individual events kept outside the heap, e.g. in a memory-mapped file, as records numbered in order of start.
+ * The start and type of each record can be looked up without reading its event, so that an EventStore only
+ * creates Event objects for the records a command actually touches.
+ */
+public interface EventArchive {
+    /**
+     * Gets the number of records in the archive.
+     */
+    int getNumRecords();
+
+    /**
+     * Gets the start of the event in a record, in epoch-minutes.
+     */
+    long getStart(int record);
+
+    /**
+     * Gets the character signifying the type of the event in a record.
+     */
+    char getType(int record);
+
+    /**
+     * Reads the event in a record into a new Event object.
+     *
+     * @param record number of the record
+     * @return event read, a new object on each call
+     */
+    Event readEvent(int record);
+
+    /**
+     * Finds the records of events taking up time (not ToDos, with valid dates) that clash with the time span
+     * [start, end), in the same way as EventIntervalTree.getClashingEvents.
+     *
+     * @param start   start of the time span in epoch-minutes
+     * @param end     end of the time span in epoch-minutes
+     * @param records list the numbers of the records found are added to
+     */
+    void findClashingRecords(long start, long end, ArrayList<Integer> records);
+}
@@ -0,0 +1,82 @@
+package mistermusik.logic;
+
+/**
+ * Record of a single change made to the list of events, as the positions it was made at and the new save file line.
+ * Changes are collected by EventList and appended to the save file journal by Storage, which replays them in order
+ * with EventList.replayChange. As changes are tied to positions rather than to lines, events with identical lines
+ * keep their order in the list.
+ */
+public class EventChange {
+    /**
+     * Characters signifying change types.
+     */
+    public static final char ADD = 'A';
+    public static final char DELETE = 'D';
+    public static final char RESCHEDULE = 'R';
+    public static final char EDIT = 'E';
+    public static final char DONE = 'V';
+
+    /**
+     * Position of changes which do not remove or add anything.
+     */
+    public static final int NO_POSITION = -1;
+
+    private char changeType;
+
+    /**
+     * true for changes to the list of recurring series, false for changes to the list of individual events.
+     */
+    private boolean isSeriesChange;
+
+    /**
+     * position of the event or series removed by the change, NO_POSITION for additions.
+     */
+    private int oldPosition;
+
+    /**
+     * position of the event or series added by the change, once the old one is removed, NO_POSITION for deletions.
+     */
+    private int newPosition;
+
+    /**
+     * save file line of the event after the change, null for deletions.
+     */
+    private String newLine;
+
+    /**
+     * Creates a new record of a change.
+     *
+     * @param changeType     character signifying change type
+     * @param isSeriesChange true for changes to the list of recurring series
+     * @param oldPosition    position of the event or series before the change, NO_POSITION for additions
+     * @param newPosition    position of the event or series after the change, NO_POSITION for deletions
+     * @param newLine        save file line of the event after the change, null for deletions
+     */
+    public EventChange(char changeType, boolean isSeriesChange, int oldPosition, int newPosition, String newLine) {
+        this.changeType = changeType;
+        this.isSeriesChange = isSeriesChange;
+        this.oldPosition = oldPosition;
+        this.newPosition = newPosition;
+        this.newLine = newLine;
+    }
+
+    public char getChangeType() {
+        return changeType;
+    }
+
+    public boolean isSeriesChange() {
+        return isSeriesChange;
+    }
+
+    public int getOldPosition() {
+        return oldPosition;
+    }
+
+    public int getNewPosition() {
+        return newPosition;
+    }
+
+    public String getNewLine() {
+        return newLine;
+    }
+}
@@ -0,0 +1,90 @@
+package mistermusik.logic;
+
+import mistermusik.commons.Contact;
+import mistermusik.commons.Goal;
+import mistermusik.commons.events.eventtypes.Event;
+
+/**
+ * Record of a single change made to the goals, contacts or checklist of an individual event, or to the save
+ * file line identifying an event that has them. Changes are collected by EventList and appended to the
+ * details log by Storage, so that changing one goal does not require rewriting the whole event.
+ */
+public class EventDetailChange {
+    /**
+     * Characters signifying the part of the event changed.
+     */
+    public static final char GOAL = 'G';
+    public static final char CONTACT = 'C';
+    public static final char CHECKLIST = 'L';
+    public static final char SAVE_FILE_LINE = 'S';
+
+    private Event event;
+
+    private char part;
+
+    /**
+     * character signifying change type, one of EventChange.ADD, EventChange.DELETE and EventChange.EDIT.
+     */
+    private char changeType;
+
+    /**
+     * index of the item added, removed or replaced, 0 for changes to the save file line.
+     */
+    private int index;
+
+    /**
+     * fields of the item added or replacing the old one, or the new save file line, empty for deletions.
+     */
+    private String[] values;
+
+    /**
+     * Creates a new record of a change.
+     *
+     * @param event      event changed
+     * @param part       character signifying the part of the event changed
+     * @param changeType character signifying change type
+     * @param index      index of the item changed
+     * @param values     fields of the new item, or the new save file line
+     */
+    public EventDetailChange(Event event, char part, char changeType, int index, String... values) {
+        this.event = event;
+        this.part = part;
+        this.changeType = changeType;
+        this.index = index;
+        this.values = values;
+    }
+
+    /**
+     * Gets the fields stored for a goal: its description, then "V" if achieved or "X" if not.
+     */
+    public static String[] getValues(Goal goal) {
+        return new String[]{goal.getGoal(), goal.getBooleanStatus() ? "V" : "X"};
+    }
+
+    /**
+     * Gets the fields stored for a contact: its name, email and phone number.
+     */
+    public static String[] getValues(Contact contact) {
+        return new String[]{contact.getName(), contact.getEmail(), contact.getPhoneNo()};
+    }
+
+    public Event getEvent() {
+        return event;
+    }
+
+    public char getPart() {
+        return part;
+    }
+
+    public char getChangeType() {
+        return changeType;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String[] getValues() {
+        return values;
+    }
+}
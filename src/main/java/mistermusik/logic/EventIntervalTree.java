@@ -0,0 +1,219 @@
+package mistermusik.logic;
+
+import mistermusik.commons.events.eventtypes.Event;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * Augmented interval tree holding the time spans of events, keyed on start time in epoch-minutes.
+ * Every node also stores the latest end time found in its subtree, so all events overlapping a given
+ * time span can be found in O(log n + k) instead of scanning the whole list of events.
+ */
+public class EventIntervalTree {
+    /**
+     * Root of the (AVL balanced) tree.
+     */
+    private Node root;
+
+    /**
+     * Node holding each indexed event, used to remove an event even if its dates were changed after indexing.
+     */
+    private IdentityHashMap<Event, Node> nodesByEvent = new IdentityHashMap<>();
+
+    /**
+     * Number of insertions so far, used to order events with the same start time by insertion.
+     */
+    private long insertionCount = 0;
+
+    private static class Node {
+        private Event event;
+        private long start;
+        private long end;
+        private long sequence;
+        private long maxEnd;
+        private int height;
+        private Node left;
+        private Node right;
+
+        private Node(Event event, long start, long end, long sequence) {
+            this.event = event;
+            this.start = start;
+            this.end = end;
+            this.sequence = sequence;
+            this.maxEnd = end;
+            this.height = 1;
+        }
+    }
+
+    /**
+     * Adds an event spanning [start, end) to the tree. Does nothing if the event is already indexed.
+     *
+     * @param event Event to be indexed
+     * @param start start of the event in epoch-minutes
+     * @param end   end of the event in epoch-minutes
+     */
+    public void insert(Event event, long start, long end) {
+        if (nodesByEvent.containsKey(event)) {
+            return;
+        }
+        Node newNode = new Node(event, start, end, insertionCount++);
+        nodesByEvent.put(event, newNode);
+        root = insertNode(root, newNode);
+    }
+
+    /**
+     * Removes an event from the tree. Does nothing if the event is not indexed.
+     *
+     * @param event Event to be removed
+     */
+    public void remove(Event event) {
+        Node toRemove = nodesByEvent.remove(event);
+        if (toRemove != null) {
+            root = removeNode(root, toRemove);
+        }
+    }
+
+    /**
+     * Checks whether an event is currently indexed.
+     */
+    public boolean contains(Event event) {
+        return nodesByEvent.containsKey(event);
+    }
+
+    /**
+     * Gets number of events indexed.
+     */
+    public int size() {
+        return nodesByEvent.size();
+    }
+
+    /**
+     * Finds all indexed events that clash with the time span [start, end), in increasing order of start time.
+     * Two events clash if they overlap in time, or if they start at the same time.
+     *
+     * @param start start of the time span in epoch-minutes
+     * @param end   end of the time span in epoch-minutes
+     * @return list of clashing events, empty if there are none
+     */
+    public ArrayList<Event> getClashingEvents(long start, long end) {
+        ArrayList<Event> clashingEvents = new ArrayList<>();
+        long latestClashingStart = (end > start) ? end - 1 : start;
+        collectClashes(root, start, latestClashingStart, clashingEvents);
+        return clashingEvents;
+    }
+
+    private void collectClashes(Node node, long start, long latestClashingStart, ArrayList<Event> clashingEvents) {
+        if (node == null || node.maxEnd < start) {
+            return; //nothing in this subtree ends late enough to clash
+        }
+        collectClashes(node.left, start, latestClashingStart, clashingEvents);
+        if (node.start > latestClashingStart) {
+            return; //this node and everything to its right starts too late to clash
+        }
+        if (node.end > start || node.start == start) {
+            clashingEvents.add(node.event);
+        }
+        collectClashes(node.right, start, latestClashingStart, clashingEvents);
+    }
+
+    private static boolean isBefore(Node a, Node b) {
+        return a.start < b.start || (a.start == b.start && a.sequence < b.sequence);
+    }
+
+    private Node insertNode(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (isBefore(newNode, node)) {
+            node.left = insertNode(node.left, newNode);
+        } else {
+            node.right = insertNode(node.right, newNode);
+        }
+        return rebalance(node);
+    }
+
+    private Node removeNode(Node node, Node toRemove) {
+        if (node == null) {
+            return null;
+        }
+        if (node == toRemove) {
+            if (node.left == null) {
+                return node.right;
+            } else if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeLeftmost(node.right);
+            successor.left = node.left;
+            return rebalance(successor);
+        }
+        if (isBefore(toRemove, node)) {
+            node.left = removeNode(node.left, toRemove);
+        } else {
+            node.right = removeNode(node.right, toRemove);
+        }
+        return rebalance(node);
+    }
+
+    private Node removeLeftmost(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeLeftmost(node.left);
+        return rebalance(node);
+    }
+
+    private static int height(Node node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > node.maxEnd) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > node.maxEnd) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        } else if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node newRoot = node.left;
+        node.left = newRoot.right;
+        newRoot.right = node;
+        update(node);
+        update(newRoot);
+        return newRoot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node newRoot = node.right;
+        node.right = newRoot.left;
+        newRoot.left = node;
+        update(node);
+        update(newRoot);
+        return newRoot;
+    }
+}
@@ -1,9 +1,11 @@
 package mistermusik.logic;
 
+import mistermusik.commons.Contact;
 import mistermusik.commons.Goal;
 import mistermusik.commons.budgeting.Budgeting;
 import mistermusik.commons.budgeting.CostExceedsBudgetException;
 import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.eventtypes.RecurringSeries;
 import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
 import mistermusik.commons.events.eventtypes.eventsubclasses.ToDo;
 import mistermusik.commons.events.eventtypes.eventsubclasses.assessmentsubclasses.Exam;
@@ -11,30 +13,80 @@ import mistermusik.commons.events.eventtypes.eventsubclasses.assessmentsubclasse
 import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Lesson;
 import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Practice;
 import mistermusik.commons.events.formatting.EventDate;
-import mistermusik.commons.events.formatting.Predicate;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
+import java.util.function.Consumer;
 
 //@@author
 
 /**
  * Allows for access to the list of events currently stored, and editing that list of events.
  * Does NOT contain any methods for reading/writing to savefile.
+ * Adding events emits flight recorder events, as do loading and saving, budget updates and rendering the
+ * calendar. These are only written while a recording enables them, and otherwise cost a check of a flag.
  */
 public class EventList {
     /**
-     * list of Model_Class.Event objects currently stored.
+     * list of individual Model_Class.Event objects currently stored, always sorted by start date and time.
+     * Events with the same start are kept in the order they were added. Events loaded from a mapped event
+     * archive are only read when first got from the list.
      */
-    private ArrayList<Event> eventArrayList;
+    private EventStore eventArrayList;
 
     /**
-     * compareFunc codes.
+     * Recurring lessons and practices, each stored as a single rule. The list of events seen by the user
+     * contains the individual events merged with all occurrences of these series, in order of start.
+     * Individual events come before occurrences starting at the same time.
      */
-    private static final int GREATER_THAN = 1;
-    private static final int SMALLER_THAN = 2;
+    private ArrayList<RecurringSeries> recurringSeriesList = new ArrayList<>();
+
+    /**
+     * Interval tree over the time spans of all events except ToDos, used for clash detection. Events still
+     * in the archive are found through the archive instead.
+     */
+    private EventIntervalTree clashIndex;
+
+    /**
+     * inverted index of the words in events and recurring series, used by the find command.
+     */
+    private EventSearchIndex searchIndex = new EventSearchIndex();
+
+    /**
+     * Flag to check if all events are in the search index. Events still in the archive are only indexed
+     * the first time the find command is used.
+     */
+    private boolean isSearchIndexComplete = false;
+
+    /**
+     * Events whose saved goals, contacts and checklist have not been read, so are only in the search index by
+     * description. They are read the first time the find command is used.
+     */
+    private ArrayList<Event> eventsWithUnreadDetails = new ArrayList<>();
+
+    /**
+     * Changes made to the list that have not yet been written to the save file.
+     */
+    private ArrayList<EventChange> pendingChanges = new ArrayList<>();
+
+    /**
+     * Changes made to the goals, contacts and checklists of events that have not yet been saved.
+     */
+    private ArrayList<EventDetailChange> pendingDetailChanges = new ArrayList<>();
+
+    /**
+     * Number of modifications made to the list or its events, used to check whether the list
+     * has to be sorted and saved after a command.
+     */
+    private int modificationCount = 0;
+
+    /**
+     * Number of events scanned by queries on the list so far, used to measure the work done by commands.
+     */
+    private long numEventsScanned = 0;
 
     /**
      * Class that handles all budgeting for concerts.
@@ -70,6 +122,7 @@ public class EventList {
     private static final char PRACTICE = 'P';
     private static final char EXAM = 'E';
     private static final char RECITAL = 'R';
+    private static final char RECURRING_SERIES = 'S';
 
     //@author Ryan-Wong-Ren-Wei
 
@@ -79,51 +132,159 @@ public class EventList {
      * @param inputList list of strings containing all information extracted from save file
      */
     public EventList(ArrayList<String> inputList) {
-        eventArrayList = new ArrayList<>();
-
+        ArrayList<Event> events = new ArrayList<>();
         for (String currLine : inputList) {
-            boolean isDone = currLine.substring(0, 1).equals("V");
-            char eventType = currLine.charAt(1);
-            String[] splitString = currLine.split("/");
-
-            if (eventType == TODO) {
-                String description = splitString[1];
-                String date = splitString[2];
-                eventArrayList.add(new ToDo(description, isDone, date));
-
-            } else { //for all other events
-                String description = splitString[1];
-                String startDateAndTime = splitString[2];
-                String endDateAndTime = splitString[3];
-
-                switch (eventType) {
-                case CONCERT:
-                    eventArrayList.add(new Concert(description, isDone, startDateAndTime, endDateAndTime,
-                            Integer.parseInt(splitString[4])));
-                    break;
-                case LESSON:
-                    eventArrayList.add(new Lesson(description, isDone, startDateAndTime, endDateAndTime));
-                    break;
-
-                case PRACTICE:
-                    eventArrayList.add(new Practice(description, isDone, startDateAndTime, endDateAndTime));
-                    break;
-
-                case EXAM:
-                    eventArrayList.add(new Exam(description, isDone, startDateAndTime, endDateAndTime));
-                    break;
-
-                case RECITAL:
-                    eventArrayList.add(new Recital(description, isDone, startDateAndTime, endDateAndTime));
-                    break;
-
-                default:
-                    break;
-                }
+            parseRecord(currLine, events, recurringSeriesList);
+        }
+        Collections.sort(events); //stable sort, events with the same start stay in file order
+        eventArrayList = new EventStore(events);
+        buildIndexes();
+    }
+
+    /**
+     * Creates new Model_Class.EventList object from events already read from the save file.
+     *
+     * @param events     individual events in the order they were read
+     * @param seriesList recurring series in the order they were read
+     */
+    public EventList(ArrayList<Event> events, ArrayList<RecurringSeries> seriesList) {
+        Collections.sort(events); //stable sort, events with the same start stay in file order
+        eventArrayList = new EventStore(events);
+        recurringSeriesList = seriesList;
+        buildIndexes();
+    }
+
+    /**
+     * Creates new Model_Class.EventList object from a list of events that may be backed by an archive,
+     * without reading the events of the archive other than concerts.
+     *
+     * @param events     individual events sorted by start
+     * @param seriesList recurring series in the order they were read
+     */
+    public EventList(EventStore events, ArrayList<RecurringSeries> seriesList) {
+        eventArrayList = events;
+        recurringSeriesList = seriesList;
+        buildIndexes();
+    }
+
+    /**
+     * Reads one line of the save file into a new event or recurring series. Fields are found with indexOf
+     * rather than split, so no array or regex is created for the line. Lines too short to hold an event type
+     * and lines of unknown event types are skipped.
+     *
+     * @param line       line of the save file
+     * @param events     list the new individual event is added to
+     * @param seriesList list the new recurring series is added to
+     */
+    public static void parseRecord(String line, ArrayList<Event> events, ArrayList<RecurringSeries> seriesList) {
+        if (line.length() < 2) {
+            return;
+        }
+        boolean isDone = line.charAt(0) == 'V';
+        char eventType = line.charAt(1);
+        int fieldStart = line.indexOf('/') + 1;
+        int fieldEnd;
+
+        if (eventType == RECURRING_SERIES) {
+            fieldEnd = getFieldEnd(line, fieldStart);
+            char seriesType = line.charAt(fieldStart);
+            fieldStart = fieldEnd + 1;
+            fieldEnd = getFieldEnd(line, fieldStart);
+            String description = line.substring(fieldStart, fieldEnd);
+            fieldStart = fieldEnd + 1;
+            fieldEnd = getFieldEnd(line, fieldStart);
+            String startDateAndTime = line.substring(fieldStart, fieldEnd);
+            fieldStart = fieldEnd + 1;
+            fieldEnd = getFieldEnd(line, fieldStart);
+            String endDateAndTime = line.substring(fieldStart, fieldEnd);
+            fieldStart = fieldEnd + 1;
+            fieldEnd = getFieldEnd(line, fieldStart);
+            int period = Integer.parseInt(line, fieldStart, fieldEnd, 10);
+            fieldStart = fieldEnd + 1;
+            fieldEnd = getFieldEnd(line, fieldStart);
+            int count = Integer.parseInt(line, fieldStart, fieldEnd, 10);
+            String excludedOccurrences = (fieldEnd < line.length()) ? line.substring(fieldEnd + 1) : "";
+            seriesList.add(new RecurringSeries(seriesType, description, isDone, startDateAndTime, endDateAndTime,
+                    period, count, excludedOccurrences));
+            return;
+        }
+
+        fieldEnd = getFieldEnd(line, fieldStart);
+        String description = line.substring(fieldStart, fieldEnd);
+        fieldStart = fieldEnd + 1;
+        fieldEnd = getFieldEnd(line, fieldStart);
+        String startDateAndTime = line.substring(fieldStart, fieldEnd);
+        if (eventType == TODO) {
+            events.add(new ToDo(description, isDone, startDateAndTime));
+            return;
+        }
+        fieldStart = fieldEnd + 1;
+        fieldEnd = getFieldEnd(line, fieldStart);
+        String endDateAndTime = line.substring(fieldStart, fieldEnd);
+
+        switch (eventType) {
+        case CONCERT:
+            fieldStart = fieldEnd + 1;
+            fieldEnd = getFieldEnd(line, fieldStart);
+            events.add(new Concert(description, isDone, startDateAndTime, endDateAndTime,
+                    Integer.parseInt(line, fieldStart, fieldEnd, 10)));
+            break;
+
+        case LESSON:
+            events.add(new Lesson(description, isDone, startDateAndTime, endDateAndTime));
+            break;
+
+        case PRACTICE:
+            events.add(new Practice(description, isDone, startDateAndTime, endDateAndTime));
+            break;
+
+        case EXAM:
+            events.add(new Exam(description, isDone, startDateAndTime, endDateAndTime));
+            break;
+
+        case RECITAL:
+            events.add(new Recital(description, isDone, startDateAndTime, endDateAndTime));
+            break;
+
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Checks whether a line of the save file holds a recurring series.
+     */
+    public static boolean isSeriesRecord(String line) {
+        return line.length() >= 2 && line.charAt(1) == RECURRING_SERIES;
+    }
+
+    /**
+     * Gets the index just after the last character of the field starting at fieldStart.
+     */
+    private static int getFieldEnd(String line, int fieldStart) {
+        int fieldEnd = line.indexOf('/', fieldStart);
+        return (fieldEnd < 0) ? line.length() : fieldEnd;
+    }
+
+    /**
+     * Builds the indexes and budgets over the events read from the save file. Events still in the archive
+     * are left out of the indexes, and only concerts are read for the budgets.
+     */
+    private void buildIndexes() {
+        clashIndex = new EventIntervalTree();
+        for (int i = 0; i < eventArrayList.size(); i++) {
+            if (eventArrayList.getRecord(i) < 0) {
+                Event currEvent = eventArrayList.get(i);
+                indexForClashes(currEvent);
+                searchIndex.update(currEvent);
             }
         }
+        for (RecurringSeries series : recurringSeriesList) {
+            searchIndex.update(series);
+        }
+        isSearchIndexComplete = eventArrayList.getArchive() == null;
 
-        budgeting = new Budgeting(eventArrayList, 50);
+        budgeting = new Budgeting(eventArrayList.getEventsOfType(CONCERT), 50);
     }
 
 
@@ -136,9 +297,25 @@ public class EventList {
      * @param newDescription The new description.
      */
     public void editEvent(int eventIndex, String newDescription) {
-        Event tempEvent = this.eventArrayList.get(eventIndex);
+        int position = getIndividualEventPosition(eventIndex);
+        Event tempEvent = this.eventArrayList.get(position);
         tempEvent.editEvent(newDescription);
-        this.eventArrayList.set(eventIndex, tempEvent);
+        searchIndex.update(tempEvent);
+        recordChange(new EventChange(EventChange.EDIT, false, position, position, tempEvent.toStringForFile()));
+        recordLineChange(tempEvent);
+    }
+
+    /**
+     * Marks an event in the list as done.
+     *
+     * @param eventIndex Index of the event to be marked as done.
+     */
+    public void markEventAsDone(int eventIndex) {
+        int position = getIndividualEventPosition(eventIndex);
+        Event doneEvent = this.eventArrayList.get(position);
+        doneEvent.setIsDoneToTrue();
+        recordChange(new EventChange(EventChange.DONE, false, position, position, doneEvent.toStringForFile()));
+        recordLineChange(doneEvent);
     }
 
     /**
@@ -147,128 +324,420 @@ public class EventList {
      * @param event Model_Class.Event object to be added
      */
     public void addEvent(Event event) throws EndBeforeStartException, ClashException, CostExceedsBudgetException {
-        if (event.getStartDate().getEventJavaDate().compareTo(event.getEndDate().getEventJavaDate()) == 1) {
+        AddEventTrace trace = new AddEventTrace();
+        trace.begin();
+        long numEventsScannedBefore = numEventsScanned;
+        boolean isAdded = false;
+        int position;
+        try {
+            position = insertEvent(event);
+            isAdded = true;
+        } finally {
+            if (trace.shouldCommit()) {
+                trace.eventType = event.getType();
+                trace.numEvents = getNumEvents();
+                trace.numEventsScanned = numEventsScanned - numEventsScannedBefore;
+                trace.isAdded = isAdded;
+                trace.commit();
+            }
+        }
+        recordChange(new EventChange(EventChange.ADD, false, EventChange.NO_POSITION, position,
+                event.toStringForFile()));
+    }
+
+    /**
+     * Checks for a clash, then adds a new event if possible, without recording the change.
+     *
+     * @return position of the event in eventArrayList
+     */
+    private int insertEvent(Event event) throws EndBeforeStartException, ClashException, CostExceedsBudgetException {
+        if (event.getStartDate().compare(event.getEndDate()) == 1) {
             throw new EndBeforeStartException();
         }
 
-        Event clashEvent = getClashEvent(event); //check the list for a schedule clash
+        //check the list for a schedule clash
+        Event clashEvent = getClashEvent(event.getStartDate().getEpochMinute(), event.getEndDate().getEpochMinute());
         if (clashEvent == null) { //null means no clash was found
             if (event.getType() == 'C') {
                 this.budgeting.updateMonthlyCost((Concert) event);
             }
 
-            this.eventArrayList.add(event);
+            int position = insertInOrder(event);
+            indexForClashes(event);
+            return position;
         } else { //if clash is found, notify user via terminal.
             throw new ClashException(clashEvent);
         }
     }
 
     public void addNewTodo(Event event) {
-        this.eventArrayList.add(event);
+        int position = insertInOrder(event);
+        recordChange(new EventChange(EventChange.ADD, false, EventChange.NO_POSITION, position,
+                event.toStringForFile()));
     }
 
     //@@author YuanJiayi
     private static final int ONE_SEMESTER_DAYS = 16 * 7;
 
     /**
-     * Adds recurring events to the list.
+     * Adds recurring events to the list, as a series of occurrences one period apart over one semester.
+     * The series is stored as a single rule, and its occurrences are only created when needed.
      *
      * @param event  Event to be added as recursion.
      * @param period Period of the recursion.
      */
     public void addRecurringEvent(Event event, int period) throws ClashException {
-        Calendar calendarStartDate = Calendar.getInstance();
-        Calendar calendarEndDate = Calendar.getInstance();
-        calendarStartDate.setTime(event.getStartDate().getEventJavaDate());
-        calendarEndDate.setTime(event.getEndDate().getEventJavaDate());
-
-        ArrayList<Event> tempEventList = new ArrayList<>();
-
-        Event newEvent = null;
-        int oneSemesterDays = 16 * 7;
-        for (int addEventCount = 0; addEventCount * period <= oneSemesterDays; addEventCount++) {
-            EventDate toFormatCalendarStartDate = new EventDate(calendarStartDate.getTime());
-            EventDate toFormatCalendarEndDate = new EventDate(calendarEndDate.getTime());
-            if (event.getType() == 'L') {
-                newEvent = new Lesson(event.getDescription(), toFormatCalendarStartDate.getUserInputDateString(),
-                        toFormatCalendarEndDate.getUserInputDateString());
-            } else if (event.getType() == 'P') {
-                newEvent = new Practice(event.getDescription(), toFormatCalendarStartDate.getUserInputDateString(),
-                        toFormatCalendarEndDate.getUserInputDateString());
-            }
-
-            assert newEvent != null;
-            if (getClashEvent(newEvent) == null) {
-                tempEventList.add(newEvent);
-            } else {
-                throw new ClashException(newEvent);
+        AddRecurringEventTrace trace = new AddRecurringEventTrace();
+        trace.begin();
+        long numEventsScannedBefore = numEventsScanned;
+        RecurringSeries newSeries = new RecurringSeries(event, period, ONE_SEMESTER_DAYS / period + 1);
+        long duration = event.getEndDate().getEpochMinute() - event.getStartDate().getEpochMinute();
+        boolean isAdded = false;
+        try {
+            for (int occurrence = 0; occurrence < newSeries.getNumOccurrences(); occurrence++) {
+                long start = newSeries.getStart(occurrence);
+                if (getClashEvent(start, start + duration) != null) {
+                    throw new ClashException(newSeries.createOccurrence(occurrence));
+                }
+            }
+            recurringSeriesList.add(newSeries);
+            isAdded = true;
+        } finally {
+            if (trace.shouldCommit()) {
+                trace.period = period;
+                trace.numOccurrences = newSeries.getNumOccurrences();
+                trace.numEvents = getNumEvents();
+                trace.numEventsScanned = numEventsScanned - numEventsScannedBefore;
+                trace.isAdded = isAdded;
+                trace.commit();
             }
-            calendarStartDate.add(Calendar.DATE, period);
-            calendarEndDate.add(Calendar.DATE, period);
         }
 
-        this.eventArrayList.addAll(tempEventList);
+        searchIndex.update(newSeries);
+        recordChange(new EventChange(EventChange.ADD, true, EventChange.NO_POSITION, recurringSeriesList.size() - 1,
+                newSeries.toStringForFile()));
+    }
+
+    /**
+     * Changes the start and end of an event in the list. If the new timing is rejected (e.g. it clashes with
+     * another event, exceeds the budget or ends before it starts), the event keeps its old timing and the
+     * exception is thrown.
+     *
+     * @param eventIndex   Index of the event to be rescheduled.
+     * @param newStartDate New start date and time.
+     * @param newEndDate   New end date and time.
+     * @return the rescheduled event
+     */
+    public Event rescheduleEvent(int eventIndex, EventDate newStartDate, EventDate newEndDate)
+            throws ClashException, CostExceedsBudgetException, EndBeforeStartException {
+        int position = getIndividualEventPosition(eventIndex);
+        Event event = this.eventArrayList.get(position);
+        EventDate oldStartDate = event.getStartDate();
+        EventDate oldEndDate = event.getEndDate();
+
+        removeEvent(position); //remove event from list before checking for clashes
+        event.rescheduleStartDate(newStartDate);
+        event.rescheduleEndDate(newEndDate);
+        boolean isRescheduled = false;
+        int newPosition;
+        try {
+            newPosition = insertEvent(event);
+            isRescheduled = true;
+        } finally {
+            if (!isRescheduled) { //restore old timing if new timing was rejected
+                event.rescheduleStartDate(oldStartDate);
+                event.rescheduleEndDate(oldEndDate);
+                reinstateEvent(position, event);
+            }
+        }
+        recordChange(new EventChange(EventChange.RESCHEDULE, false, position, newPosition, event.toStringForFile()));
+        recordLineChange(event);
+        return event;
     }
 
     //@@author Ryan-Wong-Ren-Wei
 
     /**
-     * Checks the list of events for any clashes with the newly added event. If
+     * Checks the list of events for any clashes with the time span of a newly added event. If
      * there is a clash, return a reference to the event, if not, return null.
+     * Uses the interval tree, so events spanning several days are checked against every day they cover.
+     * Occurrences of recurring series are found by arithmetic on their period.
      *
-     * @param checkingEvent newly added event
-     * @return event that causes a clash, null if no clash found
+     * @param start start of the newly added event in epoch-minutes
+     * @param end   end of the newly added event in epoch-minutes
+     * @return event that causes a clash (the earliest one in the list if there are several), null if no clash found
      */
-    private Event getClashEvent(Event checkingEvent) {
-        //split new event date string into date and time.
-        String[] newEventStartDateTime = checkingEvent.getStartDate().getUserInputDateString().split(" ");
-        String[] newEventEndDateTime = checkingEvent.getEndDate().getUserInputDateString().split(" ");
-        String newEventDate = newEventStartDateTime[0]; //assign date
-        int newEventStartTime = Integer.parseInt(newEventStartDateTime[1]); //assign time
-        int newEventEndTime = Integer.parseInt(newEventEndDateTime[1]);
+    private Event getClashEvent(long start, long end) {
+        Event earliestInList = null;
+        int earliestPosition = Integer.MAX_VALUE;
+        ArrayList<Event> clashingEvents = clashIndex.getClashingEvents(start, end);
+        clashingEvents.addAll(eventArrayList.getClashingArchivedEvents(start, end));
+        numEventsScanned += clashingEvents.size() + recurringSeriesList.size();
+        for (Event currEvent : clashingEvents) {
+            int currPosition = findIndividualEvent(currEvent);
+            if (currPosition < earliestPosition) {
+                earliestPosition = currPosition;
+                earliestInList = currEvent;
+            }
+        }
 
-        for (Event currEvent : eventArrayList) { //scan list for clashes
-            if (currEvent.getType() == 'T') {
-                continue; //skip scan if todo class
+        for (RecurringSeries series : recurringSeriesList) {
+            int occurrence = series.getFirstClashingOccurrence(start, end);
+            if (occurrence >= 0 && (earliestInList == null
+                    || series.getStart(occurrence) < earliestInList.getStartDate().getEpochMinute())) {
+                earliestInList = series.createOccurrence(occurrence);
             }
+        }
+        return earliestInList;
+    }
 
-            String[] currEventStartDateTime = currEvent.getStartDate().getUserInputDateString().split(" ");
-            String[] currEventEndDateTime = currEvent.getEndDate().getUserInputDateString().split(" ");
+    /**
+     * Adds an event to the interval tree used for clash detection. ToDos never clash, so are not indexed.
+     */
+    private void indexForClashes(Event event) {
+        if (event.getType() == 'T' || !event.getStartDate().isValidDate() || !event.getEndDate().isValidDate()) {
+            return;
+        }
+        clashIndex.insert(event, event.getStartDate().getEpochMinute(), event.getEndDate().getEpochMinute());
+    }
 
-            if (newEventDate.equals(currEventStartDateTime[0]) && //check for same date
-                    checkForTimeClash(newEventStartTime, newEventEndTime, currEventStartDateTime[1],
-                            currEventEndDateTime[1])) { //check for time clash
-                return currEvent; //clash found
+    //@@author
+
+    /**
+     * sorts the list of events/tasks according to date, in increasing order.
+     * The list is kept sorted as events are added, so there is nothing left to do here.
+     */
+    public void sortList() {
+    }
+
+    /**
+     * Gets the index of the first event starting at or after the given time, using binary search.
+     *
+     * @param epochMinute time in epoch-minutes
+     * @return index of the first event starting at or after the time, or the number of events if there is none
+     */
+    public int getIndexOfFirstEventFrom(long epochMinute) {
+        int index = getPositionOfFirstIndividualEventFrom(epochMinute);
+        for (RecurringSeries series : recurringSeriesList) {
+            index += series.countOccurrencesBefore(epochMinute);
+        }
+        return index;
+    }
+
+    /**
+     * Gets the position in eventArrayList of the first individual event starting at or after the given time.
+     */
+    private int getPositionOfFirstIndividualEventFrom(long epochMinute) {
+        return eventArrayList.getPositionOfFirstFrom(epochMinute);
+    }
+
+    /**
+     * Gets the index of an event in the list, using binary search on its start.
+     *
+     * @param event Event to be found
+     * @return index of the event, -1 if it is not in the list
+     */
+    public int getIndexOfEvent(Event event) {
+        int position = findIndividualEvent(event);
+        return (position < 0) ? -1 : getIndexOfIndividualEvent(position);
+    }
+
+    /**
+     * Gets the position of an event in eventArrayList, using binary search on its start.
+     *
+     * @return position of the event, -1 if it is not an individual event in the list
+     */
+    private int findIndividualEvent(Event event) {
+        long start = event.getStartDate().getEpochMinute();
+        for (int i = getPositionOfFirstIndividualEventFrom(start); i < eventArrayList.size(); ++i) {
+            if (eventArrayList.getIfRead(i) == event) { //events not read yet cannot be the event
+                return i;
+            } else if (eventArrayList.getStart(i) != start) {
+                break;
             }
         }
-        return null; //no clash found
+        return -1;
     }
 
     /**
-     * Checks for a clash in time assuming two events have the same date.
+     * Gets the index in the list of the individual event at the given position of eventArrayList.
      */
-    private boolean checkForTimeClash(int newEventStartTime, int newEventEndTime, String s, String s1) {
-        int currEventStartTime = Integer.parseInt(s); //assign time
-        int currEventEndTime = Integer.parseInt(s1);
+    private int getIndexOfIndividualEvent(int position) {
+        int index = position;
+        long start = eventArrayList.getStart(position);
+        for (RecurringSeries series : recurringSeriesList) {
+            index += series.countOccurrencesBefore(start); //occurrences at the same start come after
+        }
+        return index;
+    }
+
+    /**
+     * Gets the number of individual events placed before the given index of the list.
+     */
+    private int countIndividualEventsBefore(int index) {
+        int low = 0;
+        int high = eventArrayList.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getIndexOfIndividualEvent(mid) < index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Inserts an event into the list after all events starting before or at the same time.
+     *
+     * @return position of the event in eventArrayList
+     */
+    private int insertInOrder(Event event) {
+        int position = getPositionOfFirstIndividualEventFrom(event.getStartDate().getEpochMinute() + 1);
+        eventArrayList.add(position, event);
+        searchIndex.update(event);
+        return position;
+    }
+
+    /**
+     * Finds the individual event or occurrence of a recurring series at an index of the list.
+     *
+     * @param index index of the list
+     * @return position of the individual event, or of the occurrence in its series
+     * @throws IndexOutOfBoundsException if there is no event at the index
+     */
+    private ListPosition locate(int index) {
+        if (index < 0 || index >= getNumEvents()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getNumEvents());
+        }
+        if (recurringSeriesList.isEmpty()) {
+            return new ListPosition(null, index);
+        }
+        int numIndividualEventsBefore = countIndividualEventsBefore(index);
+        if (numIndividualEventsBefore < eventArrayList.size()
+                && getIndexOfIndividualEvent(numIndividualEventsBefore) == index) {
+            return new ListPosition(null, numIndividualEventsBefore);
+        }
+
+        //binary search for the start of the occurrence, which has this many occurrences before it
+        int occurrencesBefore = index - numIndividualEventsBefore;
+        long low = Long.MAX_VALUE;
+        long high = Long.MIN_VALUE;
+        for (RecurringSeries series : recurringSeriesList) {
+            low = Math.min(low, series.getStart(0));
+            high = Math.max(high, series.getLastStart());
+        }
+        while (low < high) {
+            long mid = low + (high - low) / 2;
+            if (countOccurrencesBefore(mid + 1) > occurrencesBefore) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        int toSkip = occurrencesBefore - countOccurrencesBefore(low);
+        for (RecurringSeries series : recurringSeriesList) { //occurrences starting together are in order of series
+            int occurrence = series.getOccurrenceStartingAt(low);
+            if (occurrence >= 0 && toSkip-- == 0) {
+                return new ListPosition(series, occurrence);
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getNumEvents());
+    }
 
-        if (newEventStartTime > currEventStartTime) { //new event starts after current event starts
-            return currEventEndTime > newEventStartTime; //check if new event starts before current event ends
+    private int countOccurrencesBefore(long epochMinute) {
+        int numOccurrences = 0;
+        for (RecurringSeries series : recurringSeriesList) {
+            numOccurrences += series.countOccurrencesBefore(epochMinute);
+        }
+        return numOccurrences;
+    }
 
-        } else if (newEventStartTime < currEventStartTime) { //new event starts before current event starts
-            return newEventEndTime > currEventStartTime; //check if new event ends after current event starts
+    /**
+     * Gets the position in eventArrayList of the event at an index of the list, so it can be changed. An
+     * occurrence of a recurring series is first taken out of the series and stored as an individual event.
+     *
+     * @param eventIndex index of the list
+     * @return position of the individual event
+     */
+    private int getIndividualEventPosition(int eventIndex) {
+        ListPosition position = locate(eventIndex);
+        if (position.series == null) {
+            return position.position;
+        }
+        return detachOccurrence(position, position.series.createOccurrence(position.position));
+    }
 
-        } else { //new event starts at the same time as current event
-            return true;
+    /**
+     * Changes the goals, contacts or checklist of the event at an index of the list. An occurrence of a recurring
+     * series is only taken out of the series once the change succeeded, so a change that throws (e.g. for an
+     * item that does not exist) leaves the series whole.
+     *
+     * @param eventIndex index of the list
+     * @param change     change made to the event
+     * @return the changed event, an individual event of the list
+     */
+    private Event changeEventDetails(int eventIndex, Consumer<Event> change) {
+        ListPosition position = locate(eventIndex);
+        if (position.series == null) {
+            Event event = eventArrayList.get(position.position);
+            change.accept(event);
+            return event;
         }
+        Event occurrence = position.series.createOccurrence(position.position);
+        change.accept(occurrence);
+        detachOccurrence(position, occurrence);
+        return occurrence;
     }
 
-    //@@author
+    /**
+     * Takes an occurrence out of its recurring series and stores it as an individual event.
+     *
+     * @return position of the individual event
+     */
+    private int detachOccurrence(ListPosition position, Event occurrence) {
+        excludeOccurrence(position.series, position.position);
+        int individualPosition = insertInOrder(occurrence);
+        indexForClashes(occurrence);
+        recordChange(new EventChange(EventChange.ADD, false, EventChange.NO_POSITION, individualPosition,
+                occurrence.toStringForFile()));
+        return individualPosition;
+    }
 
     /**
-     * sorts the list of events/tasks according to date, in increasing order.
+     * Takes an occurrence out of a recurring series, removing the series once it has no occurrences left.
      */
-    public void sortList() {
-        Collections.sort(eventArrayList);
+    private void excludeOccurrence(RecurringSeries series, int occurrence) {
+        int position = recurringSeriesList.indexOf(series);
+        series.excludeOccurrence(occurrence);
+        if (series.getNumOccurrences() == 0) {
+            recurringSeriesList.remove(position);
+            searchIndex.remove(series);
+            recordChange(new EventChange(EventChange.DELETE, true, position, EventChange.NO_POSITION, null));
+        } else {
+            recordChange(new EventChange(EventChange.DELETE, true, position, position, series.toStringForFile()));
+        }
+    }
+
+    /**
+     * Position of an item of the list, either an individual event or an occurrence of a recurring series.
+     */
+    private static class ListPosition {
+        /**
+         * series of the occurrence, null for individual events.
+         */
+        private RecurringSeries series;
+
+        /**
+         * position in eventArrayList, or number of the occurrence in its series.
+         */
+        private int position;
+
+        private ListPosition(RecurringSeries series, int position) {
+            this.series = series;
+            this.position = position;
+        }
     }
 
     /**
@@ -277,75 +746,355 @@ public class EventList {
      * @param eventNo Index of event to be deleted
      */
     public void deleteEvent(int eventNo) {
+        ListPosition position = locate(eventNo);
+        if (position.series != null) {
+            excludeOccurrence(position.series, position.position);
+            return;
+        }
+        Event deletedEvent = removeEvent(position.position);
+        recordChange(new EventChange(EventChange.DELETE, false, position.position, EventChange.NO_POSITION, null));
+        recordDetailChange(new EventDetailChange(deletedEvent, EventDetailChange.SAVE_FILE_LINE,
+                EventChange.DELETE, 0));
+    }
+
+    /**
+     * Deletes a event from the list without recording the change.
+     */
+    private Event removeEvent(int eventNo) {
         if (this.eventArrayList.get(eventNo).getType() == 'C') {
             budgeting.removeMonthlyCost((Concert) this.eventArrayList.get(eventNo));
         }
-        this.eventArrayList.remove(eventNo);
+        Event removedEvent = this.eventArrayList.remove(eventNo);
+        clashIndex.remove(removedEvent);
+        searchIndex.remove(removedEvent);
+        return removedEvent;
     }
 
     /**
-     * Gets list of Model_Class.Event objects stored
+     * Gets list of Model_Class.Event objects stored, including all occurrences of recurring series.
+     * All events still in the archive are read.
      *
      * @return Array of EventLists containing all events.
      */
     public ArrayList<Event> getEventArrayList() {
+        return getEventsStartingBetween(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Gets all events starting in the time span [from, to), in the order of the list.
+     *
+     * @param from start of the time span in epoch-minutes
+     * @param to   end of the time span in epoch-minutes
+     * @return list of events, including occurrences of recurring series
+     */
+    public ArrayList<Event> getEventsStartingBetween(long from, long to) {
+        int position = getPositionOfFirstIndividualEventFrom(from);
+        int endPosition = getPositionOfFirstIndividualEventFrom(to);
+        ArrayList<Event> occurrences = new ArrayList<>();
+        for (RecurringSeries series : recurringSeriesList) {
+            series.addOccurrencesBetween(from, to, occurrences);
+        }
+        occurrences.sort(null); //stable sort, occurrences starting together stay in order of series
+
+        ArrayList<Event> events = new ArrayList<>(endPosition - position + occurrences.size());
+        int occurrenceIndex = 0;
+        while (position < endPosition || occurrenceIndex < occurrences.size()) {
+            if (occurrenceIndex == occurrences.size() || (position < endPosition
+                    && eventArrayList.get(position).compareTo(occurrences.get(occurrenceIndex)) <= 0)) {
+                events.add(eventArrayList.get(position++));
+            } else {
+                events.add(occurrences.get(occurrenceIndex++));
+            }
+        }
+        numEventsScanned += events.size();
+        return events;
+    }
+
+    /**
+     * Last day that can be checked for events, as epoch-minutes after it no longer fit in a long.
+     */
+    public static final long LAST_DAY = Long.MAX_VALUE / EventDate.MINUTES_PER_DAY - 1;
+
+    /**
+     * Number of days marked in one occupancy bitmap when looking for free days.
+     */
+    private static final int DAYS_PER_BITMAP = 366;
+
+    /**
+     * Finds days on which no event starts, in the span of days [fromDay, toDay).
+     * Days are checked a year at a time, by marking the days with events in a bitmap and scanning it for clear bits.
+     *
+     * @param fromDay first day to check, in epoch-days
+     * @param toDay   day after the last day to check, in epoch-days, at most LAST_DAY
+     * @param maxDays maximum number of free days to find
+     * @return free days found in increasing order, in epoch-days
+     */
+    public ArrayList<Long> getFreeDays(long fromDay, long toDay, int maxDays) {
+        ArrayList<Long> freeDays = new ArrayList<>();
+        long bitmapStart = fromDay;
+        while (bitmapStart < toDay && freeDays.size() < maxDays) {
+            int bitmapLength = (int) Math.min(toDay - bitmapStart, DAYS_PER_BITMAP);
+            BitSet busyDays = getBusyDays(bitmapStart, bitmapStart + bitmapLength);
+            int day = busyDays.nextClearBit(0);
+            while (day < bitmapLength && freeDays.size() < maxDays) {
+                freeDays.add(bitmapStart + day);
+                day = busyDays.nextClearBit(day + 1);
+            }
+            bitmapStart += bitmapLength;
+        }
+        return freeDays;
+    }
+
+    /**
+     * Marks the days on which an event starts, in the span of days [fromDay, toDay).
+     *
+     * @return bitmap with bit i set if an event starts on day fromDay + i
+     */
+    private BitSet getBusyDays(long fromDay, long toDay) {
+        BitSet busyDays = new BitSet((int) (toDay - fromDay));
+        long from = fromDay * EventDate.MINUTES_PER_DAY;
+        long to = toDay * EventDate.MINUTES_PER_DAY;
+        int position = getPositionOfFirstIndividualEventFrom(from);
+        while (position < eventArrayList.size() && eventArrayList.getStart(position) < to) {
+            long day = Math.floorDiv(eventArrayList.getStart(position), EventDate.MINUTES_PER_DAY);
+            busyDays.set((int) (day - fromDay));
+            position = getPositionOfFirstIndividualEventFrom((day + 1) * EventDate.MINUTES_PER_DAY); //skip to next day
+            numEventsScanned++;
+        }
+        for (RecurringSeries series : recurringSeriesList) {
+            int occurrence = series.getFirstOccurrenceFrom(from);
+            for (; occurrence <= series.getLastOccurrence() && series.getStart(occurrence) < to; occurrence++) {
+                numEventsScanned++;
+                if (series.isIncluded(occurrence)) {
+                    long day = Math.floorDiv(series.getStart(occurrence), EventDate.MINUTES_PER_DAY);
+                    busyDays.set((int) (day - fromDay));
+                }
+            }
+        }
+        return busyDays;
+    }
+
+    /**
+     * Finds the earliest free slots of at least the given length, within the given hours of each day.
+     * Sweeps the events in order of start, merging overlapping events into busy intervals, and reports the gaps
+     * between the busy intervals. Events already running at the given time are found with the interval tree.
+     * ToDos take up no time, and each slot lies within a single day.
+     *
+     * @param from      time to start looking from, in epoch-minutes
+     * @param dayStart  earliest time of day for a slot, in minutes after midnight
+     * @param dayEnd    latest time of day for a slot, in minutes after midnight (at most 24 * 60)
+     * @param minLength minimum length of a slot in minutes, at least 1
+     * @param maxSlots  maximum number of slots to find
+     * @return free slots found in order of start, each as long as the day and the events around it allow
+     */
+    public ArrayList<TimeSlot> getFreeSlots(long from, int dayStart, int dayEnd, long minLength, int maxSlots) {
+        ArrayList<TimeSlot> freeSlots = new ArrayList<>();
+        if (dayEnd - dayStart < minLength) {
+            return freeSlots; //no slot fits in a day
+        }
+
+        long busyUntil = from;
+        ArrayList<Event> runningEvents = clashIndex.getClashingEvents(from, from + 1);
+        runningEvents.addAll(eventArrayList.getClashingArchivedEvents(from, from + 1));
+        for (Event runningEvent : runningEvents) {
+            busyUntil = Math.max(busyUntil, runningEvent.getEndDate().getEpochMinute());
+        }
+        int position = getPositionOfFirstIndividualEventFrom(from);
+        int[] nextOccurrences = new int[recurringSeriesList.size()];
+        for (int i = 0; i < recurringSeriesList.size(); i++) { //start from the occurrences still running
+            RecurringSeries series = recurringSeriesList.get(i);
+            nextOccurrences[i] = series.getFirstOccurrenceFrom(from - series.getDuration());
+        }
+
+        while (freeSlots.size() < maxSlots) {
+            while (position < eventArrayList.size() && !isTakingUpTime(eventArrayList.get(position))) {
+                position++;
+                numEventsScanned++;
+            }
+            long nextStart = LAST_DAY * EventDate.MINUTES_PER_DAY;
+            long nextEnd = nextStart;
+            int nextSeries = -1;
+            if (position < eventArrayList.size()) {
+                nextStart = eventArrayList.get(position).getStartDate().getEpochMinute();
+                nextEnd = eventArrayList.get(position).getEndDate().getEpochMinute();
+            }
+            for (int i = 0; i < recurringSeriesList.size(); i++) {
+                RecurringSeries series = recurringSeriesList.get(i);
+                int occurrence = nextOccurrences[i];
+                while (occurrence <= series.getLastOccurrence() && !series.isIncluded(occurrence)) {
+                    occurrence++;
+                }
+                nextOccurrences[i] = occurrence;
+                if (occurrence <= series.getLastOccurrence() && series.getStart(occurrence) < nextStart) {
+                    nextStart = series.getStart(occurrence);
+                    nextEnd = nextStart + series.getDuration();
+                    nextSeries = i;
+                }
+            }
+
+            if (nextSeries < 0 && position == eventArrayList.size()) {
+                addFreeSlots(busyUntil, nextStart, dayStart, dayEnd, minLength, maxSlots, freeSlots);
+                break; //no events left
+            } else if (nextEnd > nextStart) { //events lasting no time do not split free slots
+                addFreeSlots(busyUntil, nextStart, dayStart, dayEnd, minLength, maxSlots, freeSlots);
+                busyUntil = Math.max(busyUntil, nextEnd);
+            }
+            if (nextSeries >= 0) {
+                nextOccurrences[nextSeries]++;
+            } else {
+                position++;
+            }
+            numEventsScanned++;
+        }
+        return freeSlots;
+    }
+
+    /**
+     * Checks whether an event takes up time in the schedule, i.e. it is not a ToDo and has valid dates.
+     */
+    private static boolean isTakingUpTime(Event event) {
+        return event.getType() != 'T' && event.getStartDate().isValidDate() && event.getEndDate().isValidDate();
+    }
+
+    /**
+     * Adds the slots within the given hours of each day in the free time span [from, to), until there are
+     * maxSlots slots.
+     */
+    private static void addFreeSlots(long from, long to, int dayStart, int dayEnd, long minLength, int maxSlots,
+                                     ArrayList<TimeSlot> freeSlots) {
+        long day = Math.floorDiv(from, EventDate.MINUTES_PER_DAY);
+        for (; day * EventDate.MINUTES_PER_DAY < to && freeSlots.size() < maxSlots; day++) {
+            long slotStart = Math.max(from, day * EventDate.MINUTES_PER_DAY + dayStart);
+            long slotEnd = Math.min(to, day * EventDate.MINUTES_PER_DAY + dayEnd);
+            if (slotEnd - slotStart >= minLength) {
+                freeSlots.add(new TimeSlot(slotStart, slotEnd));
+            }
+        }
+    }
+
+    /**
+     * Gets list of individual events stored, without occurrences of recurring series.
+     */
+    public EventStore getIndividualEvents() {
         return this.eventArrayList;
     }
 
     /**
-     * Gets number of events stored.
+     * Gets list of recurring series stored.
+     */
+    public ArrayList<RecurringSeries> getRecurringSeriesList() {
+        return this.recurringSeriesList;
+    }
+
+    /**
+     * Gets number of events stored, including all occurrences of recurring series.
      *
      * @return number of events stored
      */
     public int getNumEvents() {
-        return eventArrayList.size();
+        int numEvents = eventArrayList.size();
+        for (RecurringSeries series : recurringSeriesList) {
+            numEvents += series.getNumOccurrences();
+        }
+        return numEvents;
     }
 
     /**
-     * Gets a specific event using indexing.
+     * Gets a specific event using indexing. Occurrences of recurring series are created on each call.
      *
      * @param index Index of event to be extracted
      * @return Model_Class.Event object of specified event
      */
     public Event getEvent(int index) {
-        return eventArrayList.get(index);
+        ListPosition position = locate(index);
+        if (position.series != null) {
+            return position.series.createOccurrence(position.position);
+        }
+        return eventArrayList.get(position.position);
     }
 
     /**
-     * Gets the entire list of events stored in String format.
+     * Finds the events containing all the given keywords in their description, goals, contacts or checklist,
+     * using the inverted index. Keywords are not case-sensitive, and match any word starting with them.
      *
-     * @return String containing all events, separated by a newline.
+     * @param keywords keywords separated by spaces
+     * @return indices of the events found, in increasing order
      */
-    public String listOfEvents_String() {
-        findNextEventAndSetBoolean(currentDate);
-        String allEvents = "";
-        for (int i = currentDateIndex; i < eventArrayList.size(); ++i) {
-            if (eventArrayList.get(i) == null) {
-                continue;
+    public ArrayList<Integer> findEvents(String keywords) {
+        completeSearchIndex();
+        ArrayList<Integer> indices = new ArrayList<>();
+        for (Object match : searchIndex.search(keywords)) {
+            if (match instanceof RecurringSeries) {
+                RecurringSeries series = (RecurringSeries) match;
+                for (int occurrence = 0; occurrence <= series.getLastOccurrence(); occurrence++) {
+                    if (series.isIncluded(occurrence)) {
+                        indices.add(getIndexOfOccurrence(series, occurrence));
+                    }
+                }
+            } else {
+                indices.add(getIndexOfEvent((Event) match));
             }
-            int j = i + 1;
-            allEvents += j + ". " + this.getEvent(i).toString() + "\n";
         }
-        return allEvents;
+        Collections.sort(indices);
+        numEventsScanned += indices.size();
+        return indices;
     }
 
     /**
-     * Retrieves String containing the filtered list of events, each separated by a newline.
+     * Adds the events still in the archive to the search index, reading all of them, and the saved goals,
+     * contacts and checklists not read yet.
      */
-    private String filteredListTwoPredicates(Predicate<Object> predicate1, Predicate<Object> predicate2) {
-        String filteredEvents = "";
-        int j;
-        for (int i = 0; i < eventArrayList.size(); ++i) {
-            if (eventArrayList.get(i) == null) {
-                continue;
-            } else if (!predicate1.check(eventArrayList.get(i).getStartDate())
-                    || !predicate2.check(eventArrayList.get(i).getStartDate())) {
-                continue;
+    private void completeSearchIndex() {
+        if (isSearchIndexComplete) {
+            return;
+        }
+        for (int i = 0; i < eventArrayList.size(); i++) {
+            if (eventArrayList.getRecord(i) >= 0) {
+                searchIndex.update(eventArrayList.get(i));
+            }
+        }
+        for (Event event : eventsWithUnreadDetails) {
+            if (event.hasUnreadSavedDetails() && findIndividualEvent(event) >= 0) {
+                searchIndex.update(event);
+            }
+        }
+        eventsWithUnreadDetails.clear();
+        isSearchIndexComplete = true;
+    }
+
+    /**
+     * Gets the index in the list of an occurrence of a recurring series, which comes after the individual
+     * events and the occurrences of earlier series starting at the same time.
+     */
+    private int getIndexOfOccurrence(RecurringSeries series, int occurrence) {
+        long start = series.getStart(occurrence);
+        int index = getIndexOfFirstEventFrom(start)
+                + getPositionOfFirstIndividualEventFrom(start + 1) - getPositionOfFirstIndividualEventFrom(start);
+        for (RecurringSeries currSeries : recurringSeriesList) {
+            if (currSeries == series) {
+                break;
+            } else if (currSeries.getOccurrenceStartingAt(start) >= 0) {
+                index++;
             }
-            j = i + 1;
-            filteredEvents += j + ". " + this.getEvent(i).toString() + "\n";
         }
-        return filteredEvents;
+        return index;
+    }
+
+    /**
+     * Gets the entire list of events stored in String format.
+     *
+     * @return String containing all events, separated by a newline.
+     */
+    public String listOfEvents_String() {
+        findNextEventAndSetBoolean(currentDate);
+        String allEvents = "";
+        int j = currentDateIndex;
+        for (Event currEvent : getEventsStartingBetween(new EventDate(currentDate).getEpochMinute() + 1,
+                Long.MAX_VALUE)) {
+            j++;
+            allEvents += j + ". " + currEvent.toString() + "\n";
+        }
+        return allEvents;
     }
 
     /**
@@ -353,16 +1102,21 @@ public class EventList {
      */
     public String getReminder(int days) {
         Date systemDateAndTime = new Date();
-        EventDate lowerLimit = new EventDate(systemDateAndTime);
+        EventDate today = new EventDate(systemDateAndTime);
         EventDate upperLimit = new EventDate(systemDateAndTime);
-        lowerLimit.addDaysAndSetMidnight(-1);
         upperLimit.addDaysAndSetMidnight(days);
         String reminderDeadline = upperLimit.getEventJavaDate().toString();
-        Predicate<Object> lowerPredicate = new Predicate<>(lowerLimit, SMALLER_THAN);
-        Predicate<Object> upperPredicate = new Predicate<>(upperLimit, GREATER_THAN);
+
+        long startOfToday = today.getEpochDay() * EventDate.MINUTES_PER_DAY;
+        long endOfLastDay = (upperLimit.getEpochDay() + 1) * EventDate.MINUTES_PER_DAY;
+        int eventNo = getIndexOfFirstEventFrom(startOfToday);
+        String filteredEvents = "";
+        for (Event currEvent : getEventsStartingBetween(startOfToday, endOfLastDay)) {
+            filteredEvents += (++eventNo) + ". " + currEvent.toString() + "\n";
+        }
         return "The time now is " + systemDateAndTime + ".\n"
                 + "Here is a list of events you need to complete in the next " + days + " day(s) (by "
-                + reminderDeadline + "):\n" + filteredListTwoPredicates(lowerPredicate, upperPredicate);
+                + reminderDeadline + "):\n" + filteredEvents;
     }
 
     //@@author
@@ -371,6 +1125,16 @@ public class EventList {
      * Used to reinstate deleted event in case of failure to reschedule.
      */
     public void undoDeletionOfEvent(Event event) {
+        int position = getPositionOfFirstIndividualEventFrom(event.getStartDate().getEpochMinute() + 1);
+        reinstateEvent(position, event);
+        recordChange(new EventChange(EventChange.ADD, false, EventChange.NO_POSITION, position,
+                event.toStringForFile()));
+    }
+
+    /**
+     * Reinstates a deleted event at the given index without checking for clashes or recording the change.
+     */
+    private void reinstateEvent(int eventIndex, Event event) {
         try {
             if (event.getType() == 'C') {
                 this.budgeting.updateMonthlyCost((Concert) event);
@@ -378,28 +1142,291 @@ public class EventList {
         } catch (CostExceedsBudgetException e) {
             //ignore exception, will never happen
         }
-        eventArrayList.add(event);
+        eventArrayList.add(eventIndex, event);
+        indexForClashes(event);
+        searchIndex.update(event);
+    }
+
+    //@@author
+
+    /**
+     * Adds a goal to an event in the list.
+     *
+     * @param eventIndex Index of the event.
+     * @param goal       Goal object to be added.
+     */
+    public void addGoal(int eventIndex, Goal goal) {
+        Event event = changeEventDetails(eventIndex, changedEvent -> changedEvent.addGoal(goal));
+        searchIndex.update(event);
+        recordDetailChange(new EventDetailChange(event, EventDetailChange.GOAL, EventChange.ADD,
+                event.getGoalList().size() - 1, EventDetailChange.getValues(goal)));
+    }
+
+    /**
+     * Removes a goal from an event in the list.
+     *
+     * @param eventIndex Index of the event.
+     * @param goalIndex  Index of the goal to be removed.
+     */
+    public void removeGoal(int eventIndex, int goalIndex) {
+        Event event = changeEventDetails(eventIndex, changedEvent -> changedEvent.removeGoal(goalIndex));
+        searchIndex.update(event);
+        recordDetailChange(new EventDetailChange(event, EventDetailChange.GOAL, EventChange.DELETE, goalIndex));
+    }
+
+    /**
+     * Replaces a goal of an event in the list.
+     *
+     * @param eventIndex Index of the event.
+     * @param goal       Goal object replacing the old goal.
+     * @param goalIndex  Index of the goal to be replaced.
+     */
+    public void editGoal(int eventIndex, Goal goal, int goalIndex) {
+        Event event = changeEventDetails(eventIndex, changedEvent -> changedEvent.editGoalList(goal, goalIndex));
+        searchIndex.update(event);
+        recordDetailChange(new EventDetailChange(event, EventDetailChange.GOAL, EventChange.EDIT, goalIndex,
+                EventDetailChange.getValues(goal)));
+    }
+
+    /**
+     * Sets a goal of an event in the list as achieved.
+     *
+     * @param eventIndex Index of the event.
+     * @param goalIndex  Index of the goal achieved.
+     */
+    public void setGoalAchieved(int eventIndex, int goalIndex) {
+        Event event = changeEventDetails(eventIndex, changedEvent -> changedEvent.updateGoalAchieved(goalIndex));
+        recordDetailChange(new EventDetailChange(event, EventDetailChange.GOAL, EventChange.EDIT, goalIndex,
+                EventDetailChange.getValues(event.getGoalObject(goalIndex))));
+    }
+
+    /**
+     * Adds a contact to an event in the list.
+     *
+     * @param eventIndex Index of the event.
+     * @param contact    Contact object to be added.
+     */
+    public void addContact(int eventIndex, Contact contact) {
+        Event event = changeEventDetails(eventIndex, changedEvent -> changedEvent.addContact(contact));
+        searchIndex.update(event);
+        recordDetailChange(new EventDetailChange(event, EventDetailChange.CONTACT, EventChange.ADD,
+                event.getContactList().size() - 1, EventDetailChange.getValues(contact)));
+    }
+
+    /**
+     * Removes a contact from an event in the list.
+     *
+     * @param eventIndex   Index of the event.
+     * @param contactIndex Index of the contact to be removed.
+     */
+    public void removeContact(int eventIndex, int contactIndex) {
+        Event event = changeEventDetails(eventIndex, changedEvent -> changedEvent.removeContact(contactIndex));
+        searchIndex.update(event);
+        recordDetailChange(new EventDetailChange(event, EventDetailChange.CONTACT, EventChange.DELETE,
+                contactIndex));
+    }
+
+    /**
+     * Edits a contact of an event in the list.
+     *
+     * @param eventIndex   Index of the event.
+     * @param contactIndex Index of the contact to be edited.
+     * @param editType     Character signifying what is to be edited (N for name, E for email, P for phone number).
+     * @param newContact   New name, email or phone number.
+     */
+    public void editContact(int eventIndex, int contactIndex, char editType, String newContact) {
+        Event event = changeEventDetails(eventIndex,
+                changedEvent -> changedEvent.editContact(contactIndex, editType, newContact));
+        searchIndex.update(event);
+        recordDetailChange(new EventDetailChange(event, EventDetailChange.CONTACT, EventChange.EDIT, contactIndex,
+                EventDetailChange.getValues(event.getContactList().get(contactIndex))));
+    }
+
+    /**
+     * Adds an item to the checklist of an event in the list.
+     *
+     * @param eventIndex Index of the event.
+     * @param newItem    Item to be added.
+     */
+    public void addChecklistItem(int eventIndex, String newItem) {
+        Event event = changeEventDetails(eventIndex, changedEvent -> changedEvent.addChecklist(newItem));
+        searchIndex.update(event);
+        recordDetailChange(new EventDetailChange(event, EventDetailChange.CHECKLIST, EventChange.ADD,
+                event.getChecklist().size() - 1, newItem));
+    }
+
+    /**
+     * Edits an item in the checklist of an event in the list.
+     *
+     * @param eventIndex Index of the event.
+     * @param itemIndex  Index of the item to be edited.
+     * @param newItem    New content of the item.
+     */
+    public void editChecklistItem(int eventIndex, int itemIndex, String newItem) {
+        Event event = changeEventDetails(eventIndex, changedEvent -> changedEvent.editChecklist(itemIndex, newItem));
+        searchIndex.update(event);
+        recordDetailChange(new EventDetailChange(event, EventDetailChange.CHECKLIST, EventChange.EDIT, itemIndex,
+                newItem));
+    }
+
+    /**
+     * Deletes an item from the checklist of an event in the list.
+     *
+     * @param eventIndex Index of the event.
+     * @param itemIndex  Index of the item to be deleted.
+     */
+    public void deleteChecklistItem(int eventIndex, int itemIndex) {
+        Event event = changeEventDetails(eventIndex, changedEvent -> changedEvent.deleteChecklist(itemIndex));
+        searchIndex.update(event);
+        recordDetailChange(new EventDetailChange(event, EventDetailChange.CHECKLIST, EventChange.DELETE,
+                itemIndex));
+    }
+
+    /**
+     * Sets how the goals, contacts and checklist saved for an individual event of the list are read. They are
+     * read the first time they are used, or when the find command is first used.
+     *
+     * @param event              individual event in the list
+     * @param savedDetailsReader adds the saved goals, contacts and checklist items to the event
+     */
+    public void setSavedDetailsReader(Event event, Consumer<Event> savedDetailsReader) {
+        event.setSavedDetailsReader(savedDetailsReader);
+        eventsWithUnreadDetails.add(event);
+        isSearchIndexComplete = false;
     }
 
     public Budgeting getBudgeting() {
         return budgeting;
     }
 
+    /**
+     * Records a change to the list, to be written to the save file on the next save.
+     */
+    private void recordChange(EventChange change) {
+        pendingChanges.add(change);
+        modificationCount++;
+    }
+
+    /**
+     * Applies a change read back from the save file journal, without checking for clashes or recording it again.
+     * The old event or series is removed from its position and the new one added at its position, so the list
+     * ends up in the same order as when the change was made, even among events with identical lines.
+     *
+     * @param change change in the order it was made
+     * @return false if the change does not fit the list (e.g. a position past its end), leaving the list unchanged
+     */
+    public boolean replayChange(EventChange change) {
+        ArrayList<Event> newEvents = new ArrayList<>();
+        ArrayList<RecurringSeries> newSeries = new ArrayList<>();
+        if (change.getNewLine() != null) {
+            parseRecord(change.getNewLine(), newEvents, newSeries);
+        }
+        int oldPosition = change.getOldPosition();
+        int newPosition = change.getNewPosition();
+        boolean isRemoved = oldPosition != EventChange.NO_POSITION;
+        boolean isAdded = newPosition != EventChange.NO_POSITION;
+        int size = change.isSeriesChange() ? recurringSeriesList.size() : eventArrayList.size();
+        int sizeAfterRemoval = isRemoved ? size - 1 : size;
+        if (oldPosition < EventChange.NO_POSITION || oldPosition >= size
+                || newPosition < EventChange.NO_POSITION || newPosition > sizeAfterRemoval
+                || isAdded != !(change.isSeriesChange() ? newSeries : newEvents).isEmpty()) {
+            return false;
+        }
+
+        if (change.isSeriesChange()) {
+            if (isRemoved) {
+                searchIndex.remove(recurringSeriesList.remove(oldPosition));
+            }
+            if (isAdded) {
+                recurringSeriesList.add(newPosition, newSeries.get(0));
+                searchIndex.update(newSeries.get(0));
+            }
+        } else {
+            if (isRemoved) {
+                removeEvent(oldPosition);
+            }
+            if (isAdded) {
+                reinstateEvent(newPosition, newEvents.get(0));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records a change to the goals, contacts or checklist of an event, to be saved on the next save.
+     */
+    private void recordDetailChange(EventDetailChange change) {
+        pendingDetailChanges.add(change);
+        modificationCount++;
+    }
+
+    /**
+     * Records the new save file line of an event, which identifies the goals, contacts and checklist saved for
+     * it.
+     */
+    private void recordLineChange(Event event) {
+        recordDetailChange(new EventDetailChange(event, EventDetailChange.SAVE_FILE_LINE, EventChange.EDIT, 0,
+                event.toStringForFile()));
+    }
+
+    /**
+     * Gets the number of modifications made so far. If this number has not changed after a command,
+     * the command did not modify the list or its events, so there is nothing to sort or save.
+     */
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Gets the number of events scanned by queries on the list so far, e.g. the events listed, found, or looked
+     * at while finding free days and slots.
+     */
+    public long getNumEventsScanned() {
+        return numEventsScanned;
+    }
+
+    /**
+     * Retrieves all changes made since the last call, clearing them from the list. Used by Storage
+     * to append the changes to the save file journal.
+     *
+     * @return list of changes in the order they were made
+     */
+    public ArrayList<EventChange> takePendingChanges() {
+        ArrayList<EventChange> changes = pendingChanges;
+        pendingChanges = new ArrayList<>();
+        return changes;
+    }
+
+    /**
+     * Retrieves all changes made to goals, contacts and checklists since the last call, clearing them from
+     * the list. Used by Storage to append the changes to the details log.
+     *
+     * @return list of changes in the order they were made
+     */
+    public ArrayList<EventDetailChange> takePendingDetailChanges() {
+        ArrayList<EventDetailChange> changes = pendingDetailChanges;
+        pendingDetailChanges = new ArrayList<>();
+        return changes;
+    }
+
     //@@author yenpeichih
 
     /**
-     * Compares the dates of each event with current date.
+     * Compares the dates of each event with current date. Events still in the archive are skipped without
+     * being read: the details log reads every event with saved goals from the archive when the list is loaded,
+     * and only defers reading the goals themselves until getGoalList is first used, so an event that has not
+     * been read has no goals.
      */
     public void findNextEventAndSetBoolean(Date currentDate) {
         gotPastUnachieved = false;
-        for (int i = 0; i < eventArrayList.size(); i += 1) {
-            if (this.getEvent(i).getStartDate().getEventJavaDate().compareTo(currentDate) <= 0) {
-                currentDateIndex = i + 1;
-            }
-        }
+        currentDateIndex = getIndexOfFirstEventFrom(new EventDate(currentDate).getEpochMinute() + 1);
+        int numPastIndividualEvents = countIndividualEventsBefore(currentDateIndex);
         if (currentDateIndex > 0) {
-            for (int i = 0; i < currentDateIndex; i += 1) {
-                Event eventToCheck = this.getEvent(i);
+            for (int i = 0; i < numPastIndividualEvents; i += 1) { //occurrences of recurring series have no goals
+                Event eventToCheck = eventArrayList.getIfRead(i);
+                if (eventToCheck == null) {
+                    continue;
+                }
                 for (int j = 0; j < eventToCheck.getGoalList().size(); j += 1) {
                     if (!eventToCheck.getGoalObject(j).getBooleanStatus()) {
                         gotPastUnachieved = true;
@@ -417,12 +1444,16 @@ public class EventList {
         String overUnachievedGoalsList = "\n" + "Below lists all the unachieved goal for past events. "
                 + "Please be reminded to add them to the future events." + "\n";
         if (gotPastUnachieved) {
-            for (int j = 0; j < currentDateIndex; j += 1) {
-                Event eventToCheck = this.getEvent(j);
+            int numPastIndividualEvents = countIndividualEventsBefore(currentDateIndex);
+            for (int j = 0; j < numPastIndividualEvents; j += 1) {
+                Event eventToCheck = eventArrayList.getIfRead(j);
+                if (eventToCheck == null) {
+                    continue;
+                }
                 for (int k = 0; k < eventToCheck.getGoalList().size(); k += 1) {
                     if (!eventToCheck.getGoalObject(k).getBooleanStatus()) {
                         Goal unachievedGoal = eventToCheck.getGoalObject(k);
-                        int eventListNum = j + 1;
+                        int eventListNum = getIndexOfIndividualEvent(j) + 1;
                         int goalListNum = k + 1;
                         overUnachievedGoalsList += "Event " + eventListNum + ": " + eventToCheck.toString() + " ---"
                                 + " Goal " + goalListNum + ": " + unachievedGoal.getGoal() + "\n";
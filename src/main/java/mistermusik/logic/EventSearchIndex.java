@@ -0,0 +1,179 @@
+package mistermusik.logic;
+
+import mistermusik.commons.Contact;
+import mistermusik.commons.Goal;
+import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.eventtypes.RecurringSeries;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from words to the events containing them, used by the find command.
+ * Indexes the descriptions, goals, contacts and checklist items of individual events, and the descriptions
+ * of recurring series. Words are compared in lower case, and a search term matches any word it is a prefix of.
+ */
+public class EventSearchIndex {
+    /**
+     * Events and series containing each word, with the number of times the word appears in them.
+     */
+    private TreeMap<String, IdentityHashMap<Object, Integer>> postings = new TreeMap<>();
+
+    /**
+     * Words currently indexed for each event or series, used to remove them when it changes.
+     */
+    private IdentityHashMap<Object, ArrayList<String>> wordsByItem = new IdentityHashMap<>();
+
+    /**
+     * Indexes an event, replacing the words indexed for it before.
+     *
+     * @param event Event to be indexed
+     */
+    public void update(Event event) {
+        StringBuilder text = new StringBuilder(event.getDescription());
+        for (Goal goal : event.getGoalList()) {
+            text.append(' ').append(goal.getGoal());
+        }
+        for (Contact contact : event.getContactList()) {
+            text.append(' ').append(contact.getName()).append(' ').append(contact.getEmail())
+                    .append(' ').append(contact.getPhoneNo());
+        }
+        for (String item : event.getChecklist()) {
+            text.append(' ').append(item);
+        }
+        updateItem(event, text.toString());
+    }
+
+    /**
+     * Indexes a recurring series by its description, replacing the words indexed for it before.
+     *
+     * @param series RecurringSeries to be indexed
+     */
+    public void update(RecurringSeries series) {
+        updateItem(series, series.getDescription());
+    }
+
+    /**
+     * Removes an event or series from the index. Does nothing if it is not indexed.
+     *
+     * @param item Event or RecurringSeries to be removed
+     */
+    public void remove(Object item) {
+        ArrayList<String> words = wordsByItem.remove(item);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            IdentityHashMap<Object, Integer> itemsWithWord = postings.get(word);
+            int timesFound = itemsWithWord.get(item);
+            if (timesFound > 1) {
+                itemsWithWord.put(item, timesFound - 1);
+            } else if (itemsWithWord.size() > 1) {
+                itemsWithWord.remove(item);
+            } else {
+                postings.remove(word);
+            }
+        }
+    }
+
+    private void updateItem(Object item, String text) {
+        remove(item);
+        ArrayList<String> words = splitIntoWords(text);
+        for (String word : words) {
+            postings.computeIfAbsent(word, newWord -> new IdentityHashMap<>()).merge(item, 1, Integer::sum);
+        }
+        wordsByItem.put(item, words);
+    }
+
+    /**
+     * Finds all events and series containing, for every term of the query, a word starting with that term.
+     *
+     * @param query search terms separated by spaces or punctuation
+     * @return set of matching Event and RecurringSeries objects, empty if the query has no terms
+     */
+    public Set<Object> search(String query) {
+        Set<Object> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayList<String> terms = splitIntoWords(query);
+        if (terms.isEmpty()) {
+            return matches;
+        }
+
+        //start from the term matching the fewest words, then check the other terms word by word
+        String rarestTerm = terms.get(0);
+        int rarestTermSize = Integer.MAX_VALUE;
+        for (String term : terms) {
+            int size = 0;
+            for (IdentityHashMap<Object, Integer> itemsWithWord : getWordsStartingWith(term).values()) {
+                size += itemsWithWord.size();
+            }
+            if (size < rarestTermSize) {
+                rarestTerm = term;
+                rarestTermSize = size;
+            }
+        }
+        for (IdentityHashMap<Object, Integer> itemsWithWord : getWordsStartingWith(rarestTerm).values()) {
+            for (Object item : itemsWithWord.keySet()) {
+                if (containsAllTerms(item, terms)) {
+                    matches.add(item);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private SortedMap<String, IdentityHashMap<Object, Integer>> getWordsStartingWith(String prefix) {
+        return postings.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    private boolean containsAllTerms(Object item, ArrayList<String> terms) {
+        for (String term : terms) {
+            boolean isFound = false;
+            for (String word : wordsByItem.get(item)) {
+                if (word.startsWith(term)) {
+                    isFound = true;
+                    break;
+                }
+            }
+            if (!isFound) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits text into lower case words made of letters and digits.
+     */
+    private static ArrayList<String> splitIntoWords(String text) {
+        ArrayList<String> words = new ArrayList<>();
+        int wordStart = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordCharacter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordCharacter && wordStart < 0) {
+                wordStart = i;
+            } else if (!isWordCharacter && wordStart >= 0) {
+                words.add(text.substring(wordStart, i).toLowerCase());
+                wordStart = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Gets number of words indexed.
+     */
+    public int getNumWords() {
+        return postings.size();
+    }
+
+    /**
+     * Gets number of events and series indexed.
+     */
+    public int size() {
+        return wordsByItem.size();
+    }
+}
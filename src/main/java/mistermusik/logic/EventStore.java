@@ -0,0 +1,278 @@
+package mistermusik.logic;
+
+import mistermusik.commons.events.eventtypes.Event;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * List of individual events sorted by start, which may be backed by an EventArchive. Events of the archive are
+ * only read into Event objects when they are first got from the list, and are then kept, so that each event
+ * is always the same object. Until then, the list only holds the number of each record, so the heap used
+ * grows with the events touched rather than with the size of the archive.
+ */
+public class EventStore extends AbstractList<Event> implements RandomAccess {
+    /**
+     * Record number of positions holding events that are not from the archive.
+     */
+    private static final int NOT_ARCHIVED = -1;
+
+    private EventArchive archive;
+
+    /**
+     * Event at each position, null for records of the archive not read yet.
+     */
+    private Event[] events;
+
+    /**
+     * Record number of the event at each position, null if there is no archive.
+     */
+    private int[] records;
+
+    /**
+     * Records of the archive that are no longer in the list.
+     */
+    private BitSet removedRecords;
+
+    private int size;
+
+    /**
+     * Creates a list holding events already read.
+     *
+     * @param events events sorted by start
+     */
+    public EventStore(List<Event> events) {
+        this.events = events.toArray(new Event[Math.max(10, events.size())]);
+        this.size = events.size();
+    }
+
+    /**
+     * Creates a list holding the records of an archive, without reading any of them.
+     *
+     * @param archive        archive holding the events sorted by start
+     * @param removedRecords records that are left out of the list
+     */
+    public EventStore(EventArchive archive, BitSet removedRecords) {
+        this.archive = archive;
+        this.removedRecords = (BitSet) removedRecords.clone();
+        int numRecords = archive.getNumRecords();
+        this.records = new int[Math.max(10, numRecords - removedRecords.cardinality())];
+        this.events = new Event[records.length];
+        for (int record = removedRecords.nextClearBit(0); record < numRecords;
+             record = removedRecords.nextClearBit(record + 1)) {
+            records[size++] = record;
+        }
+    }
+
+    /**
+     * Copies a list, with a copy of each event read, so that the copy can be written to a snapshot on another
+     * thread while the list and its events are changed. Records of the archive not read yet are not read, and
+     * the copy reads them from the same archive.
+     *
+     * @return copy of the list, from which events should only be read
+     */
+    public EventStore copy() {
+        EventStore copy = new EventStore(new ArrayList<>());
+        copy.archive = archive;
+        copy.events = new Event[Math.max(10, size)];
+        for (int position = 0; position < size; position++) {
+            copy.events[position] = (events[position] == null) ? null : events[position].copy();
+        }
+        copy.records = (records == null) ? null : Arrays.copyOf(records, copy.events.length);
+        copy.removedRecords = (removedRecords == null) ? null : (BitSet) removedRecords.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the event at a position, reading it from the archive the first time.
+     */
+    @Override
+    public Event get(int position) {
+        checkPosition(position);
+        if (events[position] == null) {
+            events[position] = archive.readEvent(records[position]);
+        }
+        return events[position];
+    }
+
+    /**
+     * Gets the event at a position without keeping it if it has to be read from the archive, e.g. to write
+     * every event to a new snapshot.
+     */
+    public Event read(int position) {
+        checkPosition(position);
+        return (events[position] != null) ? events[position] : archive.readEvent(records[position]);
+    }
+
+    /**
+     * Gets the event at a position if it has been read, null if it is still only in the archive.
+     */
+    public Event getIfRead(int position) {
+        checkPosition(position);
+        return events[position];
+    }
+
+    /**
+     * Gets the start of the event at a position in epoch-minutes, without reading it from the archive.
+     */
+    public long getStart(int position) {
+        checkPosition(position);
+        if (events[position] != null) {
+            return events[position].getStartDate().getEpochMinute();
+        }
+        return archive.getStart(records[position]);
+    }
+
+    /**
+     * Gets the character signifying the type of the event at a position, without reading it from the archive.
+     */
+    public char getType(int position) {
+        checkPosition(position);
+        return (events[position] != null) ? events[position].getType() : archive.getType(records[position]);
+    }
+
+    /**
+     * Gets the archive backing the list, null if there is none.
+     */
+    public EventArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Gets the number of the archive record at a position, -1 if the event there is not from the archive.
+     */
+    public int getRecord(int position) {
+        checkPosition(position);
+        return (records == null) ? NOT_ARCHIVED : records[position];
+    }
+
+    /**
+     * Gets the position of the first event starting at or after the given time, using binary search.
+     */
+    public int getPositionOfFirstFrom(long epochMinute) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getStart(mid) < epochMinute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the events from the archive still in the list that clash with the time span [start, end). ToDos
+     * and events without valid dates never clash. The events found are read from the archive.
+     *
+     * @param start start of the time span in epoch-minutes
+     * @param end   end of the time span in epoch-minutes
+     * @return list of clashing events, empty if there are none or there is no archive
+     */
+    public ArrayList<Event> getClashingArchivedEvents(long start, long end) {
+        ArrayList<Event> clashingEvents = new ArrayList<>();
+        if (archive == null) {
+            return clashingEvents;
+        }
+        ArrayList<Integer> clashingRecords = new ArrayList<>();
+        archive.findClashingRecords(start, end, clashingRecords);
+        for (int record : clashingRecords) {
+            if (!removedRecords.get(record)) {
+                clashingEvents.add(get(getPositionOfRecord(record)));
+            }
+        }
+        return clashingEvents;
+    }
+
+    /**
+     * Gets the position of a record that is in the list, searching among the events with the same start.
+     */
+    private int getPositionOfRecord(int record) {
+        long start = archive.getStart(record);
+        for (int position = getPositionOfFirstFrom(start); position < size; position++) {
+            if (records[position] == record) {
+                return position;
+            }
+        }
+        throw new IllegalStateException("Record " + record + " is not in the list");
+    }
+
+    /**
+     * Gets all events of a type, reading only the records of that type from the archive.
+     *
+     * @param type character signifying the type of events
+     * @return events of the type in order of start
+     */
+    public ArrayList<Event> getEventsOfType(char type) {
+        ArrayList<Event> eventsOfType = new ArrayList<>();
+        for (int position = 0; position < size; position++) {
+            if (getType(position) == type) {
+                eventsOfType.add(get(position));
+            }
+        }
+        return eventsOfType;
+    }
+
+    /**
+     * Inserts an event at a position. The event is not from the archive, even if it was removed from it before.
+     */
+    @Override
+    public void add(int position, Event event) {
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+        if (size == events.length) {
+            events = Arrays.copyOf(events, size + (size >> 1) + 1);
+            if (records != null) {
+                records = Arrays.copyOf(records, events.length);
+            }
+        }
+        System.arraycopy(events, position, events, position + 1, size - position);
+        events[position] = event;
+        if (records != null) {
+            System.arraycopy(records, position, records, position + 1, size - position);
+            records[position] = NOT_ARCHIVED;
+        }
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Removes the event at a position, reading it from the archive if it was not read yet.
+     *
+     * @return event removed
+     */
+    @Override
+    public Event remove(int position) {
+        Event removedEvent = get(position);
+        System.arraycopy(events, position + 1, events, position, size - position - 1);
+        events[size - 1] = null;
+        if (records != null) {
+            if (records[position] != NOT_ARCHIVED) {
+                removedRecords.set(records[position]);
+            }
+            System.arraycopy(records, position + 1, records, position, size - position - 1);
+        }
+        size--;
+        modCount++;
+        return removedEvent;
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+        }
+    }
+}
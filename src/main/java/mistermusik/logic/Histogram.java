@@ -0,0 +1,88 @@
+package mistermusik.logic;
+
+/**
+ * Histogram of non-negative values, e.g. latencies in nanoseconds, with buckets growing with the values like
+ * HdrHistogram. Values below 128 have a bucket each, and larger values share 64 buckets per power of two, so a
+ * value read from the histogram is at most 1/64 above the value recorded. Recording a value only increments
+ * counters, so it allocates nothing.
+ */
+public class Histogram {
+    /**
+     * Number of bits kept of each value, the others are dropped to find its bucket.
+     */
+    private static final int PRECISION_BITS = 7;
+
+    private static final int BUCKETS_PER_POWER_OF_TWO = 1 << (PRECISION_BITS - 1);
+
+    private static final int NUM_BUCKETS = (Long.SIZE - PRECISION_BITS + 1) * BUCKETS_PER_POWER_OF_TWO;
+
+    private long[] counts = new long[NUM_BUCKETS];
+
+    private long count = 0;
+
+    private long total = 0;
+
+    private long max = 0;
+
+    /**
+     * Records a value, counting negative values as 0.
+     */
+    public void record(long value) {
+        long recordedValue = Math.max(0, value);
+        counts[getBucket(recordedValue)]++;
+        count++;
+        total += recordedValue;
+        max = Math.max(max, recordedValue);
+    }
+
+    /**
+     * Gets the bucket of a value: the value itself below 128, then 64 buckets for each number of bits dropped.
+     */
+    private static int getBucket(long value) {
+        int droppedBits = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - PRECISION_BITS);
+        return (droppedBits * BUCKETS_PER_POWER_OF_TWO) + (int) (value >>> droppedBits);
+    }
+
+    /**
+     * Gets the highest value counted in a bucket.
+     */
+    private static long getHighestValue(int bucket) {
+        int droppedBits = Math.max(0, bucket / BUCKETS_PER_POWER_OF_TWO - 1);
+        long lowestValue = (long) (bucket - droppedBits * BUCKETS_PER_POWER_OF_TWO) << droppedBits;
+        return lowestValue + (1L << droppedBits) - 1;
+    }
+
+    /**
+     * Gets the value that the given percentage of the values recorded are at or below, e.g. 50 for the median.
+     *
+     * @param percentile percentage between 0 and 100
+     * @return highest value of the bucket holding the percentile, at most the largest value recorded, 0 if no
+     *         values were recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long countSoFar = 0;
+        for (int bucket = 0; bucket < NUM_BUCKETS && count > 0; bucket++) {
+            countSoFar += counts[bucket];
+            if (countSoFar >= countAtPercentile) {
+                return Math.min(getHighestValue(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets the mean of the values recorded, 0 if none were.
+     */
+    public double getMean() {
+        return (count == 0) ? 0 : (double) total / count;
+    }
+}
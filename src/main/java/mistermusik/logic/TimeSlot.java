@@ -0,0 +1,52 @@
+package mistermusik.logic;
+
+import mistermusik.commons.events.formatting.EventDate;
+
+/**
+ * Span of time [start, end) with no events in it, found by EventList when looking for free time.
+ */
+public class TimeSlot {
+    /**
+     * start of the slot in epoch-minutes.
+     */
+    private long start;
+
+    /**
+     * end of the slot in epoch-minutes.
+     */
+    private long end;
+
+    /**
+     * Creates a new slot.
+     *
+     * @param start start of the slot in epoch-minutes
+     * @param end   end of the slot in epoch-minutes
+     */
+    public TimeSlot(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Gets the length of the slot in minutes.
+     */
+    public long getLength() {
+        return end - start;
+    }
+
+    /**
+     * Returns the slot for the user, such as "Tue, 03 Dec 2019, 09:00 to Tue, 03 Dec 2019, 12:00".
+     */
+    @Override
+    public String toString() {
+        return new EventDate(start).getFormattedDateString() + " to " + new EventDate(end).getFormattedDateString();
+    }
+}
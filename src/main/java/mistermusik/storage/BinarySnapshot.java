@@ -0,0 +1,384 @@
+package mistermusik.storage;
+
+import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.eventtypes.RecurringSeries;
+import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
+import mistermusik.commons.events.eventtypes.eventsubclasses.ToDo;
+import mistermusik.commons.events.eventtypes.eventsubclasses.assessmentsubclasses.Exam;
+import mistermusik.commons.events.eventtypes.eventsubclasses.assessmentsubclasses.Recital;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Lesson;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Practice;
+import mistermusik.commons.events.formatting.EventDate;
+import mistermusik.logic.EventStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary form of the snapshot in the storage file, which is read without parsing any date strings.
+ * The file starts with a header: "MMSB", a version byte, and the CRC-32 of the rest of the file (4 bytes,
+ * big-endian), which also serves as the checksum the journal is matched against. The rest of the file holds:
+ * a table of all descriptions (and dates that are not valid dates), each as its UTF-8 length and bytes, then
+ * the individual events in order of start, then the recurring series. Numbers are written as LEB128 varints,
+ * zigzag-encoded when they may be negative, and each start date is written as the change from the start
+ * before it, so most dates take two or three bytes.
+ */
+class BinarySnapshot {
+    private static final byte[] MAGIC = {'M', 'M', 'S', 'B'};
+    private static final byte VERSION = 1;
+
+    /**
+     * Kinds of dates, stored in the lowest 2 bits of each date written.
+     */
+    private static final int DATE_AND_TIME = 0;
+    private static final int DATE_ONLY = 1;
+    private static final int INVALID_DATE = 2;
+
+    /**
+     * Bit set in the type byte of events and series that are done.
+     */
+    private static final int DONE = 0x80;
+
+    /**
+     * Events and series read from a binary snapshot.
+     */
+    static class Content {
+        private ArrayList<Event> events = new ArrayList<>();
+        private ArrayList<RecurringSeries> seriesList = new ArrayList<>();
+        private long checksum;
+
+        ArrayList<Event> getEvents() {
+            return events;
+        }
+
+        ArrayList<RecurringSeries> getSeriesList() {
+            return seriesList;
+        }
+
+        long getChecksum() {
+            return checksum;
+        }
+    }
+
+    /**
+     * Encodes events and series into a binary snapshot. Events still in an archive are read without being kept.
+     *
+     * @param events     individual events in order of start
+     * @param seriesList recurring series
+     * @return content of the snapshot file
+     */
+    static byte[] write(EventStore events, ArrayList<RecurringSeries> seriesList) {
+        HashMap<String, Integer> stringIndexes = new HashMap<>();
+        ArrayList<String> strings = new ArrayList<>();
+        VarintWriter body = new VarintWriter();
+
+        body.writeUnsigned(events.size());
+        long previousStart = 0;
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.read(i);
+            body.writeByte(event.getType() | (event.getDoneSymbol().equals("V") ? DONE : 0));
+            body.writeUnsigned(getStringIndex(event.getDescription(), stringIndexes, strings));
+            EventDate start = event.getStartDate();
+            writeDate(body, start, previousStart, stringIndexes, strings);
+            if (start.isValidDate()) {
+                previousStart = start.getEpochMinute();
+            }
+            if (event.getType() != 'T') { //a rescheduled ToDo has an end, which is not saved
+                writeDate(body, event.getEndDate(), previousStart, stringIndexes, strings);
+            }
+            if (event instanceof Concert) {
+                body.writeSigned(((Concert) event).getCost());
+            }
+        }
+
+        body.writeUnsigned(seriesList.size());
+        for (RecurringSeries series : seriesList) {
+            body.writeByte(series.getType() | (series.isDone() ? DONE : 0));
+            body.writeUnsigned(getStringIndex(series.getDescription(), stringIndexes, strings));
+            body.writeSigned(series.getStart(0));
+            body.writeSigned(series.getDuration());
+            body.writeSigned(series.getPeriod());
+            body.writeSigned(series.getCount());
+            body.writeUnsigned(series.getExcludedOccurrences().size());
+            int previousOccurrence = 0;
+            for (int occurrence : series.getExcludedOccurrences()) {
+                body.writeUnsigned(occurrence - previousOccurrence);
+                previousOccurrence = occurrence;
+            }
+        }
+
+        VarintWriter stringTable = new VarintWriter();
+        stringTable.writeUnsigned(strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            stringTable.writeUnsigned(bytes.length);
+            stringTable.writeBytes(bytes, bytes.length);
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(stringTable.bytes, 0, stringTable.length);
+        checksum.update(body.bytes, 0, body.length);
+        VarintWriter snapshot = new VarintWriter();
+        snapshot.writeBytes(MAGIC, MAGIC.length);
+        snapshot.writeByte(VERSION);
+        snapshot.writeBytes(ByteBuffer.allocate(4).putInt((int) checksum.getValue()).array(), 4);
+        snapshot.writeBytes(stringTable.bytes, stringTable.length);
+        snapshot.writeBytes(body.bytes, body.length);
+        return Arrays.copyOf(snapshot.bytes, snapshot.length);
+    }
+
+    /**
+     * Gets the checksum stored in the header of a snapshot.
+     */
+    static long getChecksum(byte[] snapshot) {
+        return ByteBuffer.wrap(snapshot, MAGIC.length + 1, 4).getInt() & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Reads a binary snapshot, loading the whole file at once.
+     *
+     * @param file snapshot file
+     * @return events and series read
+     * @throws IOException if the file cannot be read, is damaged, or is of a version that is not supported
+     */
+    static Content read(File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath())); //not mapped, so it can be replaced
+        try {
+            return read(buffer);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                | NegativeArraySizeException e) {
+            throw new IOException("Damaged snapshot " + file, e);
+        }
+    }
+
+    private static Content read(ByteBuffer buffer) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || buffer.get() != VERSION) {
+            throw new IOException("Not a snapshot of a supported version");
+        }
+        Content content = new Content();
+        content.checksum = buffer.getInt() & 0xFFFFFFFFL;
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate());
+        if (checksum.getValue() != content.checksum) {
+            throw new IOException("Snapshot checksum does not match");
+        }
+
+        String[] strings = new String[(int) readUnsigned(buffer)];
+        byte[] stringBytes = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int length = (int) readUnsigned(buffer);
+            if (length > stringBytes.length) {
+                stringBytes = new byte[Math.max(length, 2 * stringBytes.length)];
+            }
+            buffer.get(stringBytes, 0, length);
+            strings[i] = new String(stringBytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        long numEvents = readUnsigned(buffer);
+        content.events.ensureCapacity((int) Math.min(numEvents, buffer.remaining()));
+        long previousStart = 0;
+        for (long i = 0; i < numEvents; i++) {
+            int typeByte = buffer.get() & 0xFF;
+            boolean isDone = (typeByte & DONE) != 0;
+            char eventType = (char) (typeByte & ~DONE);
+            String description = strings[(int) readUnsigned(buffer)];
+            EventDate start = readDate(buffer, previousStart, strings);
+            if (start.isValidDate()) {
+                previousStart = start.getEpochMinute();
+            }
+            EventDate end = (eventType == 'T') ? null : readDate(buffer, previousStart, strings);
+            int cost = (eventType == 'C') ? (int) readSigned(buffer) : 0;
+            content.events.add(createEvent(eventType, description, isDone, start, end, cost));
+        }
+
+        long numSeries = readUnsigned(buffer);
+        for (long i = 0; i < numSeries; i++) {
+            int typeByte = buffer.get() & 0xFF;
+            String description = strings[(int) readUnsigned(buffer)];
+            long firstStart = readSigned(buffer);
+            long duration = readSigned(buffer);
+            int period = (int) readSigned(buffer);
+            int count = (int) readSigned(buffer);
+            ArrayList<Integer> excludedOccurrences = new ArrayList<>();
+            long numExcluded = readUnsigned(buffer);
+            int occurrence = 0;
+            for (long j = 0; j < numExcluded; j++) {
+                occurrence += (int) readUnsigned(buffer);
+                excludedOccurrences.add(occurrence);
+            }
+            content.seriesList.add(new RecurringSeries((char) (typeByte & ~DONE), description,
+                    (typeByte & DONE) != 0, firstStart, duration, period, count, excludedOccurrences));
+        }
+        return content;
+    }
+
+    /**
+     * Creates an event of the type signified by a character from its fields.
+     *
+     * @param end  end of the event, not used for ToDos
+     * @param cost cost of the event, only used for concerts
+     * @throws IOException if the type is unknown
+     */
+    static Event createEvent(char eventType, String description, boolean isDone, EventDate start, EventDate end,
+                             int cost) throws IOException {
+        switch (eventType) {
+        case 'T':
+            return new ToDo(description, isDone, start);
+        case 'C':
+            return new Concert(description, isDone, start, end, cost);
+        case 'L':
+            return new Lesson(description, isDone, start, end);
+        case 'P':
+            return new Practice(description, isDone, start, end);
+        case 'E':
+            return new Exam(description, isDone, start, end);
+        case 'R':
+            return new Recital(description, isDone, start, end);
+        default:
+            throw new IOException("Unknown event type " + eventType);
+        }
+    }
+
+    /**
+     * Gets the line of the save file for an event as it is read back from a binary snapshot, in which dates
+     * are formatted from their epoch-minutes and ToDos have no end.
+     */
+    static String getLineAsRead(Event event) {
+        EventDate end = (event.getType() == 'T') ? null : copyDate(event.getEndDate());
+        int cost = (event instanceof Concert) ? ((Concert) event).getCost() : 0;
+        try {
+            return createEvent(event.getType(), event.getDescription(), event.getDoneSymbol().equals("V"),
+                    copyDate(event.getStartDate()), end, cost).toStringForFile();
+        } catch (IOException e) {
+            return event.toStringForFile();
+        }
+    }
+
+    private static EventDate copyDate(EventDate date) {
+        if (!date.isValidDate()) {
+            return new EventDate(date.getUserInputDateString());
+        }
+        return new EventDate(date.getEpochMinute(), date.hasTime());
+    }
+
+    private static int getStringIndex(String string, HashMap<String, Integer> stringIndexes,
+                                      ArrayList<String> strings) {
+        Integer index = stringIndexes.get(string);
+        if (index == null) {
+            index = strings.size();
+            stringIndexes.put(string, index);
+            strings.add(string);
+        }
+        return index;
+    }
+
+    /**
+     * Writes a date as the change from a start in minutes (or days for dates without a time), or as the
+     * index of the string the user entered if it is not a valid date.
+     */
+    private static void writeDate(VarintWriter writer, EventDate date, long previousStart,
+                                  HashMap<String, Integer> stringIndexes, ArrayList<String> strings) {
+        if (!date.isValidDate()) {
+            writer.writeSigned(INVALID_DATE);
+            writer.writeUnsigned(getStringIndex(date.getUserInputDateString(), stringIndexes, strings));
+        } else if (date.hasTime()) {
+            writer.writeSigned((date.getEpochMinute() - previousStart) * 4 + DATE_AND_TIME);
+        } else {
+            long previousDay = Math.floorDiv(previousStart, EventDate.MINUTES_PER_DAY);
+            writer.writeSigned((date.getEpochDay() - previousDay) * 4 + DATE_ONLY);
+        }
+    }
+
+    private static EventDate readDate(ByteBuffer buffer, long previousStart, String[] strings) {
+        long value = readSigned(buffer);
+        long change = value >> 2;
+        switch ((int) (value & 3)) {
+        case DATE_AND_TIME:
+            return new EventDate(previousStart + change, true);
+        case DATE_ONLY:
+            long previousDay = Math.floorDiv(previousStart, EventDate.MINUTES_PER_DAY);
+            return new EventDate((previousDay + change) * EventDate.MINUTES_PER_DAY, false);
+        default:
+            return new EventDate(strings[(int) readUnsigned(buffer)]);
+        }
+    }
+
+    static long readUnsigned(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte nextByte = buffer.get();
+            value |= (long) (nextByte & 0x7F) << shift;
+            if (nextByte >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+
+    static long readSigned(ByteBuffer buffer) {
+        long zigzag = readUnsigned(buffer);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Growable byte array that numbers are written to as varints.
+     */
+    static class VarintWriter {
+        private byte[] bytes = new byte[1 << 12];
+        private int length = 0;
+
+        void writeByte(int value) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void writeBytes(byte[] source, int sourceLength) {
+            if (length + sourceLength > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + sourceLength));
+            }
+            System.arraycopy(source, 0, bytes, length, sourceLength);
+            length += sourceLength;
+        }
+
+        void writeUnsigned(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeSigned(long value) {
+            writeUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        /**
+         * Writes a string as the length of its UTF-8 bytes followed by the bytes.
+         */
+        void writeString(String string) {
+            byte[] stringBytes = string.getBytes(StandardCharsets.UTF_8);
+            writeUnsigned(stringBytes.length);
+            writeBytes(stringBytes, stringBytes.length);
+        }
+
+        int getLength() {
+            return length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package mistermusik.storage;
+
+import mistermusik.commons.Contact;
+import mistermusik.commons.Goal;
+import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.logic.EventChange;
+import mistermusik.logic.EventDetailChange;
+import mistermusik.logic.EventList;
+import mistermusik.logic.EventStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Log of the goals, contacts and checklists of individual events, kept next to the storage file whatever the
+ * format of the snapshot. Each change is appended as one record, so saving a new goal never rewrites the event
+ * or its other goals. The log is compacted into the current goals, contacts and checklist of each event once it
+ * has grown to twice the size it had after the last compaction.
+ * Each line is a record with tab-separated fields: the number given to the event when it first had details,
+ * the part of the event and change type characters of the EventDetailChange, the index of the item changed,
+ * then the fields of the new item. Tabs and backslashes in fields are escaped with a backslash. Records of the
+ * save file line of an event tie its number to the event when the log is read, and are written again whenever
+ * the line changes.
+ */
+class EventDetailsLog {
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final char ESCAPE = '\\';
+
+    /**
+     * Minimum number of records before the log is compacted.
+     */
+    private static final int MIN_RECORDS_BEFORE_COMPACTION = 200;
+
+    private File file;
+
+    private SaveFileWriter writer;
+
+    /**
+     * Number given to each event with details in the log.
+     */
+    private IdentityHashMap<Event, Integer> eventNumbers = new IdentityHashMap<>();
+
+    private int nextEventNumber = 0;
+
+    /**
+     * Number of records in the log, and number of records it had after it was last compacted.
+     */
+    private int recordCount = 0;
+    private int compactedRecordCount = 0;
+
+    /**
+     * Flag to check if the log holds all changes made, so that it can be appended to.
+     */
+    private boolean isValid = false;
+
+    /**
+     * Creates a log of the goals, contacts and checklists of events, to be kept in the given file.
+     */
+    EventDetailsLog(File file, SaveFileWriter writer) {
+        this.file = file;
+        this.writer = writer;
+    }
+
+    /**
+     * Makes the next save compact the log, e.g. after a write failed on the background thread.
+     */
+    void invalidate() {
+        isValid = false;
+    }
+
+    /**
+     * Reads the log, finding the event in the list that each number belongs to by the start in its save file
+     * line. The details are not read into the events, each event only gets the records of its own details to
+     * read them from when they are first used. Records of events no longer in the list are left out.
+     *
+     * @param events event list just loaded
+     */
+    void read(EventList events) {
+        eventNumbers.clear();
+        HashMap<Integer, String> lines = new HashMap<>();
+        TreeMap<Integer, ArrayList<String[]>> recordsByNumber = new TreeMap<>();
+        ArrayList<String> records;
+        try {
+            records = Storage.readCompleteLines(file);
+        } catch (IOException e) {
+            records = new ArrayList<>();
+        }
+        for (String record : records) {
+            String[] fields = splitFields(record);
+            int number;
+            try {
+                number = Integer.parseInt(fields[0]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (fields.length < 3 || fields[1].length() != 2) {
+                continue;
+            }
+            nextEventNumber = Math.max(nextEventNumber, number + 1);
+            if (fields[1].charAt(0) != EventDetailChange.SAVE_FILE_LINE) {
+                recordsByNumber.computeIfAbsent(number, key -> new ArrayList<>()).add(fields);
+            } else if (fields[1].charAt(1) == EventChange.DELETE) {
+                lines.remove(number);
+                recordsByNumber.remove(number);
+            } else if (fields.length > 3) {
+                lines.put(number, fields[3]);
+            }
+        }
+        recordCount = records.size();
+
+        compactedRecordCount = 0;
+        for (Map.Entry<Integer, ArrayList<String[]>> entry : recordsByNumber.entrySet()) {
+            String line = lines.get(entry.getKey());
+            Event event = (line == null) ? null : findUnnumberedEvent(events.getIndividualEvents(), line);
+            if (event != null) {
+                ArrayList<String[]> eventRecords = entry.getValue();
+                eventNumbers.put(event, entry.getKey());
+                events.setSavedDetailsReader(event, unreadEvent -> applyRecords(unreadEvent, eventRecords));
+                compactedRecordCount += 1 + eventRecords.size();
+            }
+        }
+        isValid = true;
+    }
+
+    /**
+     * Finds an event with the given save file line that has no number yet, reading only the events with the
+     * start of the line. Lines are compared as they are read back from a binary snapshot, as the event may
+     * have been loaded from one.
+     *
+     * @return event found, null if there is none
+     */
+    private Event findUnnumberedEvent(EventStore individualEvents, String line) {
+        ArrayList<Event> parsedEvents = new ArrayList<>();
+        EventList.parseRecord(line, parsedEvents, new ArrayList<>());
+        if (parsedEvents.isEmpty()) {
+            return null;
+        }
+        long start = parsedEvents.get(0).getStartDate().getEpochMinute();
+        String lineAsRead = BinarySnapshot.getLineAsRead(parsedEvents.get(0));
+        for (int position = individualEvents.getPositionOfFirstFrom(start);
+             position < individualEvents.size() && individualEvents.getStart(position) == start; position++) {
+            Event event = individualEvents.get(position);
+            if (!eventNumbers.containsKey(event) && BinarySnapshot.getLineAsRead(event).equals(lineAsRead)) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Applies the records of the details of an event to it, in the order they were written. Records that
+     * do not fit the details, e.g. left by an older version, are skipped.
+     */
+    private static void applyRecords(Event event, ArrayList<String[]> records) {
+        for (String[] fields : records) {
+            try {
+                applyRecord(event, fields[1].charAt(0), fields[1].charAt(1), Integer.parseInt(fields[2]), fields);
+            } catch (IndexOutOfBoundsException | NumberFormatException e) {
+                //skip the record
+            }
+        }
+    }
+
+    private static void applyRecord(Event event, char part, char changeType, int index, String[] fields) {
+        if (part == EventDetailChange.GOAL) {
+            if (changeType == EventChange.DELETE) {
+                event.removeGoal(index);
+                return;
+            }
+            Goal goal = new Goal(fields[3]);
+            if (fields[4].equals("V")) {
+                goal.setAchieved();
+            }
+            if (changeType == EventChange.ADD) {
+                event.addGoal(goal);
+            } else {
+                event.editGoalList(goal, index);
+            }
+        } else if (part == EventDetailChange.CONTACT) {
+            if (changeType == EventChange.DELETE) {
+                event.removeContact(index);
+            } else if (changeType == EventChange.ADD) {
+                event.addContact(new Contact(fields[3], fields[4], fields[5]));
+            } else {
+                event.getContactList().set(index, new Contact(fields[3], fields[4], fields[5]));
+            }
+        } else if (part == EventDetailChange.CHECKLIST) {
+            if (changeType == EventChange.DELETE) {
+                event.deleteChecklist(index);
+            } else if (changeType == EventChange.ADD) {
+                event.addChecklist(fields[3]);
+            } else {
+                event.editChecklist(index, fields[3]);
+            }
+        }
+    }
+
+    /**
+     * Saves a list of changes, appending them to the log, or compacting the log if it has grown too large or
+     * is missing earlier changes. An event gets a number the first time its details change.
+     *
+     * @param changes changes in the order they were made
+     * @throws IOException if the log cannot be written, in which case it is compacted on the next save
+     */
+    void save(ArrayList<EventDetailChange> changes) throws IOException {
+        StringBuilder records = new StringBuilder();
+        int numRecords = 0;
+        for (EventDetailChange change : changes) {
+            Integer number = eventNumbers.get(change.getEvent());
+            if (change.getPart() == EventDetailChange.SAVE_FILE_LINE) {
+                if (number == null) {
+                    continue; //the event has no details
+                } else if (change.getChangeType() == EventChange.DELETE) {
+                    eventNumbers.remove(change.getEvent());
+                }
+            } else if (number == null) {
+                number = nextEventNumber++;
+                eventNumbers.put(change.getEvent(), number);
+                appendRecord(records, number, EventDetailChange.SAVE_FILE_LINE, EventChange.EDIT, 0,
+                        change.getEvent().toStringForFile());
+                numRecords++;
+            }
+            appendRecord(records, number, change.getPart(), change.getChangeType(), change.getIndex(),
+                    change.getValues());
+            numRecords++;
+        }
+
+        try {
+            if (!isValid || recordCount + numRecords >= Math.max(MIN_RECORDS_BEFORE_COMPACTION,
+                    2 * compactedRecordCount)) {
+                compact();
+            } else if (numRecords > 0) {
+                writer.append(file, records.toString().getBytes());
+                recordCount += numRecords;
+            }
+        } catch (IOException e) {
+            isValid = false;
+            throw e;
+        }
+    }
+
+    /**
+     * Rewrites the log with only the current details of each event that has any, reading the details that
+     * have not been read yet.
+     */
+    private void compact() throws IOException {
+        TreeMap<Integer, Event> eventsByNumber = new TreeMap<>();
+        eventNumbers.forEach((event, number) -> eventsByNumber.put(number, event));
+        StringBuilder records = new StringBuilder();
+        int numRecords = 0;
+        for (Map.Entry<Integer, Event> entry : eventsByNumber.entrySet()) {
+            int number = entry.getKey();
+            Event event = entry.getValue();
+            int numItems = event.getGoalList().size() + event.getContactList().size() + event.getChecklist().size();
+            if (numItems == 0) {
+                eventNumbers.remove(event);
+                continue;
+            }
+            appendRecord(records, number, EventDetailChange.SAVE_FILE_LINE, EventChange.EDIT, 0,
+                    event.toStringForFile());
+            for (int i = 0; i < event.getGoalList().size(); i++) {
+                appendRecord(records, number, EventDetailChange.GOAL, EventChange.ADD, i,
+                        EventDetailChange.getValues(event.getGoalObject(i)));
+            }
+            for (int i = 0; i < event.getContactList().size(); i++) {
+                appendRecord(records, number, EventDetailChange.CONTACT, EventChange.ADD, i,
+                        EventDetailChange.getValues(event.getContactList().get(i)));
+            }
+            for (int i = 0; i < event.getChecklist().size(); i++) {
+                appendRecord(records, number, EventDetailChange.CHECKLIST, EventChange.ADD, i,
+                        event.getChecklist().get(i));
+            }
+            numRecords += 1 + numItems;
+        }
+
+        writer.replace(file, records.toString().getBytes());
+        recordCount = numRecords;
+        compactedRecordCount = numRecords;
+        isValid = true;
+    }
+
+    private static void appendRecord(StringBuilder records, int number, char part, char changeType, int index,
+                                     String... values) {
+        records.append(number).append(FIELD_SEPARATOR).append(part).append(changeType).append(FIELD_SEPARATOR)
+                .append(index);
+        for (String value : values) {
+            appendField(records, value);
+        }
+        records.append('\n');
+    }
+
+    /**
+     * Appends a field to a record after a tab, escaping the tabs and backslashes in it.
+     */
+    static void appendField(StringBuilder record, String value) {
+        record.append(FIELD_SEPARATOR);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == FIELD_SEPARATOR) {
+                record.append(ESCAPE).append('t');
+            } else if (c == ESCAPE) {
+                record.append(ESCAPE).append(ESCAPE);
+            } else {
+                record.append(c);
+            }
+        }
+    }
+
+    /**
+     * Splits a record into its fields, undoing the escaping of tabs and backslashes.
+     */
+    static String[] splitFields(String record) {
+        ArrayList<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (c == FIELD_SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == ESCAPE && i + 1 < record.length()) {
+                i++;
+                field.append(record.charAt(i) == 't' ? FIELD_SEPARATOR : record.charAt(i));
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,152 @@
+package mistermusik.storage;
+
+import mistermusik.commons.events.formatting.EventDate;
+import mistermusik.commons.instruments.Instrument;
+import mistermusik.commons.instruments.InstrumentList;
+import mistermusik.commons.instruments.ServiceInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+/**
+ * Log of the instruments and their services, kept next to the storage file. As instruments and services are
+ * only ever added, every record stays current, and saving only appends the instruments and services added since
+ * the last save, like the journal of the event list. Each line is a record with tab-separated fields escaped as
+ * in the details log: 'I' and the name of a new instrument, or 'S', the number of the instrument, the date and
+ * the description of a new service. The services are grouped by instrument while the log is read, so that each
+ * instrument only holds its own services.
+ */
+class InstrumentLog {
+    private static final String INSTRUMENT = "I";
+    private static final String SERVICE = "S";
+
+    private File file;
+
+    private SaveFileWriter writer;
+
+    /**
+     * Number of instruments in the log, and number of services of each of them.
+     */
+    private int numSavedInstruments = 0;
+    private ArrayList<Integer> numSavedServices = new ArrayList<>();
+
+    /**
+     * Flag to check if the log holds all instruments and services saved, so that it can be appended to.
+     */
+    private boolean isValid = true;
+
+    /**
+     * Creates a log of instruments, to be kept in the given file.
+     */
+    InstrumentLog(File file, SaveFileWriter writer) {
+        this.file = file;
+        this.writer = writer;
+    }
+
+    /**
+     * Makes the next save rewrite the whole log, e.g. after a write failed.
+     */
+    void invalidate() {
+        isValid = false;
+    }
+
+    /**
+     * Reads the instruments and their services from the log. Records that cannot be read are skipped. An
+     * incomplete last record left by an interrupted write is removed from the file, so that the next record
+     * appended is not joined to it.
+     *
+     * @return list of instruments read, empty if there is no log
+     * @throws IOException if the log cannot be read or repaired
+     */
+    InstrumentList read() throws IOException {
+        ArrayList<String> records = Storage.readCompleteLines(file);
+        StringBuilder completeRecords = new StringBuilder();
+        records.forEach(record -> completeRecords.append(record).append('\n'));
+        byte[] completeContent = completeRecords.toString().getBytes();
+        if (completeContent.length != file.length()) {
+            writer.replace(file, completeContent);
+        }
+
+        ArrayList<String> names = new ArrayList<>();
+        TreeMap<Integer, ArrayList<String[]>> servicesByInstrument = new TreeMap<>();
+        for (String record : records) {
+            String[] fields = EventDetailsLog.splitFields(record);
+            if (fields[0].equals(INSTRUMENT) && fields.length == 2) {
+                names.add(fields[1]);
+            } else if (fields[0].equals(SERVICE) && fields.length == 4) {
+                try {
+                    servicesByInstrument.computeIfAbsent(Integer.parseInt(fields[1]), key -> new ArrayList<>())
+                            .add(fields);
+                } catch (NumberFormatException e) {
+                    //skip the record
+                }
+            }
+        }
+
+        InstrumentList instruments = new InstrumentList();
+        numSavedServices.clear();
+        for (String name : names) {
+            instruments.addInstrument(name);
+            numSavedServices.add(0);
+        }
+        numSavedInstruments = names.size();
+        isValid = true;
+        servicesByInstrument.forEach((number, services) -> {
+            if (number < 1 || number > instruments.getNumInstruments()) {
+                return;
+            }
+            for (String[] fields : services) {
+                instruments.service(number, new EventDate(fields[2]), fields[3]);
+            }
+            numSavedServices.set(number - 1, services.size());
+        });
+        return instruments;
+    }
+
+    /**
+     * Appends the instruments and services added since the last save to the log, or rewrites it with all of
+     * them if it is missing some. Nothing is written if none were added.
+     *
+     * @param instruments list of instruments
+     * @throws IOException if the log cannot be written
+     */
+    void save(InstrumentList instruments) throws IOException {
+        if (!isValid) {
+            numSavedInstruments = 0;
+            numSavedServices.clear();
+        }
+        StringBuilder records = new StringBuilder();
+        for (int number = numSavedInstruments + 1; number <= instruments.getNumInstruments(); number++) {
+            records.append(INSTRUMENT);
+            EventDetailsLog.appendField(records, instruments.getInstrument(number).getName());
+            records.append('\n');
+        }
+        for (int number = 1; number <= instruments.getNumInstruments(); number++) {
+            Instrument instrument = instruments.getInstrument(number);
+            int numSaved = (number <= numSavedServices.size()) ? numSavedServices.get(number - 1) : 0;
+            for (int index = numSaved + 1; index <= instrument.getNumServices(); index++) {
+                ServiceInfo service = instrument.getService(index);
+                records.append(SERVICE);
+                EventDetailsLog.appendField(records, Integer.toString(number));
+                EventDetailsLog.appendField(records, service.getServiceDate().getUserInputDateString());
+                EventDetailsLog.appendField(records, service.getServiceDescription());
+                records.append('\n');
+            }
+        }
+        if (!isValid) {
+            writer.replace(file, records.toString().getBytes());
+            isValid = true;
+        } else if (records.length() > 0) {
+            writer.append(file, records.toString().getBytes());
+        }
+        numSavedInstruments = instruments.getNumInstruments();
+        for (int number = 1; number <= instruments.getNumInstruments(); number++) {
+            if (number > numSavedServices.size()) {
+                numSavedServices.add(0);
+            }
+            numSavedServices.set(number - 1, instruments.getInstrument(number).getNumServices());
+        }
+    }
+}
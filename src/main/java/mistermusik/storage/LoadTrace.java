@@ -0,0 +1,32 @@
+package mistermusik.storage;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of loading the event list from the save files.
+ */
+@Name("mistermusik.Load")
+@Label("Load Event List")
+@Category({"MisterMusik", "Storage"})
+@Description("Reading the event list from the latest snapshot and the journal")
+class LoadTrace extends Event {
+    @Label("Snapshot Format")
+    @Description("Format of the snapshot read: text, binary or mapped, or lines when read as a list of lines")
+    String format;
+
+    @Label("Snapshot Size")
+    @DataAmount
+    long numSnapshotBytes;
+
+    @Label("Journal Size")
+    @DataAmount
+    long numJournalBytes;
+
+    @Label("Events Loaded")
+    int numEvents;
+}
@@ -0,0 +1,418 @@
+package mistermusik.storage;
+
+import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.eventtypes.RecurringSeries;
+import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
+import mistermusik.commons.events.formatting.EventDate;
+import mistermusik.logic.EventArchive;
+import mistermusik.logic.EventStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot of the event list kept in a memory-mapped file, from which each event can be read on its own.
+ * Opening the file only checks its header, index and recurring series, so the time taken to open it and the
+ * heap used grow with the size of the index rather than with the events in it.
+ * The file starts with a header: "MMEA", the version, the CRC-32 of the rest of the file (which also serves
+ * as the checksum the journal is matched against), the CRC-32 of the index and series, the number of
+ * records and the position of the first record (4 bytes each, big-endian). Then comes the index, holding
+ * for each record in order of start: its start and end in epoch-minutes (8 bytes each), its position in
+ * the file and its type (4 bytes each). The latest end of each block of records follows the index, so that
+ * clashes are found without reading the records. Then come the recurring series, and the records, each
+ * holding the done flag and kinds of dates, the description, dates that are not valid dates and the cost
+ * of concerts, with numbers written as varints as in BinarySnapshot. Files are limited to 2GB.
+ */
+class MappedEventArchive implements EventArchive {
+    private static final byte[] MAGIC = {'M', 'M', 'E', 'A'};
+    private static final int VERSION = 1;
+
+    private static final int CHECKSUM_POSITION = 8;
+    private static final int INDEX_CHECKSUM_POSITION = 12;
+    private static final int NUM_RECORDS_POSITION = 16;
+    private static final int RECORDS_START_POSITION = 20;
+    private static final int HEADER_SIZE = 24;
+
+    private static final int INDEX_ENTRY_SIZE = 24;
+    private static final int END_OFFSET = 8;
+    private static final int POSITION_OFFSET = 16;
+    private static final int TYPE_OFFSET = 20;
+
+    /**
+     * Bit set in the type of records of events taking up time, i.e. not ToDos and with valid dates.
+     */
+    private static final int TAKES_UP_TIME = 1 << 16;
+
+    /**
+     * Number of records in each block of the index with its latest end stored.
+     */
+    private static final int BLOCK_SIZE = 64;
+
+    /**
+     * Kinds of dates, stored in the flags of each record.
+     */
+    private static final int DATE_AND_TIME = 0;
+    private static final int DATE_ONLY = 1;
+    private static final int INVALID_DATE = 2;
+
+    private static final int DONE = 1;
+    private static final int START_KIND_SHIFT = 1;
+    private static final int END_KIND_SHIFT = 3;
+
+    private ByteBuffer buffer;
+
+    private int numRecords;
+
+    private int blocksStart;
+
+    private int recordsStart;
+
+    private long checksum;
+
+    private ArrayList<RecurringSeries> seriesList = new ArrayList<>();
+
+    private MappedEventArchive(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Opens an archive by mapping it into memory, reading only its header, index and recurring series.
+     *
+     * @param file archive file
+     * @return archive opened
+     * @throws IOException if the file cannot be read, its index is damaged, or it is of a version that is not
+     *                     supported
+     */
+    static MappedEventArchive open(File file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Archive " + file + " is too large");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        MappedEventArchive archive = new MappedEventArchive(buffer);
+        try {
+            archive.readIndex();
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                | NegativeArraySizeException e) {
+            throw new IOException("Damaged archive " + file, e);
+        }
+        return archive;
+    }
+
+    private void readIndex() throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.duplicate().get(magic);
+        if (!Arrays.equals(magic, MAGIC) || buffer.getInt(MAGIC.length) != VERSION) {
+            throw new IOException("Not an archive of a supported version");
+        }
+        checksum = buffer.getInt(CHECKSUM_POSITION) & 0xFFFFFFFFL;
+        numRecords = buffer.getInt(NUM_RECORDS_POSITION);
+        recordsStart = buffer.getInt(RECORDS_START_POSITION);
+        if (numRecords < 0 || numRecords > (buffer.limit() - HEADER_SIZE) / INDEX_ENTRY_SIZE) {
+            throw new IOException("Archive index does not fit in the file");
+        }
+        blocksStart = HEADER_SIZE + numRecords * INDEX_ENTRY_SIZE;
+        if (recordsStart < getSeriesStart() || recordsStart > buffer.limit()) {
+            throw new IOException("Archive index does not fit in the file");
+        }
+
+        CRC32 indexChecksum = new CRC32();
+        indexChecksum.update(buffer.duplicate().position(HEADER_SIZE).limit(recordsStart));
+        if (indexChecksum.getValue() != (buffer.getInt(INDEX_CHECKSUM_POSITION) & 0xFFFFFFFFL)) {
+            throw new IOException("Archive index checksum does not match");
+        }
+        int previousPosition = recordsStart;
+        for (int record = 0; record < numRecords; record++) {
+            int position = getRecordPosition(record);
+            if (position < previousPosition || position > buffer.limit()) {
+                throw new IOException("Archive record " + record + " is outside the file");
+            }
+            previousPosition = position;
+        }
+
+        ByteBuffer series = buffer.duplicate().position(getSeriesStart()).limit(recordsStart);
+        long numSeries = BinarySnapshot.readUnsigned(series);
+        for (long i = 0; i < numSeries; i++) {
+            int typeByte = series.get() & 0xFF;
+            String description = readString(series);
+            long firstStart = BinarySnapshot.readSigned(series);
+            long duration = BinarySnapshot.readSigned(series);
+            int period = (int) BinarySnapshot.readSigned(series);
+            int count = (int) BinarySnapshot.readSigned(series);
+            ArrayList<Integer> excludedOccurrences = new ArrayList<>();
+            long numExcluded = BinarySnapshot.readUnsigned(series);
+            int occurrence = 0;
+            for (long j = 0; j < numExcluded; j++) {
+                occurrence += (int) BinarySnapshot.readUnsigned(series);
+                excludedOccurrences.add(occurrence);
+            }
+            seriesList.add(new RecurringSeries((char) (typeByte >> 1), description, (typeByte & DONE) != 0,
+                    firstStart, duration, period, count, excludedOccurrences));
+        }
+    }
+
+    /**
+     * Gets the checksum stored in the header, which the journal is matched against.
+     */
+    long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Gets the recurring series in the archive, read when it was opened.
+     */
+    ArrayList<RecurringSeries> getSeriesList() {
+        return seriesList;
+    }
+
+    @Override
+    public int getNumRecords() {
+        return numRecords;
+    }
+
+    @Override
+    public long getStart(int record) {
+        return buffer.getLong(getIndexEntry(record));
+    }
+
+    private long getEnd(int record) {
+        return buffer.getLong(getIndexEntry(record) + END_OFFSET);
+    }
+
+    @Override
+    public char getType(int record) {
+        return (char) buffer.getInt(getIndexEntry(record) + TYPE_OFFSET);
+    }
+
+    private boolean isTakingUpTime(int record) {
+        return (buffer.getInt(getIndexEntry(record) + TYPE_OFFSET) & TAKES_UP_TIME) != 0;
+    }
+
+    private int getRecordPosition(int record) {
+        return buffer.getInt(getIndexEntry(record) + POSITION_OFFSET);
+    }
+
+    private int getRecordEnd(int record) {
+        return (record + 1 < numRecords) ? getRecordPosition(record + 1) : buffer.limit();
+    }
+
+    private static int getIndexEntry(int record) {
+        return HEADER_SIZE + record * INDEX_ENTRY_SIZE;
+    }
+
+    private int getSeriesStart() {
+        return blocksStart + (numRecords + BLOCK_SIZE - 1) / BLOCK_SIZE * Long.BYTES;
+    }
+
+    /**
+     * Reads the event in a record. Damaged records are only found when they are read.
+     *
+     * @throws UncheckedIOException if the record is damaged
+     */
+    @Override
+    public Event readEvent(int record) {
+        ByteBuffer recordBuffer = buffer.duplicate().position(getRecordPosition(record)).limit(getRecordEnd(record));
+        try {
+            int flags = recordBuffer.get() & 0xFF;
+            String description = readString(recordBuffer);
+            char eventType = getType(record);
+            EventDate start = readDate(recordBuffer, getStart(record), (flags >> START_KIND_SHIFT) & 3);
+            EventDate end = (eventType == 'T') ? null : readDate(recordBuffer, getEnd(record),
+                    (flags >> END_KIND_SHIFT) & 3);
+            int cost = (eventType == 'C') ? (int) BinarySnapshot.readSigned(recordBuffer) : 0;
+            return BinarySnapshot.createEvent(eventType, description, (flags & DONE) != 0, start, end, cost);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                | NegativeArraySizeException e) {
+            throw new UncheckedIOException(new IOException("Damaged archive record " + record, e));
+        }
+    }
+
+    /**
+     * Finds clashing records going through the blocks of records starting early enough to clash, skipping
+     * the blocks in which no record ends late enough.
+     */
+    @Override
+    public void findClashingRecords(long start, long end, ArrayList<Integer> records) {
+        long latestClashingStart = (end > start) ? end - 1 : start;
+        int low = 0;
+        int high = numRecords;
+        while (low < high) { //find the first record starting too late to clash
+            int mid = (low + high) >>> 1;
+            if (getStart(mid) <= latestClashingStart) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int block = 0; block * BLOCK_SIZE < low; block++) {
+            if (buffer.getLong(blocksStart + block * Long.BYTES) < start) {
+                continue; //nothing in this block ends late enough to clash
+            }
+            for (int record = block * BLOCK_SIZE; record < Math.min(low, (block + 1) * BLOCK_SIZE); record++) {
+                if (isTakingUpTime(record) && (getEnd(record) > start || getStart(record) == start)) {
+                    records.add(record);
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes events and series into an archive. Events of an archive that have not been read are copied
+     * from it without being read.
+     *
+     * @param events     individual events in order of start
+     * @param seriesList recurring series
+     * @return content of the archive file
+     * @throws IOException if the archive would be too large
+     */
+    static byte[] write(EventStore events, ArrayList<RecurringSeries> seriesList) throws IOException {
+        BinarySnapshot.VarintWriter series = new BinarySnapshot.VarintWriter();
+        series.writeUnsigned(seriesList.size());
+        for (RecurringSeries currSeries : seriesList) {
+            series.writeByte(currSeries.getType() << 1 | (currSeries.isDone() ? DONE : 0));
+            series.writeString(currSeries.getDescription());
+            series.writeSigned(currSeries.getStart(0));
+            series.writeSigned(currSeries.getDuration());
+            series.writeSigned(currSeries.getPeriod());
+            series.writeSigned(currSeries.getCount());
+            series.writeUnsigned(currSeries.getExcludedOccurrences().size());
+            int previousOccurrence = 0;
+            for (int occurrence : currSeries.getExcludedOccurrences()) {
+                series.writeUnsigned(occurrence - previousOccurrence);
+                previousOccurrence = occurrence;
+            }
+        }
+
+        int numRecords = events.size();
+        long[] blockEnds = new long[(numRecords + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        Arrays.fill(blockEnds, Long.MIN_VALUE);
+        long recordsStart = HEADER_SIZE + (long) numRecords * INDEX_ENTRY_SIZE + (long) blockEnds.length * Long.BYTES
+                + series.getLength();
+        if (recordsStart > Integer.MAX_VALUE) {
+            throw new IOException("Too many events for an archive");
+        }
+        ByteBuffer index = ByteBuffer.allocate(numRecords * INDEX_ENTRY_SIZE);
+        BinarySnapshot.VarintWriter records = new BinarySnapshot.VarintWriter();
+        MappedEventArchive source = (events.getArchive() instanceof MappedEventArchive)
+                ? (MappedEventArchive) events.getArchive() : null;
+        for (int i = 0; i < numRecords; i++) {
+            if (recordsStart + records.getLength() > Integer.MAX_VALUE) {
+                throw new IOException("Too many events for an archive");
+            }
+            index.putInt(i * INDEX_ENTRY_SIZE + POSITION_OFFSET, (int) recordsStart + records.getLength());
+            int sourceRecord = events.getRecord(i);
+            if (events.getIfRead(i) == null && source != null) {
+                int sourceEntry = getIndexEntry(sourceRecord);
+                index.putLong(i * INDEX_ENTRY_SIZE, source.buffer.getLong(sourceEntry));
+                index.putLong(i * INDEX_ENTRY_SIZE + END_OFFSET, source.buffer.getLong(sourceEntry + END_OFFSET));
+                index.putInt(i * INDEX_ENTRY_SIZE + TYPE_OFFSET, source.buffer.getInt(sourceEntry + TYPE_OFFSET));
+                source.copyRecord(sourceRecord, records);
+            } else {
+                writeRecord(events.get(i), i, index, records);
+            }
+            if ((index.getInt(i * INDEX_ENTRY_SIZE + TYPE_OFFSET) & TAKES_UP_TIME) != 0) {
+                blockEnds[i / BLOCK_SIZE] = Math.max(blockEnds[i / BLOCK_SIZE],
+                        index.getLong(i * INDEX_ENTRY_SIZE + END_OFFSET));
+            }
+        }
+        if (recordsStart + records.getLength() > Integer.MAX_VALUE) {
+            throw new IOException("Too many events for an archive");
+        }
+
+        ByteBuffer archive = ByteBuffer.allocate((int) recordsStart + records.getLength());
+        archive.put(MAGIC).putInt(VERSION).putInt(0).putInt(0).putInt(numRecords).putInt((int) recordsStart);
+        archive.put(index.array());
+        for (long blockEnd : blockEnds) {
+            archive.putLong(blockEnd);
+        }
+        archive.put(series.toByteArray());
+        archive.put(records.toByteArray());
+
+        CRC32 indexChecksum = new CRC32();
+        indexChecksum.update(archive.array(), HEADER_SIZE, (int) recordsStart - HEADER_SIZE);
+        archive.putInt(INDEX_CHECKSUM_POSITION, (int) indexChecksum.getValue());
+        CRC32 checksum = new CRC32();
+        checksum.update(archive.array(), INDEX_CHECKSUM_POSITION, archive.capacity() - INDEX_CHECKSUM_POSITION);
+        archive.putInt(CHECKSUM_POSITION, (int) checksum.getValue());
+        return archive.array();
+    }
+
+    /**
+     * Gets the checksum stored in the header of an archive.
+     */
+    static long getChecksum(byte[] archive) {
+        return ByteBuffer.wrap(archive).getInt(CHECKSUM_POSITION) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Writes the index entry and record of an event.
+     */
+    private static void writeRecord(Event event, int record, ByteBuffer index, BinarySnapshot.VarintWriter records) {
+        EventDate start = event.getStartDate();
+        EventDate end = (event.getType() == 'T') ? start : event.getEndDate();
+        boolean isTakingUpTime = event.getType() != 'T' && start.isValidDate() && end.isValidDate();
+        index.putLong(record * INDEX_ENTRY_SIZE, start.getEpochMinute());
+        index.putLong(record * INDEX_ENTRY_SIZE + END_OFFSET, end.getEpochMinute());
+        index.putInt(record * INDEX_ENTRY_SIZE + TYPE_OFFSET, event.getType() | (isTakingUpTime ? TAKES_UP_TIME : 0));
+
+        records.writeByte((event.getDoneSymbol().equals("V") ? DONE : 0) | getKind(start) << START_KIND_SHIFT
+                | getKind(end) << END_KIND_SHIFT);
+        records.writeString(event.getDescription());
+        if (!start.isValidDate()) {
+            records.writeString(start.getUserInputDateString());
+        }
+        if (event.getType() != 'T' && !end.isValidDate()) {
+            records.writeString(end.getUserInputDateString());
+        }
+        if (event instanceof Concert) {
+            records.writeSigned(((Concert) event).getCost());
+        }
+    }
+
+    /**
+     * Copies the bytes of a record to the records of a new archive.
+     */
+    private void copyRecord(int record, BinarySnapshot.VarintWriter records) {
+        int position = getRecordPosition(record);
+        byte[] recordBytes = new byte[getRecordEnd(record) - position];
+        buffer.duplicate().position(position).get(recordBytes);
+        records.writeBytes(recordBytes, recordBytes.length);
+    }
+
+    private static int getKind(EventDate date) {
+        if (!date.isValidDate()) {
+            return INVALID_DATE;
+        }
+        return date.hasTime() ? DATE_AND_TIME : DATE_ONLY;
+    }
+
+    private static EventDate readDate(ByteBuffer recordBuffer, long epochMinute, int kind) {
+        switch (kind) {
+        case DATE_AND_TIME:
+            return new EventDate(epochMinute, true);
+        case DATE_ONLY:
+            return new EventDate(epochMinute, false);
+        default:
+            return new EventDate(readString(recordBuffer));
+        }
+    }
+
+    private static String readString(ByteBuffer source) {
+        byte[] bytes = new byte[(int) BinarySnapshot.readUnsigned(source)];
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,228 @@
+package mistermusik.storage;
+
+import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.eventtypes.RecurringSeries;
+import mistermusik.logic.EventList;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads the events of a large save file on a ForkJoinPool. The file is split into chunks of whole lines,
+ * each chunk is parsed and sorted on its own, then the sorted chunks are merged in file order. The result
+ * is the same as reading the file one line at a time: events with the same start stay in file order.
+ */
+class ParallelEventLoader {
+    /**
+     * Smallest number of bytes in a chunk, so that small files are not split into many chunks.
+     */
+    static final long DEFAULT_MIN_CHUNK_BYTES = 1 << 18;
+
+    private Path path;
+
+    private ForkJoinPool pool;
+
+    private long minChunkBytes;
+
+    private ArrayList<Chunk> chunks = new ArrayList<>();
+
+    /**
+     * Lines of the save file, parsed and sorted separately, read in order of position in the file.
+     */
+    private static class Chunk {
+        private long start;
+        private long end;
+        private long checksum;
+        private long checksumLength;
+        private ArrayList<Event> events = new ArrayList<>();
+        private ArrayList<RecurringSeries> seriesList = new ArrayList<>();
+
+        private Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Creates a loader for a save file.
+     *
+     * @param path          path of the save file
+     * @param pool          pool the chunks are read on
+     * @param minChunkBytes smallest number of bytes in a chunk
+     */
+    ParallelEventLoader(Path path, ForkJoinPool pool, long minChunkBytes) {
+        this.path = path;
+        this.pool = pool;
+        this.minChunkBytes = minChunkBytes;
+    }
+
+    /**
+     * Checks whether a file is large enough to be read in more than one chunk.
+     */
+    static boolean isWorthSplitting(long fileSize, ForkJoinPool pool, long minChunkBytes) {
+        return pool.getParallelism() > 1 && fileSize >= 2 * minChunkBytes;
+    }
+
+    /**
+     * Reads and parses all chunks of the file.
+     *
+     * @return checksum of the whole file
+     * @throws IOException if the file cannot be read
+     */
+    long readChunks() throws IOException {
+        splitIntoChunks();
+        ArrayList<RecursiveAction> tasks = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    try {
+                        readChunk(chunk);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        }
+        try {
+            runAll(tasks);
+        } catch (UncheckedIOException e) {
+            throw new IOException(e);
+        }
+
+        long checksum = chunks.get(0).checksum;
+        for (int i = 1; i < chunks.size(); i++) {
+            checksum = SaveFileReader.combineChecksums(checksum, chunks.get(i).checksum, chunks.get(i).checksumLength);
+        }
+        return checksum;
+    }
+
+    /**
+     * Sorts the chunks and merges them into an event list.
+     *
+     * @return event list containing all events read
+     */
+    EventList createEventList() {
+        ArrayList<RecursiveAction> tasks = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    Collections.sort(chunk.events); //stable sort, events with the same start stay in file order
+                }
+            });
+        }
+        runAll(tasks);
+
+        ArrayList<ArrayList<Event>> sortedEvents = new ArrayList<>();
+        ArrayList<RecurringSeries> seriesList = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            sortedEvents.add(chunk.events);
+            seriesList.addAll(chunk.seriesList);
+        }
+        return new EventList(merge(sortedEvents), seriesList);
+    }
+
+    /**
+     * Splits the file into chunks of about equal size, each ending just after a line feed.
+     */
+    private void splitIntoChunks() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            int numChunks = (int) Math.max(1, Math.min(4L * pool.getParallelism(), fileSize / minChunkBytes));
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+            long chunkStart = 0;
+            for (int i = 1; i < numChunks && chunkStart < fileSize; i++) {
+                long chunkEnd = Math.max(chunkStart, fileSize / numChunks * i);
+                chunkEnd = findNextLineStart(channel, chunkEnd, buffer);
+                if (chunkEnd > chunkStart) {
+                    chunks.add(new Chunk(chunkStart, chunkEnd));
+                    chunkStart = chunkEnd;
+                }
+            }
+            chunks.add(new Chunk(chunkStart, fileSize));
+        }
+    }
+
+    /**
+     * Finds the position just after the first line feed at or after a position, or the end of the file.
+     */
+    private static long findNextLineStart(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (true) {
+            buffer.clear();
+            int numBytesRead = channel.read(buffer, position);
+            if (numBytesRead < 0) {
+                return channel.size();
+            }
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < numBytesRead; i++) {
+                if (bytes[i] == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += numBytesRead;
+        }
+    }
+
+    private void readChunk(Chunk chunk) throws IOException {
+        try (SaveFileReader reader = new SaveFileReader(path, chunk.start, chunk.end)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                EventList.parseRecord(line, chunk.events, chunk.seriesList);
+            }
+            chunk.checksum = reader.getChecksum();
+            chunk.checksumLength = reader.getChecksumLength();
+        }
+    }
+
+    /**
+     * Merges sorted lists of events, taking events with the same start from earlier lists first.
+     */
+    private static ArrayList<Event> merge(ArrayList<ArrayList<Event>> sortedLists) {
+        int numEvents = 0;
+        PriorityQueue<int[]> nextEvents = new PriorityQueue<>((first, second) -> {
+            int comparison = sortedLists.get(first[0]).get(first[1]).compareTo(sortedLists.get(second[0])
+                    .get(second[1]));
+            return (comparison != 0) ? comparison : Integer.compare(first[0], second[0]);
+        });
+        for (int i = 0; i < sortedLists.size(); i++) {
+            numEvents += sortedLists.get(i).size();
+            if (!sortedLists.get(i).isEmpty()) {
+                nextEvents.add(new int[]{i, 0});
+            }
+        }
+
+        ArrayList<Event> merged = new ArrayList<>(numEvents);
+        while (!nextEvents.isEmpty()) {
+            int[] next = nextEvents.poll();
+            ArrayList<Event> list = sortedLists.get(next[0]);
+            merged.add(list.get(next[1]));
+            if (++next[1] < list.size()) {
+                nextEvents.add(next);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Runs tasks on the pool and waits for all of them, rethrowing the first exception thrown.
+     */
+    private void runAll(ArrayList<RecursiveAction> tasks) {
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+    }
+}
@@ -0,0 +1,218 @@
+package mistermusik.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the lines of a save file through a file channel, one line at a time, without keeping the lines read.
+ * The checksum of the lines is computed from the bytes read, the same way Storage computes it when writing:
+ * over each line without its line separator, followed by '\n'. Lines may end with "\n" or "\r\n".
+ * A reader may also read only part of the file, so that parts can be read at the same time.
+ */
+class SaveFileReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private FileChannel channel;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private Charset charset = Charset.defaultCharset();
+
+    private CRC32 checksum = new CRC32();
+
+    /**
+     * number of bytes added to the checksum, needed to combine it with the checksums of other parts.
+     */
+    private long checksumLength = 0;
+
+    private long bytesLeft;
+
+    private boolean isEndOfFile = false;
+
+    /**
+     * Opens a file for reading.
+     *
+     * @param path path of the file
+     * @throws IOException if the file cannot be opened
+     */
+    SaveFileReader(Path path) throws IOException {
+        this(path, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Opens part of a file for reading.
+     *
+     * @param path  path of the file
+     * @param start position of the first byte to read, at the start of a line
+     * @param end   position after the last byte to read, at the start of a line or the end of the file
+     * @throws IOException if the file cannot be opened
+     */
+    SaveFileReader(Path path, long start, long end) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        channel.position(start);
+        bytesLeft = end - start;
+        buffer.flip(); //start with nothing to read in the buffer
+    }
+
+    /**
+     * Reads the next line and adds it to the checksum.
+     *
+     * @return next line without its line separator, null if there are no more lines
+     * @throws IOException if the file cannot be read
+     */
+    String readLine() throws IOException {
+        int searchFrom = buffer.position();
+        while (true) {
+            byte[] bytes = buffer.array();
+            for (int i = searchFrom; i < buffer.limit(); ++i) {
+                if (bytes[i] == '\n') {
+                    String line = decodeLine(buffer.position(), i);
+                    buffer.position(i + 1);
+                    return line;
+                }
+            }
+            if (isEndOfFile) {
+                if (!buffer.hasRemaining()) {
+                    return null;
+                }
+                String line = decodeLine(buffer.position(), buffer.limit());
+                buffer.position(buffer.limit());
+                return line;
+            }
+            searchFrom = fill();
+        }
+    }
+
+    /**
+     * Moves the unread bytes to the front of the buffer, growing it if a line does not fit, then reads more.
+     *
+     * @return index in the buffer where the newly read bytes start
+     */
+    private int fill() throws IOException {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            ByteBuffer largerBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            largerBuffer.put(buffer);
+            buffer = largerBuffer;
+        } else {
+            buffer.compact();
+        }
+        int unreadBytes = buffer.position();
+        while (buffer.hasRemaining() && bytesLeft > 0) {
+            int limit = buffer.limit();
+            if (buffer.remaining() > bytesLeft) {
+                buffer.limit(buffer.position() + (int) bytesLeft);
+            }
+            int numBytesRead = channel.read(buffer);
+            buffer.limit(limit);
+            if (numBytesRead < 0) {
+                bytesLeft = 0;
+            } else {
+                bytesLeft -= numBytesRead;
+            }
+        }
+        isEndOfFile = bytesLeft <= 0;
+        buffer.flip();
+        return unreadBytes;
+    }
+
+    /**
+     * Decodes the bytes of a line, leaving out a '\r' before the line feed, and adds the line to the checksum.
+     */
+    private String decodeLine(int start, int end) {
+        byte[] bytes = buffer.array();
+        if (end > start && bytes[end - 1] == '\r') {
+            end--;
+        }
+        checksum.update(bytes, start, end - start);
+        checksum.update('\n');
+        checksumLength += end - start + 1;
+        return new String(bytes, start, end - start, charset);
+    }
+
+    /**
+     * Gets the checksum of all lines read so far.
+     */
+    long getChecksum() {
+        return checksum.getValue();
+    }
+
+    /**
+     * Gets the number of bytes added to the checksum so far.
+     */
+    long getChecksumLength() {
+        return checksumLength;
+    }
+
+    /**
+     * Gets the checksum of two parts of a file from the checksums of each part, as zlib's crc32_combine does.
+     *
+     * @param firstChecksum  checksum of the first part
+     * @param secondChecksum checksum of the second part
+     * @param secondLength   number of bytes in the checksum of the second part
+     * @return checksum of the first part followed by the second part
+     */
+    static long combineChecksums(long firstChecksum, long secondChecksum, long secondLength) {
+        if (secondLength <= 0) {
+            return firstChecksum;
+        }
+        long[] even = new long[32]; //operator for an even number of zero bits, as a matrix over GF(2)
+        long[] odd = new long[32];
+        odd[0] = 0xedb88320L; //CRC-32 polynomial, the operator for one zero bit
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        square(even, odd); //two zero bits
+        square(odd, even); //four zero bits
+
+        long length = secondLength;
+        long combined = firstChecksum;
+        while (true) { //apply the operator for each bit of the length in bytes, squaring it each time
+            square(even, odd);
+            if ((length & 1) != 0) {
+                combined = times(even, combined);
+            }
+            length >>= 1;
+            if (length == 0) {
+                break;
+            }
+            square(odd, even);
+            if ((length & 1) != 0) {
+                combined = times(odd, combined);
+            }
+            length >>= 1;
+            if (length == 0) {
+                break;
+            }
+        }
+        return combined ^ secondChecksum;
+    }
+
+    private static long times(long[] matrix, long vector) {
+        long product = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                product ^= matrix[i];
+            }
+        }
+        return product;
+    }
+
+    private static void square(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = times(matrix, matrix[n]);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,346 @@
+package mistermusik.storage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Performs the writes of Storage to the save files, either at once on the calling thread, or on a background
+ * thread once it is started. The background thread takes all writes queued since it last woke up and
+ * writes them together, joining consecutive appends to the same file into one write, and syncs each file
+ * appended to once (group commit). It wakes up as soon as a write is queued, or at most once every given
+ * number of milliseconds so that more writes are joined. The queue is bounded, so a command only waits if the
+ * thread falls that far behind. Tasks building the content of files, such as snapshots, are run on the thread in
+ * order with the writes.
+ */
+class SaveFileWriter {
+    /**
+     * Maximum number of writes waiting for the background thread.
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /**
+     * Characters signifying write types.
+     */
+    private static final char APPEND = 'A';
+    private static final char REPLACE = 'R';
+    private static final char DELETE = 'D';
+    private static final char DELETE_IF_UNUSED = 'U';
+    private static final char FLUSH = 'F';
+    private static final char TASK = 'T';
+
+    /**
+     * Work done in order with the writes, which may itself write files at once with replaceAtomically.
+     */
+    interface Task {
+        /**
+         * Does the work.
+         *
+         * @return number of bytes written
+         * @throws IOException if a file cannot be written
+         */
+        long run() throws IOException;
+    }
+
+    /**
+     * Single write to a file.
+     */
+    private static class Write {
+        private char writeType;
+        private File file;
+        private byte[] content;
+        private Task task;
+
+        private Write(char writeType, File file, byte[] content) {
+            this.writeType = writeType;
+            this.file = file;
+            this.content = content;
+        }
+
+        private Write(Task task) {
+            this.writeType = TASK;
+            this.task = task;
+        }
+    }
+
+    private BlockingQueue<Write> queue;
+
+    private Thread thread;
+
+    private long syncIntervalMillis;
+
+    /**
+     * First error met by the background thread since it was last reported.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Number of flush requests queued and completed, used to wait for all writes queued before a flush.
+     */
+    private long numFlushesQueued = 0;
+    private long numFlushesDone = 0;
+
+    /**
+     * Number of bytes appended or written to replace files so far, including those still queued, but not those
+     * written by tasks still queued.
+     */
+    private AtomicLong numBytesWritten = new AtomicLong();
+
+    /**
+     * Starts writing on a background thread. Writes are synced after each batch taken from the queue, which is
+     * taken at once or at most every syncIntervalMillis milliseconds. Writes still queued when the program
+     * exits are written by a shutdown hook.
+     *
+     * @param syncIntervalMillis time to wait for more writes to join a batch, 0 to write each batch at once
+     */
+    synchronized void startBackgroundThread(long syncIntervalMillis) {
+        if (thread != null) {
+            return;
+        }
+        this.syncIntervalMillis = syncIntervalMillis;
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        thread = new Thread(this::writeQueuedBatches, "save-file-writer");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                flush();
+            } catch (IOException e) {
+                //nothing left to report to
+            }
+        }));
+    }
+
+    /**
+     * Appends content to a file.
+     */
+    void append(File file, byte[] content) throws IOException {
+        numBytesWritten.addAndGet(content.length);
+        if (queue == null) {
+            try (FileOutputStream writer = new FileOutputStream(file, true)) {
+                writer.write(content);
+            }
+        } else {
+            enqueue(new Write(APPEND, file, content));
+        }
+    }
+
+    /**
+     * Replaces the content of a file by writing to a temporary file and renaming it over the original, so a
+     * crash while writing never loses the original.
+     */
+    void replace(File file, byte[] content) throws IOException {
+        numBytesWritten.addAndGet(content.length);
+        if (queue == null) {
+            replaceAtomically(file, content);
+        } else {
+            enqueue(new Write(REPLACE, file, content));
+        }
+    }
+
+    /**
+     * Runs a task after the writes queued so far, either at once or on the background thread. A task run on the
+     * background thread must only use what no other thread changes, e.g. a copy of the event list.
+     */
+    void run(Task task) throws IOException {
+        if (queue == null) {
+            numBytesWritten.addAndGet(task.run());
+        } else {
+            enqueue(new Write(task));
+        }
+    }
+
+    /**
+     * Deletes a file if it exists.
+     */
+    void delete(File file) throws IOException {
+        if (queue == null) {
+            Files.deleteIfExists(file.toPath());
+        } else {
+            enqueue(new Write(DELETE, file, null));
+        }
+    }
+
+    /**
+     * Deletes a file if it exists and is not in use, e.g. mapped into memory on systems where such files cannot
+     * be deleted. Failures are ignored, the file is then left for the caller to delete later.
+     */
+    void deleteIfUnused(File file) throws IOException {
+        if (queue == null) {
+            file.delete();
+        } else {
+            enqueue(new Write(DELETE_IF_UNUSED, file, null));
+        }
+    }
+
+    /**
+     * Waits until all writes queued so far are written and synced.
+     *
+     * @throws IOException if any write failed since the last failure was reported
+     */
+    void flush() throws IOException {
+        if (queue != null) {
+            synchronized (this) { //flushes are queued in the order they are counted
+                long flush = ++numFlushesQueued;
+                enqueue(new Write(FLUSH, null, null));
+                while (numFlushesDone < flush) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for the save file to be written", e);
+                    }
+                }
+            }
+        }
+        throwFailure();
+    }
+
+    /**
+     * Throws the first error met by the background thread since the last one was thrown, e.g. before writing
+     * more changes, so that the caller can write everything again.
+     */
+    void throwFailure() throws IOException {
+        IOException writeFailure = failure;
+        if (writeFailure != null) {
+            failure = null;
+            throw writeFailure;
+        }
+    }
+
+    long getNumBytesWritten() {
+        return numBytesWritten.get();
+    }
+
+    private void enqueue(Write write) throws IOException {
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing a write to the save file", e);
+        }
+    }
+
+    /**
+     * Runs on the background thread, writing the queued writes in batches.
+     */
+    private void writeQueuedBatches() {
+        ArrayList<Write> batch = new ArrayList<>();
+        long lastBatchTime = 0;
+        while (true) {
+            try {
+                Write write = queue.take();
+                batch.add(write);
+                long deadline = lastBatchTime + syncIntervalMillis;
+                while (write.writeType != FLUSH && System.currentTimeMillis() < deadline) { //let more writes join
+                    write = queue.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                    if (write == null) {
+                        break;
+                    }
+                    batch.add(write);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            writeBatch(batch);
+            batch.clear();
+            lastBatchTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Writes a batch of writes in order, joining consecutive appends to the same file, then syncs the files
+     * appended to and wakes up the threads waiting for flushes in the batch.
+     */
+    private void writeBatch(ArrayList<Write> batch) {
+        LinkedHashSet<File> appendedFiles = new LinkedHashSet<>();
+        int numFlushes = 0;
+        int i = 0;
+        while (i < batch.size()) {
+            Write write = batch.get(i);
+            int next = i + 1;
+            try {
+                if (write.writeType == APPEND) {
+                    while (next < batch.size() && batch.get(next).writeType == APPEND
+                            && batch.get(next).file.equals(write.file)) {
+                        next++;
+                    }
+                    try (FileOutputStream writer = new FileOutputStream(write.file, true)) {
+                        for (int j = i; j < next; j++) {
+                            writer.write(batch.get(j).content);
+                        }
+                    }
+                    appendedFiles.add(write.file);
+                } else if (write.writeType == REPLACE) {
+                    replaceAtomically(write.file, write.content);
+                    appendedFiles.remove(write.file); //already synced
+                } else if (write.writeType == DELETE) {
+                    Files.deleteIfExists(write.file.toPath());
+                    appendedFiles.remove(write.file);
+                } else if (write.writeType == DELETE_IF_UNUSED) {
+                    write.file.delete();
+                    appendedFiles.remove(write.file);
+                } else if (write.writeType == TASK) {
+                    try {
+                        numBytesWritten.addAndGet(write.task.run());
+                    } catch (UncheckedIOException e) { //e.g. a damaged archive read by the task
+                        throw e.getCause();
+                    }
+                } else {
+                    numFlushes++;
+                }
+            } catch (IOException e) {
+                setFailure(e);
+            }
+            i = next;
+        }
+        for (File file : appendedFiles) {
+            try (FileOutputStream writer = new FileOutputStream(file, true)) {
+                writer.getFD().sync();
+            } catch (IOException e) {
+                setFailure(e);
+            }
+        }
+        if (numFlushes > 0) {
+            synchronized (this) {
+                numFlushesDone += numFlushes;
+                notifyAll();
+            }
+        }
+    }
+
+    private void setFailure(IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Replaces the content of a file by writing to a temporary file and renaming it over the original.
+     */
+    static void replaceAtomically(File target, byte[] content) throws IOException {
+        File tempFile = new File(target.getPath() + ".tmp");
+        try (FileOutputStream tempWriter = new FileOutputStream(tempFile)) {
+            tempWriter.write(content);
+            tempWriter.getFD().sync();
+        }
+
+        try {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package mistermusik.storage;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of saving the changes made to the event list.
+ */
+@Name("mistermusik.Save")
+@Label("Save Event List")
+@Category({"MisterMusik", "Storage"})
+@Description("Appending the changes to the journal, or writing a new snapshot, and saving the details log")
+class SaveTrace extends Event {
+    @Label("Changes")
+    int numChanges;
+
+    @Label("Snapshot Written")
+    boolean isSnapshotWritten;
+
+    @Label("Bytes Written")
+    @Description("Bytes written, or queued for the background thread")
+    @DataAmount
+    long numBytes;
+}
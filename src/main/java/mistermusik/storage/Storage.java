@@ -1,7 +1,11 @@
 package mistermusik.storage;
 
 import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.eventtypes.RecurringSeries;
+import mistermusik.commons.instruments.InstrumentList;
+import mistermusik.logic.EventChange;
 import mistermusik.logic.EventList;
+import mistermusik.logic.EventStore;
 import mistermusik.ui.UI;
 
 import java.io.BufferedReader;
@@ -11,17 +15,112 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToLongFunction;
+import java.util.zip.CRC32;
 
 /**
  * Class containing file path and scanner, allowing for reading from and writing to the storage file.
  * Allows for creation of new storage file if necessary.
+ * Changes are appended to a journal file next to the storage file, which is periodically compacted into the
+ * storage file (the snapshot), so that saving a change does not require rewriting the whole storage file.
  */
 public class Storage {
     private File file;
     private Scanner scanFile;
 
+    /**
+     * Journal of changes made since the snapshot in the storage file was written.
+     * The first line of the journal is a header containing the checksum of the snapshot it belongs to,
+     * each following line is a record of one change: character signifying change type, 'I' for a change to the
+     * individual events or 'S' for a change to the recurring series, the position the event or series was
+     * removed from, '/', the position it was added at, '/', then its new line, e.g. "EI3/3/XT/Buy rosin/02-12-2019".
+     * Positions are empty for changes not removing or adding anything. Records are replayed in order at their
+     * positions, so events with identical lines keep their order.
+     */
+    private File journalFile;
+
+    /**
+     * Binary snapshot written instead of the storage file when binary snapshots are used. Whichever of the
+     * two snapshots was written last is loaded, so the text format can still be imported by replacing the
+     * storage file, or exported with exportToText.
+     */
+    private File binaryFile;
+
+    private boolean isBinarySnapshotUsed = false;
+
+    /**
+     * Snapshot written as a memory-mapped event archive when mapped snapshots are used, from which events
+     * are only read when a command needs them. Each compaction writes a new generation of the archive to a new
+     * file, e.g. mistermusik.2.map, since the previous one stays mapped while the list is used, and a mapped file
+     * cannot be replaced or deleted on some systems (e.g. Windows).
+     */
+    private File mappedFile;
+
+    /**
+     * Generation of the latest mapped event archive, 0 for the first one written to mistermusik.map.
+     */
+    private int mappedGeneration;
+
+    /**
+     * Path of the storage file without its .txt extension, to which the extensions of the other files are added.
+     */
+    private String pathWithoutExtension;
+
+    private boolean isMappedSnapshotUsed = false;
+
+    /**
+     * Goals, contacts and checklists of events, which the snapshots and journal do not hold.
+     */
+    private EventDetailsLog detailsLog;
+
+    /**
+     * Performs all writes to the files, either at once or on a background thread.
+     */
+    private SaveFileWriter writer = new SaveFileWriter();
+
+    /**
+     * Instruments and their services.
+     */
+    private InstrumentLog instrumentLog;
+
+    private static final String MAPPED_EXTENSION = ".map";
+
+    private static final String JOURNAL_HEADER_PREFIX = "#";
+    private static final char EVENT_RECORD = 'I';
+    private static final char SERIES_RECORD = 'S';
+
+    /**
+     * Minimum number of journal records before the journal is compacted into the snapshot.
+     */
+    private static final int MIN_RECORDS_BEFORE_COMPACTION = 200;
+
+    /**
+     * Checksum of the snapshot read from the storage file, which the journal read with it must belong to.
+     */
+    private long snapshotChecksum;
+
+    /**
+     * Flag to check if the journal belongs to the current snapshot and can be appended to.
+     */
+    private boolean isJournalValid = false;
+
+    /**
+     * Number of changes recorded in the journal since the last compaction.
+     */
+    private int journalRecordCount = 0;
+
+    /**
+     * Pool large storage files are read on, split into chunks of at least minChunkBytes bytes.
+     */
+    private ForkJoinPool loadPool = ForkJoinPool.commonPool();
+
+    private long minChunkBytes = ParallelEventLoader.DEFAULT_MIN_CHUNK_BYTES;
+
     /**
      * Creates new Model_Class.Storage object
      *
@@ -56,24 +155,155 @@ public class Storage {
             }
         }
         this.file = file;
+        this.journalFile = new File(file.getPath() + ".journal");
+        String path = file.getPath();
+        this.pathWithoutExtension = path.endsWith(".txt") ? path.substring(0, path.length() - 4) : path;
+        this.binaryFile = new File(pathWithoutExtension + ".bin");
+        this.mappedGeneration = findLatestMappedGeneration();
+        this.mappedFile = getMappedFile(mappedGeneration);
+        this.detailsLog = new EventDetailsLog(new File(pathWithoutExtension + ".details"), writer);
+        this.instrumentLog = new InstrumentLog(new File(pathWithoutExtension + ".instruments"), writer);
+    }
+
+    /**
+     * Creates a storage reading its storage file on the given pool, split into chunks of at least minChunkBytes
+     * bytes, e.g. to read small files in parallel in tests.
+     */
+    Storage(File file, ForkJoinPool loadPool, long minChunkBytes) {
+        this(file);
+        this.loadPool = loadPool;
+        this.minChunkBytes = minChunkBytes;
+    }
+
+    /**
+     * Sets whether snapshots are written to the binary snapshot file instead of the storage file.
+     */
+    public void setBinarySnapshotUsed(boolean isBinarySnapshotUsed) {
+        this.isBinarySnapshotUsed = isBinarySnapshotUsed;
+    }
+
+    /**
+     * Sets whether snapshots are written to the mapped event archive instead of the storage file. Takes
+     * precedence over binary snapshots.
+     */
+    public void setMappedSnapshotUsed(boolean isMappedSnapshotUsed) {
+        this.isMappedSnapshotUsed = isMappedSnapshotUsed;
+    }
+
+    /**
+     * Starts writing saved changes on a background thread, so that saving only queues the writes and a command
+     * does not wait for the files to be written and synced. Writes queued by consecutive commands are written
+     * together, at once or at most every syncIntervalMillis milliseconds. A write that fails is reported on
+     * the next save, which then writes everything again.
+     *
+     * @param syncIntervalMillis time to wait for more changes before writing, 0 to write after every command
+     */
+    public void startBackgroundWriter(long syncIntervalMillis) {
+        writer.startBackgroundThread(syncIntervalMillis);
+    }
+
+    /**
+     * Gets the number of bytes written to the save files so far, including those still waiting for the
+     * background thread.
+     */
+    public long getNumBytesWritten() {
+        return writer.getNumBytesWritten();
+    }
+
+    /**
+     * Waits until all changes saved so far are written to the files, e.g. before the program exits.
+     *
+     * @param ui user interface
+     */
+    public void flush(UI ui) {
+        try {
+            writer.flush();
+        } catch (IOException exceptionInputOutput) {
+            handleWriteFailure(ui);
+        }
+    }
+
+    /**
+     * Reports a write that failed on the background thread, if any, before more changes are saved.
+     */
+    private void checkBackgroundWrites(UI ui) {
+        try {
+            writer.throwFailure();
+        } catch (IOException exceptionInputOutput) {
+            handleWriteFailure(ui);
+        }
+    }
+
+    /**
+     * Makes the next saves write everything again, as the files may be missing changes.
+     */
+    private void handleWriteFailure(UI ui) {
+        isJournalValid = false;
+        detailsLog.invalidate();
+        instrumentLog.invalidate();
+        ui.printErrorWritingToFile();
     }
 
     //@@author Ryan-Wong-Ren-Wei
 
     /**
-     * Reads all necessary information from the txt file when the program is loaded.
+     * Reads all necessary information from the txt file when the program is loaded, then applies
+     * all changes recorded in the journal since the txt file was last written. The program loads through
+     * readEventList, which reads the same events, so this plain list of lines is what it is checked against.
      *
      * @param ui user interface
      * @return Array of strings containing all information from the read file
      */
     public ArrayList<String> readFromFile(UI ui) {
-        System.out.print(ui.getLineSeparation());
+        LoadTrace trace = new LoadTrace();
+        trace.begin();
+        if (openSaveFile(ui)) {
+            try {
+                this.scanFile = new Scanner(file);
+            } catch (FileNotFoundException fileNotFound) {
+                this.scanFile = null;
+            }
+        }
 
-        try {
-            this.scanFile = new Scanner(file);
-            System.out.println("Event list loaded!");
-        } catch (FileNotFoundException fileNotFound) {
+        ArrayList<String> readFromFile = new ArrayList<>();
+        CRC32 checksum = new CRC32();
 
+        String fileContent;
+        if (this.scanFile != null) {
+            while (this.scanFile.hasNextLine()) {
+                fileContent = this.scanFile.nextLine();
+                readFromFile.add(fileContent);
+                updateChecksum(checksum, fileContent);
+            }
+            this.scanFile.close();
+        }
+        snapshotChecksum = checksum.getValue();
+
+        EventList eventList = replayJournal(new EventList(readFromFile));
+        ArrayList<String> lines = new ArrayList<>();
+        EventStore individualEvents = eventList.getIndividualEvents();
+        for (int i = 0; i < individualEvents.size(); i++) {
+            lines.add(individualEvents.get(i).toStringForFile());
+        }
+        for (RecurringSeries series : eventList.getRecurringSeriesList()) {
+            lines.add(series.toStringForFile());
+        }
+        commitTrace(trace, "lines", file, lines.size());
+        return lines;
+    }
+
+    /**
+     * Checks that the storage file exists when the program is loaded, creating a new one if it does not.
+     *
+     * @param ui user interface
+     * @return true if the storage file existed and can be read from
+     */
+    private boolean openSaveFile(UI ui) {
+        System.out.print(ui.getLineSeparation());
+        boolean isFound = file.isFile();
+        if (isFound) {
+            System.out.println("Event list loaded!");
+        } else {
             System.out.println("No mistermusik.Main file found!\nCreating new file...");
 
             try {
@@ -85,39 +315,513 @@ public class Storage {
             System.out.println("New file created!\nAssigning...");
         }
         System.out.print(ui.getLineSeparation());
+        return isFound;
+    }
 
-        ArrayList<String> readFromFile = new ArrayList<>();
+    //@@author
 
-        String fileContent;
-        if (this.scanFile != null) {
-            while (this.scanFile.hasNextLine()) {
-                fileContent = this.scanFile.nextLine();
-                readFromFile.add(fileContent);
+    /**
+     * Replays the changes recorded in the journal on the event list read from the snapshot, in the order they were
+     * made. The journal is ignored if it belongs to an older snapshot, as its changes are then already in the
+     * snapshot. Replaying stops at a record that cannot be read or does not fit the list, and the journal is then
+     * no longer appended to, so that the next save compacts the list as loaded.
+     *
+     * @param eventList event list read from the snapshot
+     * @return the event list with all recorded changes applied
+     */
+    private EventList replayJournal(EventList eventList) {
+        ArrayList<String> records = readJournalRecords();
+        isJournalValid = isJournalOf(records, snapshotChecksum);
+        journalRecordCount = 0;
+        if (!isJournalValid) {
+            return eventList;
+        }
+        for (int i = 1; i < records.size(); ++i) {
+            EventChange change = parseJournalRecord(records.get(i));
+            if (change == null || !eventList.replayChange(change)) {
+                isJournalValid = false;
+                break;
+            }
+            journalRecordCount++;
+        }
+        return eventList;
+    }
+
+    /**
+     * Reads a record of the journal into the change it records.
+     *
+     * @return the change, null if the record is not in the journal format
+     */
+    private static EventChange parseJournalRecord(String record) {
+        int oldPositionEnd = record.indexOf('/', 2);
+        int newPositionEnd = (oldPositionEnd < 0) ? -1 : record.indexOf('/', oldPositionEnd + 1);
+        if (newPositionEnd < 0 || (record.charAt(1) != EVENT_RECORD && record.charAt(1) != SERIES_RECORD)) {
+            return null;
+        }
+        try {
+            int oldPosition = parsePosition(record, 2, oldPositionEnd);
+            int newPosition = parsePosition(record, oldPositionEnd + 1, newPositionEnd);
+            String newLine = (newPosition == EventChange.NO_POSITION) ? null : record.substring(newPositionEnd + 1);
+            return new EventChange(record.charAt(0), record.charAt(1) == SERIES_RECORD, oldPosition, newPosition,
+                    newLine);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int parsePosition(String record, int start, int end) {
+        return (start == end) ? EventChange.NO_POSITION : Integer.parseInt(record, start, end, 10);
+    }
+
+    /**
+     * Reads the event list from the storage file in a single pass, without keeping the lines read, then replays
+     * the changes recorded in the journal on it.
+     * Large files are read in chunks on the common ForkJoinPool, giving the same event list.
+     * The binary snapshot or mapped event archive is read instead if it was written last.
+     * The goals, contacts and checklists saved for the events are only read when first used.
+     *
+     * @param ui user interface
+     * @return event list with all recorded changes applied
+     */
+    public EventList readEventList(UI ui) {
+        flush(ui);
+        deleteOldMappedFiles();
+        LoadTrace trace = new LoadTrace();
+        trace.begin();
+        String format = "text";
+        File snapshot = file;
+        if (isLatestSnapshot(mappedFile, binaryFile)) {
+            format = "mapped";
+            snapshot = mappedFile;
+        } else if (isLatestSnapshot(binaryFile, mappedFile)) {
+            format = "binary";
+            snapshot = binaryFile;
+        }
+        EventList eventList = readEvents(ui);
+        detailsLog.read(eventList);
+        commitTrace(trace, format, snapshot, eventList.getNumEvents());
+        return eventList;
+    }
+
+    /**
+     * Writes the flight recorder event of a load, if a recording enables it.
+     */
+    private void commitTrace(LoadTrace trace, String format, File snapshot, int numEvents) {
+        if (trace.shouldCommit()) {
+            trace.format = format;
+            trace.numSnapshotBytes = snapshot.length();
+            trace.numJournalBytes = journalFile.length();
+            trace.numEvents = numEvents;
+            trace.commit();
+        }
+    }
+
+    /**
+     * Reads the event list from the latest snapshot and the journal.
+     */
+    private EventList readEvents(UI ui) {
+        EventList eventList = null;
+        if (isLatestSnapshot(mappedFile, binaryFile)) {
+            eventList = readMappedSnapshot();
+        } else if (isLatestSnapshot(binaryFile, mappedFile)) {
+            eventList = readBinarySnapshot();
+        }
+        if (eventList != null) {
+            System.out.print(ui.getLineSeparation());
+            System.out.println("Event list loaded!");
+            System.out.print(ui.getLineSeparation());
+            return replayJournal(eventList);
+        }
+        boolean isFound = openSaveFile(ui);
+        if (isFound && ParallelEventLoader.isWorthSplitting(file.length(), loadPool, minChunkBytes)) {
+            eventList = readEventListInParallel();
+            if (eventList != null) {
+                return replayJournal(eventList);
+            }
+        }
+        ArrayList<Event> events = new ArrayList<>();
+        ArrayList<RecurringSeries> seriesList = new ArrayList<>();
+        if (isFound) {
+            snapshotChecksum = readSnapshot(events, seriesList);
+        } else {
+            snapshotChecksum = new CRC32().getValue();
+        }
+        return replayJournal(new EventList(events, seriesList));
+    }
+
+    private File getMappedFile(int generation) {
+        return new File(pathWithoutExtension + ((generation == 0) ? "" : "." + generation) + MAPPED_EXTENSION);
+    }
+
+    /**
+     * Gets the generation of a mapped event archive from the name of its file.
+     *
+     * @return generation of the archive, -1 if the file is not an archive of this storage file
+     */
+    private int getMappedGeneration(String fileName) {
+        String name = new File(pathWithoutExtension).getName();
+        if (fileName.equals(name + MAPPED_EXTENSION)) {
+            return 0;
+        }
+        if (!fileName.startsWith(name + ".") || !fileName.endsWith(MAPPED_EXTENSION)) {
+            return -1;
+        }
+        String generation = fileName.substring(name.length() + 1, fileName.length() - MAPPED_EXTENSION.length());
+        return generation.matches("[1-9][0-9]{0,8}") ? Integer.parseInt(generation) : -1;
+    }
+
+    /**
+     * Lists the files in the directory of the storage file, an empty array if it cannot be read.
+     */
+    private String[] listFileNames() {
+        File directory = new File(pathWithoutExtension).getAbsoluteFile().getParentFile();
+        String[] fileNames = (directory == null) ? null : directory.list();
+        return (fileNames == null) ? new String[0] : fileNames;
+    }
+
+    private int findLatestMappedGeneration() {
+        int latestGeneration = 0;
+        for (String fileName : listFileNames()) {
+            latestGeneration = Math.max(latestGeneration, getMappedGeneration(fileName));
+        }
+        return latestGeneration;
+    }
+
+    /**
+     * Deletes the mapped event archives older than the latest one, which could not be deleted when they were
+     * replaced because they were still mapped. Called before the latest one is mapped.
+     */
+    private void deleteOldMappedFiles() {
+        for (String fileName : listFileNames()) {
+            int generation = getMappedGeneration(fileName);
+            if (generation >= 0 && generation < mappedGeneration) {
+                getMappedFile(generation).delete(); //may still be mapped by another list, then deleted next time
+            }
+        }
+    }
+
+    /**
+     * Checks whether a snapshot file exists and was written after both the storage file and the other
+     * snapshot file.
+     */
+    private boolean isLatestSnapshot(File snapshot, File otherSnapshot) {
+        return snapshot.isFile() && snapshot.lastModified() >= file.lastModified()
+                && (!otherSnapshot.isFile() || snapshot.lastModified() >= otherSnapshot.lastModified());
+    }
+
+    /**
+     * Reads the event list from the mapped event archive, without reading its events.
+     *
+     * @return event list of the snapshot, null if the archive could not be opened
+     */
+    private EventList readMappedSnapshot() {
+        MappedEventArchive archive;
+        try {
+            archive = MappedEventArchive.open(mappedFile);
+        } catch (IOException e) {
+            return null;
+        }
+        snapshotChecksum = archive.getChecksum();
+        return new EventList(new EventStore(archive, new BitSet()), archive.getSeriesList());
+    }
+
+    /**
+     * Reads the event list from the binary snapshot.
+     *
+     * @return event list of the snapshot, null if the binary snapshot could not be read
+     */
+    private EventList readBinarySnapshot() {
+        BinarySnapshot.Content content;
+        try {
+            content = BinarySnapshot.read(binaryFile);
+        } catch (IOException e) {
+            return null;
+        }
+        snapshotChecksum = content.getChecksum();
+        return new EventList(content.getEvents(), content.getSeriesList());
+    }
+
+    /**
+     * Reads the event list from the storage file in chunks on the common ForkJoinPool.
+     *
+     * @return event list of the snapshot, null if the file could not be read
+     */
+    private EventList readEventListInParallel() {
+        ParallelEventLoader loader = new ParallelEventLoader(file.toPath(), loadPool, minChunkBytes);
+        try {
+            snapshotChecksum = loader.readChunks();
+        } catch (IOException e) {
+            return null;
+        }
+        return loader.createEventList();
+    }
+
+    /**
+     * Reads the events in the storage file. Reading stops at the first error, keeping the events read before it.
+     *
+     * @return checksum of the lines read
+     */
+    private long readSnapshot(ArrayList<Event> events, ArrayList<RecurringSeries> seriesList) {
+        try (SaveFileReader reader = new SaveFileReader(file.toPath())) {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    EventList.parseRecord(line, events, seriesList);
+                }
+            } catch (IOException e) {
+                //keep the events read so far
             }
+            return reader.getChecksum();
+        } catch (IOException e) {
+            return new CRC32().getValue();
+        }
+    }
+
+    /**
+     * Reads the records of the journal, including its header.
+     *
+     * @return records of the journal, empty if it is missing or cannot be read
+     */
+    private ArrayList<String> readJournalRecords() {
+        try {
+            return readCompleteLines(journalFile);
+        } catch (IOException e) {
+            return new ArrayList<>();
         }
+    }
+
+    /**
+     * Checks whether the journal belongs to the snapshot with the given checksum.
+     */
+    private static boolean isJournalOf(ArrayList<String> records, long checksum) {
+        return !records.isEmpty() && records.get(0).equals(JOURNAL_HEADER_PREFIX + Long.toHexString(checksum));
+    }
 
-        return readFromFile;
+    /**
+     * Reads all lines of an appended file such as the journal, leaving out an incomplete last line left by an
+     * interrupted write.
+     */
+    static ArrayList<String> readCompleteLines(File appendedFile) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        if (!appendedFile.exists()) {
+            return lines;
+        }
+        String content = new String(Files.readAllBytes(appendedFile.toPath()));
+        int lineStart = 0;
+        int lineEnd = content.indexOf('\n');
+        while (lineEnd >= 0) {
+            lines.add(content.substring(lineStart, lineEnd));
+            lineStart = lineEnd + 1;
+            lineEnd = content.indexOf('\n', lineStart);
+        }
+        return lines;
     }
 
     /**
-     * Saves current information to the storage file.
+     * Saves current information to the storage file. Changes made since the last save are appended to
+     * the journal, and the whole list is only written to the storage file when the journal is compacted.
      *
      * @param events EventList where information is extracted to be saved
      * @param ui     User interface
      */
     public void saveToFile(EventList events, UI ui) {
-        String toWriteToFile = "";
-        for (Event currEvent : events.getEventArrayList()) {
-            toWriteToFile += currEvent.toStringForFile() + "\n";
+        checkBackgroundWrites(ui);
+        SaveTrace trace = new SaveTrace();
+        trace.begin();
+        long numBytesWrittenBefore = writer.getNumBytesWritten();
+        ArrayList<EventChange> changes = events.takePendingChanges();
+        boolean isSnapshotWritten = !isJournalValid || journalRecordCount + changes.size()
+                >= Math.max(MIN_RECORDS_BEFORE_COMPACTION, events.getNumEvents());
+        try {
+            if (isSnapshotWritten) {
+                writeSnapshot(events);
+            } else if (!changes.isEmpty()) {
+                appendToJournal(changes);
+            }
+        } catch (IOException exceptionInputOutput) {
+            isJournalValid = false; //journal may be missing changes, write everything on next save
+            ui.printErrorWritingToFile();
         }
+        try {
+            detailsLog.save(events.takePendingDetailChanges());
+        } catch (IOException exceptionInputOutput) {
+            ui.printErrorWritingToFile();
+        }
+        if (trace.shouldCommit()) {
+            trace.numChanges = changes.size();
+            trace.isSnapshotWritten = isSnapshotWritten;
+            trace.numBytes = writer.getNumBytesWritten() - numBytesWrittenBefore;
+            trace.commit();
+        }
+    }
 
+    /**
+     * Reads the instruments and their services saved.
+     *
+     * @param ui user interface
+     * @return list of instruments, empty if none were saved or they cannot be read
+     */
+    public InstrumentList readInstrumentList(UI ui) {
+        flush(ui);
         try {
-            FileWriter writer = new FileWriter(file);
-            writer.write(toWriteToFile);
-            writer.close();
+            return instrumentLog.read();
         } catch (IOException exceptionInputOutput) {
             ui.printErrorWritingToFile();
+            return new InstrumentList();
         }
     }
-}
 
+    /**
+     * Saves the instruments and services added since the last save, appending them to the instrument log.
+     *
+     * @param instruments list of instruments
+     * @param ui          user interface
+     */
+    public void saveInstruments(InstrumentList instruments, UI ui) {
+        checkBackgroundWrites(ui);
+        try {
+            instrumentLog.save(instruments);
+        } catch (IOException exceptionInputOutput) {
+            instrumentLog.invalidate();
+            ui.printErrorWritingToFile();
+        }
+    }
+
+    /**
+     * Appends a list of changes to the journal.
+     */
+    private void appendToJournal(ArrayList<EventChange> changes) throws IOException {
+        StringBuilder records = new StringBuilder();
+        for (EventChange change : changes) {
+            records.append(change.getChangeType()).append(change.isSeriesChange() ? SERIES_RECORD : EVENT_RECORD);
+            appendPosition(records, change.getOldPosition()).append('/');
+            appendPosition(records, change.getNewPosition()).append('/');
+            if (change.getNewLine() != null) {
+                records.append(change.getNewLine());
+            }
+            records.append('\n');
+        }
+
+        writer.append(journalFile, records.toString().getBytes());
+        journalRecordCount += changes.size();
+    }
+
+    private static StringBuilder appendPosition(StringBuilder records, int position) {
+        return (position == EventChange.NO_POSITION) ? records : records.append(position);
+    }
+
+    /**
+     * Compacts all changes into a new snapshot of the whole list and starts a new journal. The snapshot is
+     * written to a temporary file first, so a crash while writing never loses the previous snapshot.
+     */
+    private void writeSnapshot(EventList events) throws IOException {
+        if (isMappedSnapshotUsed) {
+            File previousMappedFile = mappedFile;
+            mappedGeneration++;
+            mappedFile = getMappedFile(mappedGeneration); //the previous archive may still be mapped by the list
+            writeSnapshot(events, mappedFile, MappedEventArchive::write, MappedEventArchive::getChecksum);
+            writer.delete(binaryFile);
+            writer.deleteIfUnused(previousMappedFile);
+            return;
+        }
+        if (isBinarySnapshotUsed) {
+            writeSnapshot(events, binaryFile, BinarySnapshot::write, BinarySnapshot::getChecksum);
+            writer.deleteIfUnused(mappedFile);
+            return;
+        }
+        writeSnapshot(events, file, Storage::writeTextSnapshot, Storage::getTextChecksum);
+        writer.delete(binaryFile); //the storage file now holds the latest snapshot
+        writer.deleteIfUnused(mappedFile);
+    }
+
+    /**
+     * Writes the content of a snapshot of a list.
+     */
+    private interface SnapshotFormat {
+        byte[] write(EventStore individualEvents, ArrayList<RecurringSeries> seriesList) throws IOException;
+    }
+
+    /**
+     * Writes a snapshot of the list and a new journal belonging to it. Only a copy of the list is made on the
+     * calling thread; the snapshot is built from the copy by the writer, on its background thread once started,
+     * so that the command compacting the journal does not wait for the whole list to be written. The journal
+     * is only replaced once the snapshot is written, and changes saved after this are appended to it.
+     *
+     * @param snapshotFile file the snapshot is written to
+     * @param format       format of the snapshot
+     * @param checksum     gets the checksum of the content of a snapshot
+     */
+    private void writeSnapshot(EventList events, File snapshotFile, SnapshotFormat format,
+                               ToLongFunction<byte[]> checksum) throws IOException {
+        EventStore individualEvents = events.getIndividualEvents().copy();
+        ArrayList<RecurringSeries> seriesList = new ArrayList<>();
+        for (RecurringSeries series : events.getRecurringSeriesList()) {
+            seriesList.add(series.copy());
+        }
+        writer.run(() -> {
+            byte[] snapshot = format.write(individualEvents, seriesList);
+            SaveFileWriter.replaceAtomically(snapshotFile, snapshot);
+            byte[] header = (JOURNAL_HEADER_PREFIX + Long.toHexString(checksum.applyAsLong(snapshot)) + "\n")
+                    .getBytes();
+            SaveFileWriter.replaceAtomically(journalFile, header);
+            return snapshot.length + header.length;
+        });
+        isJournalValid = true;
+        journalRecordCount = 0;
+    }
+
+    /**
+     * Writes the whole list to a file in the text format of the storage file, e.g. to export it while
+     * binary snapshots are used. Exporting to the storage file itself saves the list there as a new snapshot.
+     * The file is completely written when this returns, even while writes are made on a background thread.
+     *
+     * @param events EventList to be written
+     * @param target file to write to
+     * @throws IOException if the file cannot be written
+     */
+    public void exportToText(EventList events, File target) throws IOException {
+        if (!target.getAbsoluteFile().equals(file.getAbsoluteFile())) {
+            writer.replace(target, writeTextSnapshot(events.getIndividualEvents(), events.getRecurringSeriesList()));
+        } else {
+            events.takePendingChanges(); //all changes are in the new snapshot
+            writeSnapshot(events, file, Storage::writeTextSnapshot, Storage::getTextChecksum);
+            writer.delete(binaryFile);
+            writer.deleteIfUnused(mappedFile);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the whole list in text format.
+     *
+     * @return content of the storage file
+     */
+    private static byte[] writeTextSnapshot(EventStore individualEvents, ArrayList<RecurringSeries> seriesList) {
+        StringBuilder toWriteToFile = new StringBuilder();
+        for (int i = 0; i < individualEvents.size(); i++) {
+            //events still in an archive are not kept
+            toWriteToFile.append(individualEvents.read(i).toStringForFile()).append('\n');
+        }
+        for (RecurringSeries series : seriesList) {
+            toWriteToFile.append(series.toStringForFile()).append('\n');
+        }
+        return toWriteToFile.toString().getBytes();
+    }
+
+    /**
+     * Gets the checksum of the lines of a storage file, which is that of its whole content.
+     */
+    private static long getTextChecksum(byte[] content) {
+        CRC32 checksum = new CRC32();
+        checksum.update(content);
+        return checksum.getValue();
+    }
+
+    /**
+     * Adds a line of the storage file to a checksum.
+     */
+    private static void updateChecksum(CRC32 checksum, String line) {
+        checksum.update(line.getBytes());
+        checksum.update('\n');
+    }
+}
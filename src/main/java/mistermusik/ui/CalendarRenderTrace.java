@@ -0,0 +1,22 @@
+package mistermusik.ui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of rendering the calendar of a week.
+ */
+@Name("mistermusik.CalendarRender")
+@Label("Calendar Render")
+@Category({"MisterMusik", "UI"})
+@Description("Rendering the table of the events of a week")
+class CalendarRenderTrace extends Event {
+    @Label("Events")
+    int numEvents;
+
+    @Label("Characters")
+    int numCharacters;
+}
@@ -30,12 +30,11 @@ public class CalendarView {
      * @param startDate The start date of calendar.
      */
     public CalendarView(EventList eventList, EventDate startDate) {
-        ArrayList<Event> eventArrayList = eventList.getEventArrayList();
         for (int i = 0; i < 7; i++) {
             eventsOfTheWeek.add(new LinkedList<>());
         }
         setDaysAndDatesList(startDate);
-        getEventsOfTheWeek(eventArrayList, startDate);
+        getEventsOfTheWeek(eventList, startDate);
     }
 
     public String getStringForOutput() {
@@ -43,36 +42,17 @@ public class CalendarView {
     }
 
     /**
-     * Find all the events in the coming 7 days.
+     * Find all the events in the coming 7 days, using binary search on the sorted list of events.
      *
-     * @param eventArrayList List of all events.
-     * @param startDay       The current day.
+     * @param eventList List of all events.
+     * @param startDay  The current day.
      */
-    private void getEventsOfTheWeek(ArrayList<Event> eventArrayList, EventDate startDay) {
-        EventDate yesterday = new EventDate(startDay.getEventJavaDate());
-        yesterday.addDaysAndSetMidnight(-1);
-        EventDate endOfWeek = new EventDate(startDay.getEventJavaDate());
-        endOfWeek.addDaysAndSetMidnight(6);
-        EventDate thisDay = new EventDate(startDay.getEventJavaDate());
-        thisDay.addDaysAndSetMidnight(0);
-
-        int currentlyChecking = 0;
-        for (Event thisEvent : eventArrayList) {
-            //if this event is within the next 6 days
-            if ((thisEvent.getStartDate().compare(endOfWeek) <= 0)
-                    && (thisEvent.getStartDate().compare(yesterday) > 0)) {
-                while ((thisEvent.getStartDate().compare(thisDay) > 0) && (currentlyChecking < 7)) {
-                    currentlyChecking++;
-                    thisDay.addDaysAndSetMidnight(1);
-                }
-                if (currentlyChecking < 7) {
-                    eventsOfTheWeek.get(currentlyChecking).offer(thisEvent);
-                }
-            } else if (thisEvent.getStartDate().compare(yesterday) <= 0) {
-                continue;
-            } else {
-                break;
-            }
+    private void getEventsOfTheWeek(EventList eventList, EventDate startDay) {
+        long startOfWeek = startDay.getEpochDay() * EventDate.MINUTES_PER_DAY;
+        long endOfWeek = startOfWeek + 7 * EventDate.MINUTES_PER_DAY;
+        for (Event thisEvent : eventList.getEventsStartingBetween(startOfWeek, endOfWeek)) {
+            long minutesIntoWeek = thisEvent.getStartDate().getEpochMinute() - startOfWeek;
+            eventsOfTheWeek.get((int) (minutesIntoWeek / EventDate.MINUTES_PER_DAY)).offer(thisEvent);
         }
     }
 
@@ -135,12 +115,16 @@ public class CalendarView {
      * Put all information of a calendar table into the string "stringForOutput" to prepare for printing.
      */
     public void setCalendarInfo() {
+        CalendarRenderTrace trace = new CalendarRenderTrace();
+        trace.begin();
         String calendarInfo = "";
         int maxNumOfEvent = 0;
+        int numOfEvents = 0;
         for (Queue<Event> thisQue : eventsOfTheWeek) {
             if (thisQue.size() > maxNumOfEvent) {
                 maxNumOfEvent = thisQue.size();
             }
+            numOfEvents += thisQue.size();
         }
 
         // head of table
@@ -183,6 +167,11 @@ public class CalendarView {
                 + "__________________________________________________________________"
                 + "______________________________________________________";
         this.stringForOutput = calendarInfo;
+        if (trace.shouldCommit()) {
+            trace.numEvents = numOfEvents;
+            trace.numCharacters = calendarInfo.length();
+            trace.commit();
+        }
     }
 
     /**
@@ -2,9 +2,11 @@ package mistermusik.ui;
 
 import mistermusik.commons.Contact;
 import mistermusik.commons.Goal;
+import mistermusik.commons.budgeting.BudgetSimulation;
 import mistermusik.commons.events.eventtypes.Event;
 import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
 import mistermusik.logic.EventList;
+import mistermusik.logic.TimeSlot;
 
 import java.util.ArrayList;
 import java.util.Queue;
@@ -17,6 +19,15 @@ import java.util.Queue;
 public class UI {
     private static String lineSeparation = "____________________________________________________________\n";
 
+    private int numErrors = 0;
+
+    /**
+     * Gets the number of error messages printed so far, e.g. for invalid commands, clashes or failed saves.
+     */
+    public int getNumErrors() {
+        return numErrors;
+    }
+
     /**
      * Prints welcome message and instructions for use.
      */
@@ -58,12 +69,21 @@ public class UI {
         System.out.println("2.  \"list\"                     -- Print out all the events in the list.");
         System.out.println("3.  \"reminder [number of days]\""
                 + "-- Display the list of events over the next given number (default 3) days.");
-        System.out.println("4.  \"check\"                    -- Print the next 3 free days.");
-        System.out.println("5.  \"find <keyword>\"           -- Search for a specific event using keywords.");
-        System.out.println("6.  \"view dd-MM-yyyy\"          -- Print the event list for a particular date.");
-        System.out.println("7.  \"budget MM-yyyy\"           -- View monthly cost of concerts");
-        System.out.println("8.  \"budget set <new budget>\"  -- Set new monthly budget");
-        System.out.println("9.  \"bye\"                      -- Exit the program.");
+        System.out.println("4.  \"check [number of days] [dd-MM-yyyy dd-MM-yyyy]\""
+                + "-- Print the next free days (default 3), optionally between two dates.");
+        System.out.println("5.  \"free <number of slots> <minutes> [HHmm HHmm]\""
+                + "-- Print the next free slots of at least the given length, optionally between two times of day.");
+        System.out.println("6.  \"find <keyword>\"           -- Search for a specific event using keywords.");
+        System.out.println("7.  \"view dd-MM-yyyy\"          -- Print the event list for a particular date.");
+        System.out.println("8.  \"budget MM-yyyy\"           -- View monthly cost of concerts");
+        System.out.println("9.  \"budget set <new budget>\"  -- Set new monthly budget");
+        System.out.println("10. \"budget total|rolling|over|simulate\" -- View concert costs over several months,"
+                + " or with concerts added or removed (enter \"budget\" for details)");
+        System.out.println("11. \"stats [on|off|reset]\"      -- Print the time taken by each type of command,"
+                + " or start, stop or reset measuring it.");
+        System.out.println("12. \"export <file>\"            -- Write all events to a file in the format of the"
+                + " save file.");
+        System.out.println("13. \"bye\"                      -- Exit the program.");
         System.out.println("-----More Commands-----");
         System.out.println("1.  \"help calendar\"   -- To see commands about calendar.");
         System.out.println("2.  \"help event\"      -- To see commands about how to add or delete event.");
@@ -187,6 +207,7 @@ public class UI {
      * Prints when the period of recurring events is not a positive integer.
      */
     public void printPeriodNotPositive() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("Please ensure that the period is a positive integer.");
         System.out.print(lineSeparation);
@@ -243,6 +264,7 @@ public class UI {
      * Prints when the event has no contact.
      */
     public void printNoContactInEvent() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("Do not have any contact in this event.");
         System.out.print(lineSeparation);
@@ -252,6 +274,7 @@ public class UI {
      * Prints when the contact list does not have the contact asked to be edited or deleted.
      */
     public void printNoSuchContact() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("Sorry, there is no such contact in the list.");
         System.out.print(lineSeparation);
@@ -261,6 +284,7 @@ public class UI {
      * Prints when the reschedule command invalid.
      */
     public void printRescheduleInvalidCommand() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("Please enter command in the following format:\n"
                 + "reschedule <taskIndex> dd-MM-yyyy HHmm HHmm\n"
@@ -284,6 +308,7 @@ public class UI {
      * Prints when contact command is invalid.
      */
     public void printContactCommandInvalid() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("The format of contact management command is wrong.");
         System.out.println("Please enter \"help contact\" to see the right commands.");
@@ -321,6 +346,7 @@ public class UI {
      * Prints a message when an invalid command is entered.
      */
     public void printInvalidCommand() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("Sorry! I don't know what that means.");
         System.out.print(lineSeparation);
@@ -422,6 +448,7 @@ public class UI {
      * Prints message if command does not contain valid input for related event.
      */
     public void printNoSuchEvent() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("There is no such event! Please try again.");
         System.out.print(lineSeparation);
@@ -431,6 +458,7 @@ public class UI {
      * Prints message if no event description is found when adding a new event to the list.
      */
     public void printEventDescriptionEmpty() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("The description of your event cannot be empty!");
         System.out.print(lineSeparation);
@@ -440,6 +468,7 @@ public class UI {
      * Prints when checklist command is invalid.
      */
     public void printChecklistCommandInvalid() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("The format of checklist command is wrong.");
         System.out.println("Please enter \"help checklist\" to see the right format.");
@@ -450,9 +479,18 @@ public class UI {
      * Prints when budget command is invalid.
      */
     public void printBudgetCommandInvalid() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("Please enter \"budget MM-yyyy\" to view monthly cost of concerts.");
         System.out.println("Please enter \"budget set <new budget>\" to change the stipulated monthly budget");
+        System.out.println("Please enter \"budget total MM-yyyy MM-yyyy\" to view the cost of concerts over a range of "
+                + "months.");
+        System.out.println("Please enter \"budget rolling MM-yyyy [number of months]\" to view the cost of concerts "
+                + "over the months (default 3) up to a given month.");
+        System.out.println("Please enter \"budget over yyyy\" to view the months of a year over budget.");
+        System.out.println("Please enter \"budget simulate <change>; <change>...\" to view the cost of concerts with "
+                + "changes tried out, each of \"remove <event number>\", \"add <description>/dd-MM-yyyy HHmm HHmm/"
+                + "<cost>\" or \"set <budget>\".");
         System.out.print(lineSeparation);
     }
 
@@ -460,6 +498,7 @@ public class UI {
      * Prints when view command is invalid.
      */
     public void printViewCommandInvalid() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("The format of view command is wrong.");
         System.out.println("Please enter \"view dd-MM-yyyy\" to view the events of a particular date.");
@@ -470,6 +509,7 @@ public class UI {
      * Prints when goal command is invalid.
      */
     public void printGoalCommandInvalid() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("The format of goal management command is wrong.");
         System.out.println("Please enter \"help goal\" to see the right commands.");
@@ -480,6 +520,7 @@ public class UI {
      * Prints error message when user enters timing for an event that ends before it starts.
      */
     public void printEventEndsBeforeStart() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("The event you added ends before it starts! Please try again.");
         System.out.print(lineSeparation);
@@ -489,6 +530,7 @@ public class UI {
      * Prints message when expected number from input is not an integer.
      */
     public void printNotAnInteger() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("That is not a valid integer! Please check the value you entered!");
         System.out.print(lineSeparation);
@@ -498,6 +540,7 @@ public class UI {
      * Prints message when input format is wrong for addition of new event type event.
      */
     public void printNewEntryFormatWrong() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("Please enter the date in the format 'dd-MM-yyyy HHmm HHmm' for Event"
                 + " or 'dd-MM-yyyy' for ToDo.\n"
@@ -510,6 +553,7 @@ public class UI {
      * Prints when the command relative to calender is invalid.
      */
     public void printInvalidCalendarCommand() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("The format of calendar command is wrong.");
         System.out.println("Please enter \"help calendar\" to see right format.");
@@ -522,6 +566,7 @@ public class UI {
      * @param event The existed event that is clashing with.
      */
     public void printScheduleClash(Event event) {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("That event clashes with another in the schedule! "
                 + "Please resolve the conflict and try again!");
@@ -530,23 +575,48 @@ public class UI {
     }
 
     /**
-     * Prints next 3 days that are free.
+     * Prints the free days found by the check command.
      *
-     * @param freeDays queue of free days of type DateObj
+     * @param freeDays queue of free days in display format
      */
     public void printFreeDays(Queue<String> freeDays) {
         System.out.print(lineSeparation);
-        System.out.println("Here are the next 3 free days!");
-        for (int i = 0; i <= freeDays.size(); i++) {
+        if (freeDays.isEmpty()) {
+            System.out.println("There are no free days in that period!");
+        } else {
+            System.out.println("Here are the next " + freeDays.size() + " free day(s)!");
+        }
+        while (!freeDays.isEmpty()) {
             System.out.println(freeDays.poll());
         }
         System.out.print(lineSeparation);
     }
 
+    /**
+     * Prints the free slots found by the free command.
+     *
+     * @param freeSlots list of free slots in order of start
+     * @param minutes   minimum length of the slots in minutes
+     */
+    public void printFreeSlots(ArrayList<TimeSlot> freeSlots, int minutes) {
+        System.out.print(lineSeparation);
+        if (freeSlots.isEmpty()) {
+            System.out.println("There are no free slots of " + minutes + " minutes in those hours!");
+        } else {
+            System.out.println("Here are the next " + freeSlots.size() + " free slot(s) of at least " + minutes
+                    + " minutes!");
+        }
+        for (TimeSlot freeSlot : freeSlots) {
+            System.out.println(freeSlot.toString());
+        }
+        System.out.print(lineSeparation);
+    }
+
     /**
      * Prints error message if Storage class fails to write to txt file.
      */
     public void printErrorWritingToFile() {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("Error writing to file! Details not saved!");
         System.out.print(lineSeparation);
@@ -591,6 +661,7 @@ public class UI {
      * @param budget  The cost of this concert.
      */
     public void printCostExceedsBudgetMsg(Concert concert, int budget) {
+        numErrors++;
         System.out.print(lineSeparation);
         System.out.println("The following concert you wanted to add causes you to "
                 + "exceed the stipulated budget for that month!");
@@ -614,6 +685,80 @@ public class UI {
         System.out.print(lineSeparation);
     }
 
+    /**
+     * Prints total concert costs for a range of months.
+     *
+     * @param fromMonthAndYear first month of the range in MM-yyyy format
+     * @param toMonthAndYear   last month of the range in MM-yyyy format
+     * @param cost             total concert costs
+     */
+    public static void printCostBetween(String fromMonthAndYear, String toMonthAndYear, long cost) {
+        System.out.print(lineSeparation);
+        System.out.println("Your total concert costs from " + fromMonthAndYear + " to " + toMonthAndYear + " is:");
+        System.out.println("$" + cost);
+        System.out.print(lineSeparation);
+    }
+
+    /**
+     * Prints total concert costs for a number of months ending with a given month.
+     *
+     * @param monthAndYear last month in MM-yyyy format
+     * @param numMonths    number of months
+     * @param cost         total concert costs
+     */
+    public static void printRollingCost(String monthAndYear, int numMonths, long cost) {
+        System.out.print(lineSeparation);
+        System.out.println("Your total concert costs for the " + numMonths + " month(s) up to " + monthAndYear
+                + " is:");
+        System.out.println("$" + cost);
+        System.out.print(lineSeparation);
+    }
+
+    /**
+     * Prints the months of a year in which concert costs exceed the budget.
+     *
+     * @param year             year checked
+     * @param monthsOverBudget months over budget in MM-yyyy format
+     * @param costs            concert costs of each month over budget
+     * @param budget           current monthly budget
+     */
+    public static void printMonthsOverBudget(int year, ArrayList<String> monthsOverBudget, ArrayList<Integer> costs,
+                                             int budget) {
+        System.out.print(lineSeparation);
+        if (monthsOverBudget.isEmpty()) {
+            System.out.println("No month of " + year + " exceeds your monthly budget of $" + budget + "!");
+        } else {
+            System.out.println("These months of " + year + " exceed your monthly budget of $" + budget + ":");
+            for (int i = 0; i < monthsOverBudget.size(); i++) {
+                System.out.println(monthsOverBudget.get(i) + ": $" + costs.get(i));
+            }
+        }
+        System.out.print(lineSeparation);
+    }
+
+    /**
+     * Prints the concert costs of each month changed in a simulation of adding and removing concerts.
+     *
+     * @param changedMonths results of the simulation for each month changed, in order of month
+     * @param budget        monthly budget used in the simulation
+     */
+    public static void printBudgetSimulation(ArrayList<BudgetSimulation.MonthResult> changedMonths, int budget) {
+        System.out.print(lineSeparation);
+        if (changedMonths.isEmpty()) {
+            System.out.println("No month is changed, your monthly budget is $" + budget + ".");
+        } else {
+            System.out.println("With these changes, your concert costs against a monthly budget of $" + budget
+                    + " would be:");
+            for (BudgetSimulation.MonthResult result : changedMonths) {
+                String overBudget = (result.getAmountOverBudget() > 0)
+                        ? " (over budget by $" + result.getAmountOverBudget() + ")" : "";
+                System.out.println(result.getMonthAndYear() + ": $" + result.getOldCost() + " -> $"
+                        + result.getNewCost() + overBudget);
+            }
+        }
+        System.out.print(lineSeparation);
+    }
+
     /**
      * Prints error message signifying that there are no concerts in the month
      * that the user requested to view costs for.
@@ -829,6 +974,7 @@ public class UI {
      * Prints when trying to set as achieved but achieved already.
      */
     public void printGoalAlreadyAchieved() {
+        numErrors++;
         System.out.println(lineSeparation);
         System.out.println("Your goal for that event has already been achieved!");
         System.out.println(lineSeparation);
@@ -838,6 +984,7 @@ public class UI {
      * Prints when no such goal.
      */
     public void printNoSuchGoal() {
+        numErrors++;
         System.out.println(lineSeparation);
         System.out.println("Sorry, the specified goal does not exist!");
         System.out.println(lineSeparation);
@@ -873,4 +1020,52 @@ public class UI {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Prints the metrics of the commands executed.
+     *
+     * @param report table of the metrics
+     */
+    public void printStats(String report) {
+        System.out.print(lineSeparation);
+        System.out.print(report);
+        System.out.print(lineSeparation);
+    }
+
+    /**
+     * Prints where the list of events was exported to.
+     *
+     * @param fileName name of the file written
+     */
+    public void printEventsExported(String fileName) {
+        System.out.print(lineSeparation);
+        System.out.println("Ok, all events have been written to " + fileName + ".");
+        System.out.print(lineSeparation);
+    }
+
+    /**
+     * Prints the summary of a script of commands run in batch mode.
+     *
+     * @param numCommands number of commands run
+     * @param millis      time taken in milliseconds, including saving the changes
+     * @param failures    line number and text of each command that failed
+     */
+    public void printBatchSummary(int numCommands, long millis, ArrayList<String> failures) {
+        System.out.print(lineSeparation);
+        System.out.println("Ran " + numCommands + " commands in " + millis + " ms, " + failures.size() + " failed"
+                + (failures.isEmpty() ? "." : ":"));
+        for (String failure : failures) {
+            System.out.println("  " + failure);
+        }
+        System.out.print(lineSeparation);
+    }
+
+    /**
+     * Prints whether metrics of the commands are recorded, after they are turned on or off or reset.
+     */
+    public void printStatsEnabled(boolean isEnabled) {
+        System.out.print(lineSeparation);
+        System.out.println(isEnabled ? "Ok, the time taken by each command is now measured. Enter \"stats\" to see it."
+                : "Ok, commands are not measured. Enter \"stats on\" to measure them.");
+        System.out.print(lineSeparation);
+    }
+}
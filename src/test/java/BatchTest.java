@@ -0,0 +1,83 @@
+import mistermusik.Main;
+import mistermusik.logic.Command;
+import mistermusik.storage.Storage;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchTest {
+    /**
+     * Tests that changes are only saved by saveChanges while saves are deferred, and that failed commands are
+     * counted as errors.
+     */
+    @Test
+    public void saveDeferredTest() throws IOException {
+        File saveFile = CommandFixture.createSaveFile("XP/Horn practice/07-11-2030 1500/07-11-2030 1600\n");
+        CommandFixture fixture = new CommandFixture(saveFile);
+        Command.setSaveDeferred(true);
+        try {
+            for (String command : new String[]{"todo Print scores /09-11-2030", "unknown",
+                "practice Scales /07-11-2030 1530 1630", "lesson Cello /08-11-2030 1500 1600"}) {
+                fixture.execute(command);
+            }
+            assertEquals(2, fixture.ui.getNumErrors()); //the unknown command and the clashing practice
+            fixture.storage.flush(fixture.ui);
+            assertEquals(1, new Storage(saveFile).readEventList(fixture.ui).getNumEvents());
+
+            Command.saveChanges(fixture.events, fixture.instruments, fixture.ui, fixture.storage);
+            fixture.storage.flush(fixture.ui);
+            assertEquals(3, new Storage(saveFile).readEventList(fixture.ui).getNumEvents());
+        } finally {
+            Command.setSaveDeferred(false);
+        }
+    }
+
+    /**
+     * Tests that a script is run up to its "bye" line with blank lines skipped, that changes are saved every
+     * given number of commands, and that failed commands are reported with their line numbers.
+     */
+    @Test
+    public void runScriptTest() throws IOException {
+        CommandFixture fixture = new CommandFixture("XP/Horn practice/07-11-2030 1500/07-11-2030 1600\n");
+        String script = "todo Print scores /09-11-2030\n"
+                + "\n"
+                + "view 31-02-2030\n"
+                + "   \n"
+                + "practice Scales /07-11-2030 1530 1630\n"
+                + "lesson Cello /08-11-2030 1500 1600\n"
+                + "view 07-11-2030\n"
+                + " bye \n"
+                + "todo Never run /10-11-2030\n";
+        int[] numSaves = {0};
+        ArrayList<String> failures = new ArrayList<>();
+        Command.setSaveDeferred(true);
+        try {
+            int numCommands = Main.runScript(new BufferedReader(new StringReader(script)), fixture.ui,
+                    fixture::execute, 2, () -> numSaves[0]++, failures);
+            assertEquals(5, numCommands);
+            assertEquals(2, numSaves[0]);
+            assertEquals(Arrays.asList("line 3: view 31-02-2030", "line 5: practice Scales /07-11-2030 1530 1630"),
+                    failures);
+            assertEquals(3, fixture.events.getNumEvents());
+        } finally {
+            Command.setSaveDeferred(false);
+        }
+
+        Reader unreadableScript = new StringReader("todo Print scores /09-11-2030\n");
+        unreadableScript.close();
+        failures.clear();
+        assertEquals(0, Main.runScript(new BufferedReader(unreadableScript), fixture.ui, command -> { }, 1,
+                () -> { }, failures));
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0).startsWith("could not read the script: "));
+    }
+}
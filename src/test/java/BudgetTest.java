@@ -1,4 +1,5 @@
 //@@author Ryan-Wong-Ren-Wei
+import mistermusik.commons.budgeting.BudgetSimulation;
 import mistermusik.commons.budgeting.Budgeting;
 import mistermusik.commons.budgeting.CostExceedsBudgetException;
 import mistermusik.commons.events.eventtypes.Event;
@@ -9,6 +10,7 @@ import mistermusik.logic.EventList;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -79,4 +81,109 @@ public class BudgetTest {
                     "2-12-2019 1600", 61));
         });
     }
+
+    @Test
+    public void testLoadInAnyOrder() {
+        ArrayList<String> readFromFile = new ArrayList<String>();
+        readFromFile.add("XC/december/04-12-2019 1600/04-12-2019 1930/5");
+        readFromFile.add("XC/january/04-01-2020 1600/04-01-2020 1930/7");
+        readFromFile.add("XC/december again/24-12-2019 1600/24-12-2019 1930/11");
+        Budgeting testBudgeting = new Budgeting(new EventList(readFromFile).getEventArrayList(), 50);
+        assertEquals(16, testBudgeting.getCostForMonth("12-2019"));
+        assertEquals(7, testBudgeting.getCostForMonth("01-2020"));
+        assertThrows(NullPointerException.class, () -> testBudgeting.getCostForMonth("02-2020"));
+    }
+
+    @Test
+    public void testRemoveConcertWithSameStart() throws CostExceedsBudgetException {
+        Budgeting testBudgeting = new Budgeting(new ArrayList<Event>(), 50);
+        Concert cheapConcert = new Concert("cheap", "02-12-2019 1500", "02-12-2019 1600", 5);
+        Concert expensiveConcert = new Concert("expensive", "02-12-2019 1500", "02-12-2019 1600", 40);
+        testBudgeting.updateMonthlyCost(cheapConcert);
+        testBudgeting.updateMonthlyCost(expensiveConcert);
+
+        //the concert removed is the one given, not the first one with the same start
+        testBudgeting.removeMonthlyCost(expensiveConcert);
+        assertEquals(5, testBudgeting.getCostForMonth("12-2019"));
+        testBudgeting.removeMonthlyCost(expensiveConcert);
+        assertEquals(5, testBudgeting.getCostForMonth("12-2019"));
+        testBudgeting.removeMonthlyCost(cheapConcert);
+        assertThrows(NullPointerException.class, () -> testBudgeting.getCostForMonth("12-2019"));
+    }
+
+    @Test
+    public void testCostOverSeveralMonths() throws CostExceedsBudgetException {
+        Budgeting testBudgeting = new Budgeting(new ArrayList<Event>(), 50);
+        testBudgeting.updateMonthlyCost(new Concert("nov", "02-11-2019 1500", "02-11-2019 1600", 10));
+        testBudgeting.updateMonthlyCost(new Concert("dec", "02-12-2019 1500", "02-12-2019 1600", 20));
+        Concert januaryConcert = new Concert("jan", "02-01-2020 1500", "02-01-2020 1600", 40);
+        testBudgeting.updateMonthlyCost(januaryConcert);
+        testBudgeting.updateMonthlyCost(new Concert("jun", "02-06-2020 1500", "02-06-2020 1600", 30));
+
+        assertEquals(70, testBudgeting.getCostBetween("11-2019", "01-2020"));
+        assertEquals(100, testBudgeting.getCostBetween("01-2000", "12-2099"));
+        assertEquals(0, testBudgeting.getCostBetween("01-2020", "12-2019"));
+        assertEquals(60, testBudgeting.getRollingCost("02-2020", 3));
+        assertEquals(30, testBudgeting.getRollingCost("06-2020", 1));
+        assertThrows(NumberFormatException.class, () -> testBudgeting.getCostBetween("13-2019", "01-2020"));
+
+        testBudgeting.removeMonthlyCost(januaryConcert);
+        assertEquals(30, testBudgeting.getCostBetween("11-2019", "01-2020"));
+
+        testBudgeting.setBudget(15);
+        assertEquals(Arrays.asList("12-2019"), testBudgeting.getMonthsOverBudget(2019));
+        assertEquals(Arrays.asList("06-2020"), testBudgeting.getMonthsOverBudget(2020));
+    }
+
+    @Test
+    public void testSimulationLeavesBudgetUnchanged() throws CostExceedsBudgetException {
+        Budgeting testBudgeting = new Budgeting(new ArrayList<Event>(), 50);
+        Concert decemberConcert = new Concert("dec", "02-12-2019 1500", "02-12-2019 1600", 30);
+        testBudgeting.updateMonthlyCost(decemberConcert);
+
+        BudgetSimulation simulation = testBudgeting.simulate();
+        for (int day = 10; day < 22; day++) {
+            String date = day + "-" + ((day < 16) ? "12-2019" : "01-2020");
+            simulation.addConcert(new Concert("planned", date + " 1500", date + " 1600", 5));
+        }
+        assertEquals(60, simulation.getCostForMonth("12-2019"));
+        assertEquals(30, simulation.getCostForMonth("01-2020"));
+        assertEquals(1, simulation.getMonthsOverBudget().size());
+        assertEquals("12-2019", simulation.getMonthsOverBudget().get(0).getMonthAndYear());
+        assertEquals(10, simulation.getMonthsOverBudget().get(0).getAmountOverBudget());
+
+        //removing a concert already booked brings the month back under budget
+        simulation.removeConcert(decemberConcert).removeConcert(decemberConcert);
+        assertEquals(0, simulation.getMonthsOverBudget().size());
+        assertEquals(2, simulation.getChangedMonths().size());
+        assertEquals(30, simulation.getChangedMonths().get(0).getOldCost());
+        assertEquals(30, simulation.getChangedMonths().get(0).getNewCost());
+        assertEquals(2, simulation.setBudget(25).getMonthsOverBudget().size());
+
+        //the real budgets are unchanged
+        assertEquals(30, testBudgeting.getCostForMonth("12-2019"));
+        assertThrows(NullPointerException.class, () -> testBudgeting.getCostForMonth("01-2020"));
+        assertEquals(50, testBudgeting.getBudget());
+    }
+
+    @Test
+    public void testSimulateCommand() throws Exception {
+        CommandFixture fixture = new CommandFixture("XT/Buy reeds/02-12-2019\n"
+                + "XC/halloween/04-12-2019 1600/04-12-2019 1930/30\n"
+                + "XC/esplanade/12-01-2020 1500/12-01-2020 1600/20\n");
+        fixture.execute("budget simulate remove 2; add gala/20-12-2019 1500 1700/45; set 40");
+        fixture.execute("budget simulate add gala/20-12-2019 1500 1700/45");
+        assertEquals(0, fixture.ui.getNumErrors());
+
+        //the list and the real budgets are unchanged
+        assertEquals(3, fixture.events.getNumEvents());
+        assertEquals(30, fixture.events.getBudgeting().getCostForMonth("12-2019"));
+        assertEquals(50, fixture.events.getBudgeting().getBudget());
+
+        fixture.execute("budget simulate remove 1"); //not a concert
+        fixture.execute("budget simulate remove 4");
+        fixture.execute("budget simulate add gala/1500 1700/45");
+        fixture.execute("budget simulate cancel 2");
+        assertEquals(4, fixture.ui.getNumErrors());
+    }
 }
@@ -0,0 +1,51 @@
+import mistermusik.commons.events.formatting.EventDate;
+import mistermusik.commons.instruments.InstrumentList;
+import mistermusik.logic.EventList;
+import mistermusik.storage.Storage;
+import mistermusik.ui.Parser;
+import mistermusik.ui.UI;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Date;
+
+/**
+ * Event list loaded from a save file in a new temporary directory, with what is needed to run commands on it.
+ */
+class CommandFixture {
+    final UI ui = new UI();
+    final Storage storage;
+    final EventList events;
+    final InstrumentList instruments = new InstrumentList();
+    private final Parser parser = new Parser();
+    private final EventDate calendarStartDate = new EventDate(new Date());
+
+    CommandFixture(String content) throws IOException {
+        this(createSaveFile(content));
+    }
+
+    CommandFixture(File saveFile) {
+        storage = new Storage(saveFile);
+        events = storage.readEventList(ui);
+    }
+
+    /**
+     * Parses and executes a command on the event list, with the calendar not printed after it.
+     */
+    void execute(String command) {
+        parser.parseInput(command).execute(events, ui, storage, instruments, calendarStartDate, false);
+    }
+
+    /**
+     * Writes a save file in a new temporary directory.
+     *
+     * @param content lines of the save file
+     * @return the save file
+     */
+    static File createSaveFile(String content) throws IOException {
+        File saveFile = new File(Files.createTempDirectory("mistermusik").toFile(), "mistermusik.txt");
+        Files.write(saveFile.toPath(), content.getBytes());
+        return saveFile;
+    }
+}
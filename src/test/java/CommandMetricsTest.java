@@ -0,0 +1,59 @@
+import mistermusik.logic.Command;
+import mistermusik.logic.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CommandMetricsTest {
+    /**
+     * Tests that percentiles are exact for small values and within 1/64 of the value for large ones.
+     */
+    @Test
+    public void histogramTest() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+
+        Histogram largeValues = new Histogram();
+        for (long value = 1000; value <= 1000000000; value *= 10) {
+            largeValues.record(value);
+        }
+        largeValues.record(Long.MAX_VALUE);
+        for (int i = 1; i <= 7; i++) {
+            long expected = (long) Math.pow(10, 2 + i);
+            long value = largeValues.getValueAtPercentile(i * 100.0 / 8);
+            assertTrue(value >= expected && value <= expected + expected / 64, value + " for " + expected);
+        }
+        assertEquals(Long.MAX_VALUE, largeValues.getValueAtPercentile(100));
+        assertEquals(8, largeValues.getCount());
+    }
+
+    /**
+     * Tests that the commands executed, the events they scanned and the bytes saved after them are recorded.
+     */
+    @Test
+    public void commandMetricsTest() throws IOException {
+        CommandFixture fixture = new CommandFixture("XP/Horn practice/07-11-2030 1500/07-11-2030 1600\n"
+                + "XT/Buy new reed/08-11-2030\n");
+        Command.getMetrics().reset();
+        for (String command : new String[]{"stats on", "list", "list", "todo Print scores /09-11-2030", "unknown"}) {
+            fixture.execute(command);
+        }
+        Command.getMetrics().setEnabled(false);
+
+        String[] rows = Command.getMetrics().getReport().split("\n");
+        assertEquals(6, rows.length); //"stats on" is not measured, as measuring was off when it started
+        assertTrue(rows[1].matches("\\(invalid\\) +1 .*"), rows[1]);
+        assertTrue(rows[2].matches("list +2 .* 2\\.0 +2"), rows[2]);
+        assertTrue(rows[3].matches("todo +1 .*"), rows[3]);
+        assertTrue(rows[4].matches("\\(save\\) +1 .* [1-9][0-9]*"), rows[4]);
+    }
+}
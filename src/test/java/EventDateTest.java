@@ -0,0 +1,39 @@
+import mistermusik.commons.events.formatting.EventDate;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class EventDateTest {
+    private String strings(EventDate date) {
+        return date.getUserInputDateString() + "|" + date.getFormattedDateString();
+    }
+
+    /**
+     * Tests that user input is read and printed in the same way as with SimpleDateFormat.
+     */
+    @Test
+    public void parseAndFormatTest() {
+        assertEquals("03-12-2019 1400|Tue, 03 Dec 2019, 14:00", strings(new EventDate("3-12-2019 1400")));
+        assertEquals("29-02-2020 2359|Sat, 29 Feb 2020, 23:59", strings(new EventDate(" 29-02-2020 2359 extra")));
+        assertEquals("03-12-2019 0030|Tue, 03 Dec 2019, 00:30", strings(new EventDate("03-12-2019 -030")));
+        assertEquals("03-12-12345 1000|Mon, 03 Dec 12345, 10:00", strings(new EventDate("03-12-12345 1000")));
+
+        //time cannot be read, so the date alone is used
+        assertEquals("03-12-2019|Tue, 03 Dec 2019", strings(new EventDate("03-12-2019 930")));
+        assertEquals("03-12-2019|Tue, 03 Dec 2019", strings(new EventDate("03-12-2019  1400")));
+        assertEquals("03-12-2019|Tue, 03 Dec 2019", strings(new EventDate("03-12-2019 2400")));
+
+        EventDate invalidDate = new EventDate("29-02-2019");
+        assertEquals("29-02-2019|29-02-2019", strings(invalidDate));
+        assertNull(invalidDate.getEventJavaDate());
+    }
+
+    @Test
+    public void addDaysAndSetMidnightTest() {
+        EventDate date = new EventDate("30-12-2019 1400");
+        date.addDaysAndSetMidnight(3);
+        assertEquals("02-01-2020|Thu, 02 Jan 2020", strings(date));
+        assertEquals(1, date.compare(new EventDate("02-01-2020 2359")));
+    }
+}
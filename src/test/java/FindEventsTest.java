@@ -0,0 +1,80 @@
+import mistermusik.commons.Contact;
+import mistermusik.commons.Goal;
+import mistermusik.commons.budgeting.CostExceedsBudgetException;
+import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
+import mistermusik.commons.events.eventtypes.eventsubclasses.assessmentsubclasses.Exam;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Lesson;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Practice;
+import mistermusik.logic.ClashException;
+import mistermusik.logic.EndBeforeStartException;
+import mistermusik.logic.EventList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FindEventsTest {
+    private EventList createTestList() throws CostExceedsBudgetException, EndBeforeStartException, ClashException {
+        EventList testList = new EventList(new ArrayList<>());
+        testList.addEvent(new Concert("Piano recital at Esplanade", "01-12-2019 1900", "01-12-2019 2100", 10));
+        testList.addEvent(new Exam("Piano grade 8 exam", "03-12-2019 0900", "03-12-2019 1000"));
+        testList.addEvent(new Practice("Violin duet", "05-12-2019 1000", "05-12-2019 1200"));
+        return testList;
+    }
+
+    @Test
+    public void findByDescriptionTest() throws CostExceedsBudgetException, EndBeforeStartException, ClashException {
+        EventList testList = createTestList();
+        assertEquals(Arrays.asList(0, 1), testList.findEvents("piano"));
+        assertEquals(Arrays.asList(1), testList.findEvents("Piano exam"));
+        assertEquals(Arrays.asList(0, 1), testList.findEvents("e"));
+        assertEquals(Arrays.asList(0), testList.findEvents("pia espl"));
+        assertEquals(new ArrayList<Integer>(), testList.findEvents("piano violin"));
+        assertEquals(new ArrayList<Integer>(), testList.findEvents(" / "));
+    }
+
+    @Test
+    public void findByGoalContactAndChecklistTest()
+            throws CostExceedsBudgetException, EndBeforeStartException, ClashException {
+        EventList testList = createTestList();
+        testList.addGoal(2, new Goal("Memorise second movement"));
+        testList.addContact(1, new Contact("Mr Tan", "tan@music.edu", "91234567"));
+        testList.addChecklistItem(0, "Bring scores");
+        assertEquals(Arrays.asList(2), testList.findEvents("movement"));
+        assertEquals(Arrays.asList(1), testList.findEvents("tan"));
+        assertEquals(Arrays.asList(1), testList.findEvents("9123"));
+        assertEquals(Arrays.asList(0), testList.findEvents("scores"));
+
+        testList.editChecklistItem(0, 0, "Bring stand");
+        assertEquals(new ArrayList<Integer>(), testList.findEvents("scores"));
+        assertEquals(Arrays.asList(0), testList.findEvents("stand"));
+    }
+
+    @Test
+    public void findAfterChangesTest() throws CostExceedsBudgetException, EndBeforeStartException, ClashException {
+        EventList testList = createTestList();
+        testList.editEvent(2, "Cello duet");
+        assertEquals(new ArrayList<Integer>(), testList.findEvents("violin"));
+        assertEquals(Arrays.asList(2), testList.findEvents("cello"));
+
+        testList.deleteEvent(0);
+        assertEquals(Arrays.asList(0), testList.findEvents("piano"));
+        assertEquals(Arrays.asList(1), testList.findEvents("cello"));
+    }
+
+    @Test
+    public void findRecurringEventsTest()
+            throws CostExceedsBudgetException, EndBeforeStartException, ClashException {
+        EventList testList = createTestList();
+        testList.addRecurringEvent(new Lesson("Piano lesson", "02-12-2019 1000", "02-12-2019 1100"), 56);
+        assertEquals(Arrays.asList(0, 1, 2, 4, 5), testList.findEvents("piano"));
+        assertEquals(Arrays.asList(1, 4, 5), testList.findEvents("lesson"));
+
+        testList.editEvent(1, "Theory lesson");
+        assertEquals(Arrays.asList(1, 4, 5), testList.findEvents("lesson"));
+        assertEquals(Arrays.asList(1), testList.findEvents("theory"));
+        assertEquals(Arrays.asList(0, 2, 4, 5), testList.findEvents("piano"));
+    }
+}
@@ -0,0 +1,89 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Practice;
+import mistermusik.commons.events.formatting.EventDate;
+import mistermusik.logic.ClashException;
+import mistermusik.logic.EventList;
+import mistermusik.ui.CalendarView;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlightRecorderTest {
+    private static final String[] EVENT_NAMES = {"mistermusik.AddEvent", "mistermusik.AddRecurringEvent",
+        "mistermusik.Load", "mistermusik.Save", "mistermusik.BudgetUpdate", "mistermusik.CalendarRender"};
+
+    /**
+     * Tests that adding events, loading, saving, updating the budget and rendering the calendar are recorded
+     * with their details while a recording enables their events.
+     */
+    @Test
+    public void recordingTest() throws Exception {
+        List<RecordedEvent> recordedEvents;
+        try (Recording recording = new Recording()) {
+            for (String name : EVENT_NAMES) {
+                recording.enable(name);
+            }
+            recording.start();
+            CommandFixture fixture = new CommandFixture("XP/Horn practice/07-11-2030 1500/07-11-2030 1600\n");
+            EventList events = fixture.events;
+            events.addEvent(new Concert("Gala", "08-11-2030 1900", "08-11-2030 2100", 10));
+            assertThrows(ClashException.class, () -> events.addEvent(
+                    new Concert("Encore", "08-11-2030 2000", "08-11-2030 2200", 10)));
+            events.addRecurringEvent(new Practice("Scales", "09-11-2030 0800", "09-11-2030 0900"), 7);
+            fixture.storage.saveToFile(events, fixture.ui);
+            fixture.storage.flush(fixture.ui);
+            new CalendarView(events, new EventDate("07-11-2030")).setCalendarInfo();
+            events.getBudgeting().removeMonthlyCost(new Concert("Cancelled", "08-12-2030 1900", "08-12-2030 2100", 5));
+            recording.stop();
+            Path dump = Files.createTempFile("mistermusik", ".jfr");
+            recording.dump(dump);
+            recordedEvents = RecordingFile.readAllEvents(dump);
+            Files.delete(dump);
+        }
+
+        HashMap<String, List<RecordedEvent>> eventsByName = new HashMap<>();
+        for (RecordedEvent event : recordedEvents) {
+            eventsByName.computeIfAbsent(event.getEventType().getName(), name -> new ArrayList<>()).add(event);
+        }
+        for (String name : EVENT_NAMES) {
+            assertTrue(eventsByName.containsKey(name), name);
+        }
+
+        List<RecordedEvent> adds = eventsByName.get("mistermusik.AddEvent");
+        assertEquals(2, adds.size());
+        assertTrue(adds.get(0).getBoolean("isAdded"));
+        assertEquals('C', adds.get(0).getChar("eventType"));
+        assertEquals(2, adds.get(0).getInt("numEvents"));
+        assertFalse(adds.get(1).getBoolean("isAdded"));
+        assertTrue(adds.get(1).getLong("numEventsScanned") >= 1);
+
+        RecordedEvent recurringAdd = eventsByName.get("mistermusik.AddRecurringEvent").get(0);
+        assertTrue(recurringAdd.getBoolean("isAdded"));
+        assertEquals(7, recurringAdd.getInt("period"));
+
+        List<RecordedEvent> budgetUpdates = eventsByName.get("mistermusik.BudgetUpdate");
+        assertEquals(2, budgetUpdates.size());
+        assertEquals("add", budgetUpdates.get(0).getString("operation"));
+        assertEquals(10, budgetUpdates.get(0).getInt("monthCost"));
+        assertEquals("remove", budgetUpdates.get(1).getString("operation")); //traced even if its month has no costs
+        assertEquals(0, budgetUpdates.get(1).getInt("monthCost"));
+
+        assertEquals("text", eventsByName.get("mistermusik.Load").get(0).getString("format"));
+        assertEquals(1, eventsByName.get("mistermusik.Load").get(0).getInt("numEvents"));
+        assertEquals(2, eventsByName.get("mistermusik.Save").get(0).getInt("numChanges"));
+        assertTrue(eventsByName.get("mistermusik.Save").get(0).getLong("numBytes") > 0);
+        assertTrue(eventsByName.get("mistermusik.CalendarRender").get(0).getInt("numEvents") >= 3);
+    }
+}
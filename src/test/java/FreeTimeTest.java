@@ -0,0 +1,111 @@
+import mistermusik.commons.budgeting.CostExceedsBudgetException;
+import mistermusik.commons.events.eventtypes.eventsubclasses.ToDo;
+import mistermusik.commons.events.eventtypes.eventsubclasses.assessmentsubclasses.Exam;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Lesson;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Practice;
+import mistermusik.commons.events.formatting.EventDate;
+import mistermusik.commons.instruments.InstrumentList;
+import mistermusik.logic.ClashException;
+import mistermusik.logic.EndBeforeStartException;
+import mistermusik.logic.EventList;
+import mistermusik.logic.TimeSlot;
+import mistermusik.ui.Parser;
+import mistermusik.ui.UI;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FreeTimeTest {
+    private static long day(String date) {
+        return new EventDate(date).getEpochDay();
+    }
+
+    @Test
+    public void getFreeDaysTest() throws CostExceedsBudgetException, EndBeforeStartException, ClashException {
+        EventList testList = new EventList(new ArrayList<>());
+        testList.addEvent(new Exam("exam", "02-12-2019 2300", "03-12-2019 0100"));
+        testList.addEvent(new Practice("practice", "03-12-2019 1000", "03-12-2019 1200"));
+        testList.addEvent(new Practice("practice", "03-12-2019 1400", "03-12-2019 1600"));
+        testList.addNewTodo(new ToDo("todo", "05-12-2019"));
+        testList.addRecurringEvent(new Lesson("lesson", "06-12-2019 1000", "06-12-2019 1100"), 2);
+
+        //only the day an event starts on is busy
+        assertEquals(Arrays.asList(day("01-12-2019"), day("04-12-2019"), day("07-12-2019")),
+                testList.getFreeDays(day("01-12-2019"), EventList.LAST_DAY, 3));
+        assertEquals(Arrays.asList(day("04-12-2019")),
+                testList.getFreeDays(day("02-12-2019"), day("07-12-2019"), 5));
+        assertEquals(new ArrayList<Long>(), testList.getFreeDays(day("05-12-2019"), day("07-12-2019"), 5));
+
+        //spans longer than a year are checked too, 3 busy days and 57 lessons over 731 days
+        assertEquals(671, testList.getFreeDays(day("01-12-2019"), day("01-12-2021"), 1000).size());
+
+        //deleted events and occurrences no longer take up their day
+        testList.deleteEvent(testList.getIndexOfFirstEventFrom(day("06-12-2019") * EventDate.MINUTES_PER_DAY));
+        testList.deleteEvent(0);
+        assertEquals(Arrays.asList(day("02-12-2019"), day("04-12-2019"), day("06-12-2019")),
+                testList.getFreeDays(day("02-12-2019"), EventList.LAST_DAY, 3));
+    }
+
+    private static long minute(String dateAndTime) {
+        return new EventDate(dateAndTime).getEpochMinute();
+    }
+
+    @Test
+    public void getFreeSlotsTest() throws CostExceedsBudgetException, EndBeforeStartException, ClashException {
+        ArrayList<String> testListString = new ArrayList<>(); //events read from file may overlap
+        testListString.add("XE/exam/01-12-2019 0800/01-12-2019 1000");
+        testListString.add("XP/practice/01-12-2019 0930/01-12-2019 1100");
+        testListString.add("XP/practice/01-12-2019 1230/01-12-2019 2000");
+        testListString.add("XT/todo/01-12-2019");
+        EventList testList = new EventList(testListString);
+        testList.addRecurringEvent(new Lesson("lesson", "02-12-2019 0900", "02-12-2019 2200"), 1);
+
+        //overlapping events are merged, and slots are cut to the hours asked for
+        ArrayList<TimeSlot> freeSlots = testList.getFreeSlots(minute("01-12-2019 0900"), 9 * 60, 22 * 60, 60, 5);
+        assertEquals(5, freeSlots.size());
+        assertEquals(minute("01-12-2019 1100"), freeSlots.get(0).getStart());
+        assertEquals(minute("01-12-2019 1230"), freeSlots.get(0).getEnd());
+        assertEquals(minute("01-12-2019 2000"), freeSlots.get(1).getStart());
+        assertEquals(minute("01-12-2019 2200"), freeSlots.get(1).getEnd());
+        assertEquals(minute("24-03-2020 0900"), freeSlots.get(2).getStart());
+
+        //slots too short are skipped, and free time after the last lesson is found
+        freeSlots = testList.getFreeSlots(minute("01-12-2019 1000"), 9 * 60, 22 * 60, 120, 2);
+        assertEquals(minute("01-12-2019 2000"), freeSlots.get(0).getStart());
+        assertEquals(minute("24-03-2020 0900"), freeSlots.get(1).getStart());
+
+        //free time in the middle of a lesson is found once the lesson is deleted
+        testList.deleteEvent(testList.getIndexOfFirstEventFrom(minute("05-12-2019 0000")));
+        freeSlots = testList.getFreeSlots(minute("03-12-2019 1200"), 0, 24 * 60, 600, 1);
+        assertEquals(minute("05-12-2019 0000"), freeSlots.get(0).getStart());
+        assertEquals(minute("06-12-2019 0000"), freeSlots.get(0).getEnd());
+
+        //no slot fits in the hours asked for
+        assertEquals(0, testList.getFreeSlots(minute("01-12-2019 0000"), 9 * 60, 10 * 60, 61, 3).size());
+    }
+
+    /**
+     * Tests that slots longer than the hours asked for, and empty or reversed hours, are rejected.
+     */
+    @Test
+    public void freeCommandTest() {
+        EventList testList = new EventList(new ArrayList<>());
+        UI ui = new UI();
+        Parser parser = new Parser();
+        EventDate calendarStartDate = new EventDate(new Date());
+        String[] validCommands = {"free 1 60", "free 1 1440", "free 2 60 0900 1000"};
+        String[] invalidCommands = {"free 1 5000", "free 1 61 0900 1000", "free 1 30 1000 1000", "free 1 30 2200 0900"};
+        for (String command : validCommands) {
+            parser.parseInput(command).execute(testList, ui, null, new InstrumentList(), calendarStartDate, false);
+        }
+        assertEquals(0, ui.getNumErrors());
+        for (String command : invalidCommands) {
+            parser.parseInput(command).execute(testList, ui, null, new InstrumentList(), calendarStartDate, false);
+        }
+        assertEquals(invalidCommands.length, ui.getNumErrors());
+    }
+}
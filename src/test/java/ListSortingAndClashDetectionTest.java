@@ -4,6 +4,7 @@ import mistermusik.commons.budgeting.CostExceedsBudgetException;
 import mistermusik.commons.events.eventtypes.Event;
 import mistermusik.commons.events.eventtypes.eventsubclasses.Concert;
 import mistermusik.commons.events.eventtypes.eventsubclasses.ToDo;
+import mistermusik.commons.events.eventtypes.eventsubclasses.assessmentsubclasses.Exam;
 import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Lesson;
 import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Practice;
 import mistermusik.logic.ClashException;
@@ -70,6 +71,38 @@ public class ListSortingAndClashDetectionTest {
 
     }
 
+    /**
+     * This method tests that events spanning several days clash with events on every day they cover,
+     * not only on the day they start.
+     */
+    @Test
+    public void clashTestMultiDay() throws CostExceedsBudgetException, EndBeforeStartException {
+        ArrayList<String> readFromFile = new ArrayList<String>();
+        readFromFile.add("XC/Esplanade concert/12-11-2019 1500/16-11-2019 1600/30");
+        readFromFile.add("XP/apiejfpwiefw/18-11-2019 1500/18-11-2019 1800");
+
+        EventList eventListTest = new EventList(readFromFile);
+        Event testEvent = new Lesson("Theory lesson", "14-11-2019 1000", "14-11-2019 1200");
+        try {
+            eventListTest.addEvent(testEvent);
+            fail();
+        } catch (ClashException e) {
+            assertEquals(eventListTest.getEvent(0), e.getClashEvent());
+        }
+
+        testEvent = new Exam("Overnight exam", "11-11-2019 2200", "12-11-2019 1500");
+        try {
+            eventListTest.addEvent(testEvent);
+        } catch (ClashException e) {
+            fail();
+        }
+
+        Event overlappingEnd = new Exam("Another exam", "16-11-2019 1559", "18-11-2019 1500");
+        assertThrows(ClashException.class, () -> {
+            eventListTest.addEvent(overlappingEnd);
+        });
+    }
+
     @Test
     /**
      * This methods tests that the schedule clash handler triggers when recurring events
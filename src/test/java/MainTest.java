@@ -119,7 +119,7 @@ public class MainTest {
         Event practiceTest4 = new Practice("full band sound check", "19-11-2019 1600", "19-11-2019 1900");
         testList.addEvent(practiceTest4);
         testList.findNextEventAndSetBoolean(currentDate1.getEventJavaDate());
-        assertEquals(3, testList.currentDateIndex);
+        assertEquals(2, testList.currentDateIndex);
     }
 
     @Test
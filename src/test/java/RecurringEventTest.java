@@ -1,5 +1,7 @@
 //@@author YuanJiayi
+import mistermusik.commons.Goal;
 import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.eventtypes.RecurringSeries;
 import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Lesson;
 import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Practice;
 import mistermusik.logic.ClashException;
@@ -9,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class RecurringEventTest {
     @Test
@@ -54,4 +57,73 @@ public class RecurringEventTest {
             assertEquals(e.getClashEvent().toString(), clashTest.toString());
         }
     }
+
+    /**
+     * Tests that a recurring event is stored as a single series, and that occurrences which are deleted or
+     * changed are taken out of the series and kept when the list is read back from its save file lines.
+     */
+    @Test
+    public void recurringSeriesTest() throws Exception {
+        EventList testList = new EventList(new ArrayList<>());
+        testList.addRecurringEvent(new Lesson("weekly lesson", "04-11-2019 1000", "04-11-2019 1200"), 7);
+        assertEquals(17, testList.getNumEvents());
+        assertEquals(1, testList.getRecurringSeriesList().size());
+        assertEquals(0, testList.getIndividualEvents().size());
+        assertEquals("[X][L] weekly lesson START: Mon, 11 Nov 2019, 10:00 END: Mon, 11 Nov 2019, 12:00",
+                testList.getEvent(1).toString());
+
+        testList.deleteEvent(1);
+        testList.addGoal(0, new Goal("bring scores"));
+        assertEquals(16, testList.getNumEvents());
+        assertEquals(1, testList.getIndividualEvents().size());
+        assertEquals(1, testList.getEvent(0).getGoalList().size());
+        assertEquals("18-11-2019 1000", testList.getEvent(1).getStartDate().getUserInputDateString());
+        assertEquals("XS/L/weekly lesson/04-11-2019 1000/04-11-2019 1200/7/17/0,1",
+                testList.getRecurringSeriesList().get(0).toStringForFile());
+
+        ArrayList<String> saveFileLines = new ArrayList<>();
+        for (Event currEvent : testList.getIndividualEvents()) {
+            saveFileLines.add(currEvent.toStringForFile());
+        }
+        for (RecurringSeries series : testList.getRecurringSeriesList()) {
+            saveFileLines.add(series.toStringForFile());
+        }
+        EventList reloadedList = new EventList(saveFileLines);
+        assertEquals(testList.getNumEvents(), reloadedList.getNumEvents());
+        for (int i = 0; i < testList.getNumEvents(); i++) {
+            assertEquals(testList.getEvent(i).toString(), reloadedList.getEvent(i).toString());
+        }
+
+        Event clashTest = new Practice("clashing practice", "25-11-2019 1100", "25-11-2019 1300");
+        try {
+            testList.addEvent(clashTest);
+        } catch (ClashException e) {
+            assertEquals("[X][L] weekly lesson START: Mon, 25 Nov 2019, 10:00 END: Mon, 25 Nov 2019, 12:00",
+                    e.getClashEvent().toString());
+        }
+        assertEquals(16, testList.getNumEvents());
+    }
+
+    /**
+     * Tests that a change of the goals, contacts or checklist of an occurrence that fails leaves its series whole,
+     * and that occurrences are created with the same dates as those read from the save file.
+     */
+    @Test
+    public void failedOccurrenceChangeTest() throws ClashException {
+        EventList testList = new EventList(new ArrayList<>());
+        testList.addRecurringEvent(new Practice("daily practice", "04-11-2019 0700", "04-11-2019 0800"), 1);
+        testList.takePendingChanges();
+        assertThrows(IndexOutOfBoundsException.class, () -> testList.removeGoal(2, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> testList.removeContact(2, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> testList.deleteChecklistItem(2, 0));
+        assertEquals(0, testList.getIndividualEvents().size());
+        assertEquals("XS/P/daily practice/04-11-2019 0700/04-11-2019 0800/1/113",
+                testList.getRecurringSeriesList().get(0).toStringForFile());
+        assertEquals(0, testList.takePendingChanges().size());
+
+        Event occurrence = testList.getEvent(2);
+        Event parsedOccurrence = new Practice("daily practice", false, "06-11-2019 0700", "06-11-2019 0800");
+        assertEquals(parsedOccurrence.toStringForFile(), occurrence.toStringForFile());
+        assertEquals(parsedOccurrence.getEndDate().getEpochMinute(), occurrence.getEndDate().getEpochMinute());
+    }
 }
@@ -1,12 +1,15 @@
 //@@author YuanJiayi
 import mistermusik.commons.events.eventtypes.Event;
 import mistermusik.commons.events.formatting.EventDate;
+import mistermusik.logic.ClashException;
 import mistermusik.logic.EventList;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class RescheduleTest {
     @Test
@@ -36,4 +39,23 @@ public class RescheduleTest {
         practiceTest.rescheduleEndDate(newPracticeEndDate);
         assertEquals(newPracticeEndDate, practiceTest.getEndDate());
     }
+
+    @Test
+    public void rescheduleClashKeepsEventTest() throws Exception {
+        ArrayList<String> readFromFile = new ArrayList<>();
+        readFromFile.add("XP/practice 1/03-12-2019 1500/03-12-2019 1800");
+        readFromFile.add("XL/lesson 1/04-12-2019 1500/04-12-2019 1800");
+        EventList eventListTest = new EventList(readFromFile);
+        int modificationCount = eventListTest.getModificationCount();
+
+        // test that a rejected reschedule leaves the event unchanged and in place
+        assertThrows(ClashException.class, () -> {
+            eventListTest.rescheduleEvent(0, new EventDate("04-12-2019 1600"), new EventDate("04-12-2019 1700"));
+        });
+        assertEquals("XP/practice 1/03-12-2019 1500/03-12-2019 1800", eventListTest.getEvent(0).toStringForFile());
+        assertEquals(modificationCount, eventListTest.getModificationCount());
+
+        eventListTest.rescheduleEvent(0, new EventDate("05-12-2019 1600"), new EventDate("05-12-2019 1700"));
+        assertNotEquals(modificationCount, eventListTest.getModificationCount());
+    }
 }
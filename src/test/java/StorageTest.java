@@ -0,0 +1,505 @@
+import mistermusik.commons.Contact;
+import mistermusik.commons.Goal;
+import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.commons.events.eventtypes.eventsubclasses.ToDo;
+import mistermusik.commons.events.eventtypes.eventsubclasses.recurringeventsubclasses.Lesson;
+import mistermusik.commons.events.formatting.EventDate;
+import mistermusik.commons.instruments.InstrumentList;
+import mistermusik.logic.ClashException;
+import mistermusik.logic.EventList;
+import mistermusik.storage.Storage;
+import mistermusik.ui.Parser;
+import mistermusik.ui.UI;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class StorageTest {
+    private UI ui = new UI();
+
+    private File createSaveFile(String content) throws IOException {
+        File saveFile = new File(Files.createTempDirectory("mistermusik").toFile(), "mistermusik.txt");
+        FileWriter writer = new FileWriter(saveFile);
+        writer.write(content);
+        writer.close();
+        return saveFile;
+    }
+
+    private String listOfLines(EventList events) {
+        events.sortList();
+        String lines = "";
+        for (Event currEvent : events.getEventArrayList()) {
+            lines += currEvent.toStringForFile() + "\n";
+        }
+        return lines;
+    }
+
+    /**
+     * Tests that changes saved through the journal are all restored when the file is loaded again.
+     */
+    @Test
+    public void journalReplayTest() throws Exception {
+        File saveFile = createSaveFile("XT/fawpeifwe/02-12-2019\n"
+                + "XP/apiejfpwiefw/03-12-2019 1500/03-12-2019 1800\n");
+        Storage storage = new Storage(saveFile);
+        EventList events = storage.readEventList(ui);
+        storage.saveToFile(events, ui); //first save compacts into a snapshot and starts the journal
+        String snapshot = new String(Files.readAllBytes(saveFile.toPath()));
+
+        events.addEvent(new Lesson("Theory lesson", "04-12-2019 1000", "04-12-2019 1200"));
+        events.addNewTodo(new ToDo("Buy reeds", "05-12-2019"));
+        storage.saveToFile(events, ui);
+        events.sortList();
+        events.markEventAsDone(0);
+        events.editEvent(1, "Horn practice");
+        events.rescheduleEvent(2, new EventDate("06-12-2019 1000"), new EventDate("06-12-2019 1100"));
+        events.deleteEvent(2);
+        storage.saveToFile(events, ui);
+
+        assertEquals(snapshot, new String(Files.readAllBytes(saveFile.toPath())));
+        Storage reloadedStorage = new Storage(saveFile);
+        EventList reloadedEvents = reloadedStorage.readEventList(ui);
+        assertEquals(listOfLines(events), listOfLines(reloadedEvents));
+        assertEquals("VT/fawpeifwe/02-12-2019\n"
+                + "XP/Horn practice/03-12-2019 1500/03-12-2019 1800\n"
+                + "XL/Theory lesson/06-12-2019 1000/06-12-2019 1100\n", listOfLines(reloadedEvents));
+    }
+
+    /**
+     * Tests that a journal left over from an older snapshot is not applied again, and that an
+     * incomplete record at the end of the journal is ignored.
+     */
+    @Test
+    public void staleAndIncompleteJournalTest() throws Exception {
+        File saveFile = createSaveFile("XT/fawpeifwe/02-12-2019\n");
+        Storage storage = new Storage(saveFile);
+        EventList events = storage.readEventList(ui);
+        storage.saveToFile(events, ui);
+        events.addNewTodo(new ToDo("Buy reeds", "05-12-2019"));
+        storage.saveToFile(events, ui);
+
+        File journalFile = new File(saveFile.getPath() + ".journal");
+        FileWriter journalWriter = new FileWriter(journalFile, true);
+        journalWriter.write("EI1/1/XT/Buy new"); //interrupted write of an edit
+        journalWriter.close();
+        EventList reloadedEvents = new Storage(saveFile).readEventList(ui);
+        assertEquals("XT/fawpeifwe/02-12-2019\nXT/Buy reeds/05-12-2019\n", listOfLines(reloadedEvents));
+
+        FileWriter snapshotWriter = new FileWriter(saveFile);
+        snapshotWriter.write("XT/fawpeifwe/02-12-2019\nXT/Buy reeds/05-12-2019\n"); //compacted, journal not reset
+        snapshotWriter.close();
+        assertEquals(2, new Storage(saveFile).readEventList(ui).getNumEvents());
+    }
+
+    /**
+     * Tests that the streaming loader reads the same events as the list of lines read from the file,
+     * with the journal applied, with a journal from an older snapshot, and with Windows line endings.
+     */
+    @Test
+    public void readEventListTest() throws Exception {
+        File saveFile = createSaveFile("XT/fawpeifwe/02-12-2019\n"
+                + "XP/apiejfpwiefw/03-12-2019 1500/03-12-2019 1800\n"
+                + "XS/L/Theory lesson/04-12-2019 1000/04-12-2019 1200/7/10/2,5\n"
+                + "XC/Esplanade concert/12-11-2019 1500/12-11-2019 1600/30\n");
+        Storage storage = new Storage(saveFile);
+        EventList events = storage.readEventList(ui);
+        assertEquals(listOfLines(new EventList(new Storage(saveFile).readFromFile(ui))), listOfLines(events));
+        assertEquals(11, events.getNumEvents());
+        storage.saveToFile(events, ui);
+
+        events.sortList();
+        events.deleteEvent(0);
+        events.editEvent(0, "Horn practice");
+        events.addNewTodo(new ToDo("Buy reeds", "05-12-2019"));
+        events.deleteEvent(events.getNumEvents() - 1); //last occurrence of the series
+        storage.saveToFile(events, ui);
+        String expectedLines = listOfLines(events);
+        assertEquals(expectedLines, listOfLines(new Storage(saveFile).readEventList(ui)));
+        assertEquals(expectedLines, listOfLines(new EventList(new Storage(saveFile).readFromFile(ui))));
+
+        String snapshot = new String(Files.readAllBytes(saveFile.toPath()));
+        FileWriter snapshotWriter = new FileWriter(saveFile);
+        snapshotWriter.write(snapshot.replace("\n", "\r\n") + "XT/Buy reeds/06-12-2019\n"); //journal is now stale
+        snapshotWriter.close();
+        EventList reloadedEvents = new Storage(saveFile).readEventList(ui);
+        assertEquals(listOfLines(new EventList(new Storage(saveFile).readFromFile(ui))), listOfLines(reloadedEvents));
+        assertEquals(12, reloadedEvents.getNumEvents());
+    }
+
+    /**
+     * Tests that events edited or marked as done keep their position among events with the same start when the
+     * journal is replayed, with each format of snapshot, while events added come after them.
+     */
+    @Test
+    public void inPlaceReplayTest() throws Exception {
+        String expectedLines = "VT/Buy reeds/02-12-2019\n"
+                + "VT/Print parts/02-12-2019\n"
+                + "XT/Buy rosin/02-12-2019\n"
+                + "XP/Horn practice/03-12-2019 1500/03-12-2019 1800\n";
+        for (int format = 0; format < 3; format++) {
+            File saveFile = createSaveFile("XT/Buy reeds/02-12-2019\n"
+                    + "XT/Print scores/02-12-2019\n"
+                    + "XT/Book room/02-12-2019\n"
+                    + "XP/Horn practice/03-12-2019 1500/03-12-2019 1800\n");
+            Storage storage = new Storage(saveFile);
+            storage.setBinarySnapshotUsed(format == 1);
+            storage.setMappedSnapshotUsed(format == 2);
+            EventList events = storage.readEventList(ui);
+            storage.saveToFile(events, ui); //first save compacts into a snapshot and starts the journal
+
+            events.markEventAsDone(0);
+            events.editEvent(1, "Print parts");
+            events.markEventAsDone(1);
+            events.editEvent(2, "Book hall");
+            events.deleteEvent(2);
+            events.addNewTodo(new ToDo("Buy rosin", "02-12-2019"));
+            storage.saveToFile(events, ui);
+
+            assertEquals(expectedLines, listOfLines(events));
+            assertEquals(expectedLines, listOfLines(new Storage(saveFile).readEventList(ui)), "format " + format);
+        }
+        File saveFile = createSaveFile("XT/Buy reeds/02-12-2019\nXT/Print scores/02-12-2019\n");
+        Storage storage = new Storage(saveFile);
+        EventList events = storage.readEventList(ui);
+        storage.saveToFile(events, ui);
+        events.editEvent(0, "Buy rosin");
+        storage.saveToFile(events, ui);
+        assertEquals("XT/Buy rosin/02-12-2019\nXT/Print scores/02-12-2019\n",
+                listOfLines(new EventList(new Storage(saveFile).readFromFile(ui))));
+    }
+
+    /**
+     * Tests that edits and events marked as done are replayed on the right one of several identical events with
+     * the same start, with each format of snapshot, so that the list keeps its order when loaded again.
+     */
+    @Test
+    public void identicalEventsReplayTest() throws Exception {
+        String expectedLines = "VT/Buy reeds/02-12-2019\n"
+                + "XT/Buy rosin/02-12-2019\n"
+                + "XT/Print scores/02-12-2019\n"
+                + "XT/Buy reeds/02-12-2019\n"
+                + "XT/Buy reeds/02-12-2019\n";
+        for (int format = 0; format < 3; format++) {
+            File saveFile = createSaveFile("XT/Buy reeds/02-12-2019\n"
+                    + "XT/Buy reeds/02-12-2019\n"
+                    + "XT/Buy reeds/02-12-2019\n"
+                    + "XT/Print scores/02-12-2019\n"
+                    + "XT/Buy reeds/02-12-2019\n");
+            Storage storage = new Storage(saveFile);
+            storage.setBinarySnapshotUsed(format == 1);
+            storage.setMappedSnapshotUsed(format == 2);
+            EventList events = storage.readEventList(ui);
+            storage.saveToFile(events, ui); //first save compacts into a snapshot and starts the journal
+
+            events.editEvent(2, "Buy rosin");
+            events.markEventAsDone(1);
+            events.addNewTodo(new ToDo("Buy reeds", "02-12-2019"));
+            events.deleteEvent(0);
+            storage.saveToFile(events, ui);
+
+            assertEquals(expectedLines, listOfLines(events));
+            assertEquals(expectedLines, listOfLines(new Storage(saveFile).readEventList(ui)), "format " + format);
+            if (format == 0) { //only the text snapshot is read as lines
+                assertEquals(expectedLines, listOfLines(new EventList(new Storage(saveFile).readFromFile(ui))));
+            }
+        }
+    }
+
+    /**
+     * Tests that a binary snapshot holds the same events as the text snapshot, that changes journaled
+     * on top of it are restored, and that the list can still be exported in text format.
+     */
+    @Test
+    public void binarySnapshotTest() throws Exception {
+        String content = "VT/Buy reeds/02-12-2019\n"
+                + "XP/Horn practice/03-12-2019 1500/03-12-2019 1800\n"
+                + "XE/Theory exam/sometime/03-12-2019 1800\n"
+                + "XC/Esplanade concert/12-11-2019 1500/12-11-2019 1600/30\n"
+                + "XR/Recital/01-01-1990 0900/01-01-1990 1000\n"
+                + "VS/P/Scales/04-12-2019 1000/04-12-2019 1200/7/10/0,5\n";
+        File saveFile = createSaveFile(content);
+        String expectedLines = listOfLines(new Storage(saveFile).readEventList(ui));
+
+        Storage storage = new Storage(saveFile);
+        storage.setBinarySnapshotUsed(true);
+        EventList events = storage.readEventList(ui);
+        storage.saveToFile(events, ui);
+        File binaryFile = new File(saveFile.getParent(), "mistermusik.bin");
+        assertEquals(content, new String(Files.readAllBytes(saveFile.toPath()))); //text file is left unchanged
+        assertTrue(binaryFile.length() < saveFile.length());
+        assertEquals(expectedLines, listOfLines(new Storage(saveFile).readEventList(ui)));
+
+        events.sortList();
+        events.deleteEvent(0);
+        events.editEvent(0, "Horn practice");
+        events.addNewTodo(new ToDo("Buy reeds", "05-12-2019"));
+        storage.saveToFile(events, ui);
+        expectedLines = listOfLines(events);
+        assertEquals(expectedLines, listOfLines(new Storage(saveFile).readEventList(ui)));
+
+        File exportFile = new File(saveFile.getParent(), "export.txt");
+        storage.exportToText(events, exportFile);
+        ArrayList<String> exportedLines = new ArrayList<>(Files.readAllLines(exportFile.toPath()));
+        assertEquals(expectedLines, listOfLines(new EventList(exportedLines)));
+
+        storage.setBinarySnapshotUsed(false); //next snapshot goes back to the text file
+        storage.exportToText(events, saveFile);
+        assertFalse(binaryFile.exists());
+        assertEquals(expectedLines, listOfLines(new Storage(saveFile).readEventList(ui)));
+    }
+
+    /**
+     * Tests that a mapped event archive holds the same events as the text snapshot without reading them when
+     * loaded, that events still in the archive are found as clashes, and that changes journaled on top of
+     * it are restored, including after the archive is compacted again.
+     */
+    @Test
+    public void mappedSnapshotTest() throws Exception {
+        String content = "VT/Buy reeds/02-12-2019\n"
+                + "XP/Horn practice/03-12-2019 1500/03-12-2019 1800\n"
+                + "XE/Theory exam/sometime/03-12-2019 1800\n"
+                + "XC/Esplanade concert/12-11-2019 1500/12-11-2019 1600/30\n"
+                + "XR/Recital/01-01-1990 0900/01-01-1990 1000\n"
+                + "VS/P/Scales/04-12-2019 1000/04-12-2019 1200/7/10/0,5\n";
+        File saveFile = createSaveFile(content);
+        String expectedLines = listOfLines(new Storage(saveFile).readEventList(ui));
+
+        Storage storage = new Storage(saveFile);
+        storage.setMappedSnapshotUsed(true);
+        EventList events = storage.readEventList(ui);
+        storage.saveToFile(events, ui);
+        assertTrue(new File(saveFile.getParent(), "mistermusik.1.map").exists());
+        assertEquals(content, new String(Files.readAllBytes(saveFile.toPath()))); //text file is left unchanged
+
+        EventList mappedEvents = new Storage(saveFile).readEventList(ui);
+        assertEquals(null, mappedEvents.getIndividualEvents().getIfRead(0));
+        assertEquals(30, mappedEvents.getBudgeting().getCostForMonth("11-2019"));
+        try {
+            mappedEvents.addEvent(new Lesson("Theory lesson", "03-12-2019 1700", "03-12-2019 1900"));
+            fail();
+        } catch (ClashException e) {
+            assertEquals(null, mappedEvents.getIndividualEvents().getIfRead(0)); //only the clashing event is read
+        }
+        assertEquals(expectedLines, listOfLines(mappedEvents));
+
+        events.sortList();
+        events.deleteEvent(0);
+        events.editEvent(0, "Horn practice");
+        events.addNewTodo(new ToDo("Buy reeds", "05-12-2019"));
+        storage.saveToFile(events, ui);
+        expectedLines = listOfLines(events);
+        EventList reloadedEvents = new Storage(saveFile).readEventList(ui);
+        assertEquals(expectedLines, listOfLines(reloadedEvents));
+
+        Storage reloadedStorage = new Storage(saveFile);
+        reloadedStorage.setMappedSnapshotUsed(true);
+        reloadedEvents = reloadedStorage.readEventList(ui);
+        reloadedStorage.exportToText(reloadedEvents, new File(saveFile.getParent(), "export.txt"));
+        for (int i = 0; i < 200; i++) { //enough changes to compact the journal into a new archive
+            ToDo todo = new ToDo("Buy reeds", "06-12-2019");
+            reloadedEvents.addNewTodo(todo);
+            reloadedEvents.deleteEvent(reloadedEvents.getIndexOfEvent(todo));
+        }
+        reloadedStorage.saveToFile(reloadedEvents, ui);
+        assertEquals(expectedLines, listOfLines(new Storage(saveFile).readEventList(ui)));
+    }
+
+    /**
+     * Tests that each compaction in mapped mode writes a new generation of the archive instead of replacing the
+     * one the list still has mapped, and that older generations are deleted.
+     */
+    @Test
+    public void mappedCompactionTest() throws Exception {
+        File saveFile = createSaveFile("XT/Buy reeds/02-12-2019\n"
+                + "XP/Horn practice/03-12-2019 1500/03-12-2019 1800\n");
+        File directory = saveFile.getParentFile();
+        Storage storage = new Storage(saveFile);
+        storage.setMappedSnapshotUsed(true);
+        storage.saveToFile(storage.readEventList(ui), ui);
+        assertTrue(new File(directory, "mistermusik.1.map").exists());
+
+        Storage mappedStorage = new Storage(saveFile);
+        mappedStorage.setMappedSnapshotUsed(true);
+        EventList events = mappedStorage.readEventList(ui); //maps mistermusik.1.map for as long as it is used
+        for (int compaction = 2; compaction <= 3; compaction++) {
+            for (int i = 0; i < 100; i++) { //enough changes to compact the journal into a new archive
+                ToDo todo = new ToDo("Buy reeds", "06-12-2019");
+                events.addNewTodo(todo);
+                events.deleteEvent(events.getIndexOfEvent(todo));
+            }
+            events.addNewTodo(new ToDo("Todo " + compaction, "07-12-2019"));
+            mappedStorage.saveToFile(events, ui);
+            assertTrue(new File(directory, "mistermusik." + compaction + ".map").exists());
+            assertEquals(listOfLines(events), listOfLines(new Storage(saveFile).readEventList(ui)));
+        }
+        assertFalse(new File(directory, "mistermusik.2.map").exists());
+
+        Files.write(new File(directory, "mistermusik.1.map").toPath(), new byte[0]); //left over from a mapping
+        assertEquals(listOfLines(events), listOfLines(new Storage(saveFile).readEventList(ui)));
+        assertFalse(new File(directory, "mistermusik.1.map").exists());
+    }
+
+    /**
+     * Tests that goals, contacts and checklists are saved by appending each change, follow their event when it
+     * is edited, and are only read when first used after the list is loaded again.
+     */
+    @Test
+    public void eventDetailsTest() throws Exception {
+        File saveFile = createSaveFile("XT/Buy reeds/02-12-2019\n"
+                + "XP/Horn practice/03-12-2019 1500/03-12-2019 1800\n"
+                + "XC/Esplanade concert/12-11-2019 1500/12-11-2019 1600/30\n");
+        File detailsFile = new File(saveFile.getParent(), "mistermusik.details");
+        Storage storage = new Storage(saveFile);
+        EventList events = storage.readEventList(ui);
+        events.addGoal(0, new Goal("Play\tin tune"));
+        events.addGoal(0, new Goal("Memorise the solo"));
+        events.setGoalAchieved(0, 1);
+        events.addContact(0, new Contact("Anna", "anna@nus.edu.sg", "91234567"));
+        events.editContact(0, 0, 'P', "98765432");
+        events.addChecklistItem(2, "Oil valves");
+        events.addChecklistItem(2, "Bring mute");
+        events.deleteChecklistItem(2, 0);
+        storage.saveToFile(events, ui);
+        String details = new String(Files.readAllBytes(detailsFile.toPath()));
+
+        events.editEvent(0, "NAFA concert");
+        events.addGoal(2, new Goal("Slow practice"));
+        storage.saveToFile(events, ui);
+        assertTrue(new String(Files.readAllBytes(detailsFile.toPath())).startsWith(details)); //changes are appended
+
+        EventList reloadedEvents = new Storage(saveFile).readEventList(ui);
+        Event concert = reloadedEvents.getEvent(0);
+        assertTrue(concert.hasUnreadSavedDetails());
+        assertEquals("NAFA concert", concert.getDescription());
+        assertEquals(2, concert.getGoalList().size());
+        assertEquals("Play\tin tune", concert.getGoalObject(0).getGoal());
+        assertFalse(concert.getGoalObject(0).getBooleanStatus());
+        assertTrue(concert.getGoalObject(1).getBooleanStatus());
+        assertEquals("98765432", concert.getContactList().get(0).getPhoneNo());
+        assertFalse(reloadedEvents.getEvent(1).hasUnreadSavedDetails());
+        assertTrue(reloadedEvents.getEvent(2).hasUnreadSavedDetails());
+        assertEquals(2, (int) reloadedEvents.findEvents("mute").get(0));
+        assertEquals("Bring mute", reloadedEvents.getEvent(2).getChecklist().get(0));
+        assertEquals("Slow practice", reloadedEvents.getEvent(2).getGoalObject(0).getGoal());
+
+        events.deleteEvent(0);
+        events.addEvent(new Lesson("Theory lesson", "12-11-2019 1500", "12-11-2019 1600"));
+        storage.saveToFile(events, ui);
+        reloadedEvents = new Storage(saveFile).readEventList(ui);
+        assertTrue(reloadedEvents.getEvent(0).getGoalList().isEmpty()); //details of the deleted event are gone
+        assertEquals("Bring mute", reloadedEvents.getEvent(2).getChecklist().get(0));
+    }
+
+    /**
+     * Tests that unachieved goals of past events are found after the list is loaded from a mapped archive,
+     * where events are only read when first used.
+     */
+    @Test
+    public void archivedPastGoalsTest() throws Exception {
+        File saveFile = createSaveFile("XP/Horn practice/03-12-2019 1500/03-12-2019 1800\n"
+                + "XP/Scales practice/04-12-2019 1500/04-12-2019 1800\n");
+        Storage storage = new Storage(saveFile);
+        storage.setMappedSnapshotUsed(true);
+        EventList events = storage.readEventList(ui);
+        events.addGoal(1, new Goal("Play in tune"));
+        storage.saveToFile(events, ui);
+
+        Storage mappedStorage = new Storage(saveFile);
+        mappedStorage.setMappedSnapshotUsed(true);
+        EventList reloadedEvents = mappedStorage.readEventList(ui);
+        reloadedEvents.findNextEventAndSetBoolean(new Date());
+        assertTrue(reloadedEvents.gotPastUnachieved);
+        assertTrue(reloadedEvents.getPastEventsWithUnachievedGoals().contains("Goal 1: Play in tune"));
+    }
+
+    /**
+     * Tests that instruments and services are saved by appending only the ones added, and that an incomplete
+     * record left by an interrupted write is dropped.
+     */
+    @Test
+    public void instrumentLogTest() throws Exception {
+        File saveFile = createSaveFile("");
+        File instrumentFile = new File(saveFile.getParent(), "mistermusik.instruments");
+        Storage storage = new Storage(saveFile);
+        InstrumentList instruments = storage.readInstrumentList(ui);
+        assertEquals(0, instruments.getNumInstruments());
+        instruments.addInstrument("Horn");
+        instruments.addInstrument("Trumpet\tin B flat");
+        instruments.service(1, new EventDate("02-12-2019"), "Oiled valves");
+        storage.saveInstruments(instruments, ui);
+        String savedInstruments = new String(Files.readAllBytes(instrumentFile.toPath()));
+        storage.saveInstruments(instruments, ui);
+        assertEquals(savedInstruments, new String(Files.readAllBytes(instrumentFile.toPath())));
+
+        instruments.service(2, new EventDate("03-12-2019"), "New mouthpiece");
+        storage.saveInstruments(instruments, ui);
+        String appendedInstruments = new String(Files.readAllBytes(instrumentFile.toPath()));
+        assertTrue(appendedInstruments.startsWith(savedInstruments));
+        Files.write(instrumentFile.toPath(), (appendedInstruments + "S\t1\t04-12").getBytes());
+
+        Storage reloadedStorage = new Storage(saveFile);
+        InstrumentList reloadedInstruments = reloadedStorage.readInstrumentList(ui);
+        assertEquals(instruments.getInstruments(), reloadedInstruments.getInstruments());
+        assertEquals(instruments.getInstrumentServiceInfo(1), reloadedInstruments.getInstrumentServiceInfo(1));
+        assertEquals(instruments.getInstrumentServiceInfo(2), reloadedInstruments.getInstrumentServiceInfo(2));
+        reloadedInstruments.service(1, new EventDate("05-12-2019"), "Cleaned");
+        reloadedStorage.saveInstruments(reloadedInstruments, ui);
+        assertEquals("1. Oiled valves on Mon, 02 Dec 2019\n2. Cleaned on Thu, 05 Dec 2019\n",
+                new Storage(saveFile).readInstrumentList(ui).getInstrumentServiceInfo(1));
+    }
+
+    /**
+     * Tests that changes saved while writing on a background thread are all in the files once flushed, including
+     * snapshots written when the journal is compacted.
+     */
+    @Test
+    public void backgroundWriterTest() throws Exception {
+        File saveFile = createSaveFile("XT/Buy reeds/02-12-2019\n");
+        Storage storage = new Storage(saveFile);
+        EventList events = storage.readEventList(ui);
+        InstrumentList instruments = storage.readInstrumentList(ui);
+        storage.startBackgroundWriter(20);
+        for (int i = 0; i < 300; i++) { //enough changes to compact the journal while writes are queued
+            events.addNewTodo(new ToDo("Practice scales", String.format("%02d-%02d-2020", 1 + i % 28, 1 + i / 28)));
+            events.addGoal(0, new Goal("Goal " + i));
+            storage.saveToFile(events, ui);
+        }
+        instruments.addInstrument("Horn");
+        storage.saveInstruments(instruments, ui);
+        storage.flush(ui);
+
+        Storage reloadedStorage = new Storage(saveFile);
+        EventList reloadedEvents = reloadedStorage.readEventList(ui);
+        assertEquals(listOfLines(events), listOfLines(reloadedEvents));
+        assertEquals(300, reloadedEvents.getEvent(0).getGoalList().size());
+        assertEquals("1. Horn\n", reloadedStorage.readInstrumentList(ui).getInstruments());
+    }
+
+    /**
+     * Tests that the export command has written the whole list once it returns, while writes are queued for the
+     * background thread.
+     */
+    @Test
+    public void exportCommandTest() throws Exception {
+        File saveFile = createSaveFile("XT/Buy reeds/02-12-2019\n"
+                + "XP/Horn practice/03-12-2019 1500/03-12-2019 1800\n");
+        Storage storage = new Storage(saveFile);
+        EventList events = storage.readEventList(ui);
+        storage.startBackgroundWriter(1000);
+        File exportFile = new File(saveFile.getParent(), "export.txt");
+        new Parser().parseInput("export " + exportFile.getPath())
+                .execute(events, ui, storage, new InstrumentList(), new EventDate(new Date()), false);
+        ArrayList<String> exportedLines = new ArrayList<>(Files.readAllLines(exportFile.toPath()));
+        assertEquals(listOfLines(events), listOfLines(new EventList(exportedLines)));
+    }
+}
@@ -0,0 +1,86 @@
+import mistermusik.commons.events.eventtypes.Event;
+import mistermusik.logic.EventList;
+import mistermusik.storage.Storage;
+import mistermusik.workload.WorkloadGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class WorkloadGeneratorTest {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2019, 1, 1);
+
+    private WorkloadGenerator createGenerator(long seed) {
+        return new WorkloadGenerator(seed).setSpan(FIRST_DAY, 365);
+    }
+
+    /**
+     * Tests that the same seed always gives the same save file and script, and another seed does not.
+     */
+    @Test
+    public void seedTest() {
+        assertEquals(createGenerator(1).generateSaveFileLines(1000), createGenerator(1).generateSaveFileLines(1000));
+        assertEquals(createGenerator(1).generateCommands(100, 1000), createGenerator(1).generateCommands(100, 1000));
+        assertNotEquals(createGenerator(1).generateSaveFileLines(1000),
+                createGenerator(2).generateSaveFileLines(1000));
+    }
+
+    /**
+     * Tests that generated events follow the mix and do not clash while they fit their hours.
+     */
+    @Test
+    public void eventMixTest() throws Exception {
+        ArrayList<String> lines = createGenerator(1).setEventMix(1, 2, 1, 0, 0, 1).generateSaveFileLines(1000);
+        EventList events = new EventList(lines);
+        assertEquals(1000, events.getNumEvents());
+
+        EventList addedEvents = new EventList(new ArrayList<>());
+        addedEvents.getBudgeting().setBudget(WorkloadGenerator.SCRIPT_BUDGET);
+        int[] counts = new int[128];
+        for (Event event : events.getEventArrayList()) {
+            counts[event.getType()]++;
+            if (event.getType() == 'T') {
+                addedEvents.addNewTodo(event);
+            } else {
+                addedEvents.addEvent(event); //throws ClashException if the event clashes
+            }
+        }
+        assertEquals(200, counts['L']);
+        assertEquals(400, counts['P']);
+        assertEquals(200, counts['C']);
+        assertEquals(0, counts['E'] + counts['R']);
+        assertEquals(200, counts['T']);
+    }
+
+    /**
+     * Tests that every command of a script is valid, so that each add and delete changes the list.
+     */
+    @Test
+    public void commandScriptTest() throws IOException {
+        File saveFile = CommandFixture.createSaveFile("");
+        WorkloadGenerator generator = createGenerator(1);
+        generator.writeSaveFile(saveFile, 500);
+        CommandFixture fixture = new CommandFixture(saveFile);
+        assertEquals(500, fixture.events.getNumEvents());
+
+        ArrayList<String> commands = generator.generateCommands(300, 500);
+        assertEquals("bye", commands.get(commands.size() - 1));
+        int expectedNumEvents = 500;
+        for (String command : commands.subList(0, commands.size() - 1)) {
+            if (command.startsWith("delete")) {
+                expectedNumEvents--;
+            } else if (command.startsWith("todo") || command.matches("(lesson|practice|concert|exam|recital) .*")) {
+                expectedNumEvents++;
+            }
+            fixture.execute(command);
+            assertEquals(expectedNumEvents, fixture.events.getNumEvents(), command);
+        }
+        fixture.storage.flush(fixture.ui);
+        assertEquals(expectedNumEvents, new Storage(saveFile).readEventList(fixture.ui).getNumEvents());
+    }
+}
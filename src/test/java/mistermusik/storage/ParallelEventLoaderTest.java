@@ -0,0 +1,102 @@
+package mistermusik.storage;
+
+import mistermusik.commons.events.eventtypes.RecurringSeries;
+import mistermusik.logic.EventList;
+import mistermusik.ui.UI;
+import mistermusik.workload.WorkloadGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ParallelEventLoaderTest {
+    private UI ui = new UI();
+
+    private String listOfLines(EventList events) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < events.getNumEvents(); i++) {
+            lines.append(events.getEvent(i).toStringForFile()).append('\n');
+        }
+        for (RecurringSeries series : events.getRecurringSeriesList()) {
+            lines.append(series.toStringForFile()).append('\n');
+        }
+        return lines.toString();
+    }
+
+    private int findEvent(EventList events, String description) {
+        for (int i = 0; i < events.getNumEvents(); i++) {
+            if (events.getEvent(i).getDescription().equals(description)) {
+                return i;
+            }
+        }
+        throw new AssertionError(description + " not found");
+    }
+
+    /**
+     * Tests that combining the checksums of two parts gives the checksum of the parts joined.
+     */
+    @Test
+    public void combineChecksumsTest() {
+        byte[] bytes = new byte[10000];
+        new Random(1).nextBytes(bytes);
+        CRC32 whole = new CRC32();
+        whole.update(bytes);
+        for (int split : new int[]{0, 1, 7, 4096, 9999, 10000}) {
+            CRC32 first = new CRC32();
+            first.update(bytes, 0, split);
+            CRC32 second = new CRC32();
+            second.update(bytes, split, bytes.length - split);
+            assertEquals(whole.getValue(),
+                    SaveFileReader.combineChecksums(first.getValue(), second.getValue(), bytes.length - split));
+        }
+    }
+
+    /**
+     * Tests that a file split into many chunks is loaded exactly as it is read one line at a time, with lines
+     * copied in several chunks and a journal deleting some of the copies and changing others.
+     */
+    @Test
+    public void parallelLoadTest() throws Exception {
+        ArrayList<String> lines = new WorkloadGenerator(1).setSpan(LocalDate.of(2019, 1, 1), 365)
+                .generateSaveFileLines(600);
+        for (int i = 0; i < 600; i += 97) { //copies of lines far from each other, in other chunks
+            lines.add(lines.get(i));
+            lines.add(i / 2, lines.get(i));
+        }
+        for (int i = 1; i <= 3; i++) { //events with the same start, in other chunks
+            lines.add(i * 200 - 50, "XT/Tied todo " + i + "/15-06-2019");
+        }
+        lines.add("XS/P/Scales/04-12-2019 0500/04-12-2019 0600/7/10/0,5");
+        File saveFile = new File(Files.createTempDirectory("mistermusik").toFile(), "mistermusik.txt");
+        Files.write(saveFile.toPath(), lines);
+        Storage storage = new Storage(saveFile);
+        EventList events = storage.readEventList(ui);
+        storage.saveToFile(events, ui); //first save starts the journal
+
+        events.deleteEvent(0);
+        events.deleteEvent(events.getIndexOfEvent(events.getEvent(300)));
+        events.editEvent(100, "Edited practice");
+        events.markEventAsDone(200);
+        events.editEvent(findEvent(events, "Tied todo 1"), "Edited todo");
+        events.markEventAsDone(findEvent(events, "Tied todo 2"));
+        events.deleteEvent(events.getNumEvents() - 1);
+        storage.saveToFile(events, ui);
+        assertEquals(lines.size(), Files.readAllLines(saveFile.toPath()).size()); //changes are in the journal
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            String sequentialLines = listOfLines(new Storage(saveFile).readEventList(ui));
+            assertEquals(listOfLines(events), sequentialLines); //all changes are replayed at their positions
+            assertEquals(sequentialLines, listOfLines(new Storage(saveFile, pool, 1024).readEventList(ui)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package mistermusik.workload;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Generates save files and command scripts that look like those of a music student, for load tests and
+ * benchmarks. Lessons are weekly, practices daily and concerts monthly, each kept at the same time of day, while
+ * exams and recitals fall on random days and todos are spread over the whole span. The mix of events and of
+ * commands can be changed, and the same seed always gives the same output.
+ * Each type of timed event has its own hours of the day, so events do not clash unless there are more events
+ * of a type than fit its hours over the span. Timed events end by 2300; commands only add timed events after
+ * that, each in a slot not used before, so that they never clash and the indexes of later commands stay valid.
+ * The generator is kept out of the application jar. Run it with the generateWorkload task to write files, e.g.
+ * -PworkloadArgs="save FILE NUM_EVENTS [SEED]" or -PworkloadArgs="commands FILE NUM_COMMANDS NUM_EVENTS_IN_LIST
+ * [SEED]".
+ */
+public class WorkloadGenerator {
+    public static final long DEFAULT_SEED = 42;
+
+    /**
+     * Default number of days covered by the events, about ten years.
+     */
+    public static final int DEFAULT_NUM_DAYS = 3650;
+
+    /**
+     * Monthly budget set at the start of command scripts, so that adding concerts never exceeds it.
+     */
+    public static final int SCRIPT_BUDGET = 1000000;
+
+    /**
+     * Characters of the types of events, in the order of the event mix.
+     */
+    private static final char[] EVENT_TYPES = {'L', 'P', 'C', 'E', 'R', 'T'};
+
+    private static final String[] EVENT_COMMANDS = {"lesson", "practice", "concert", "exam", "recital", "todo"};
+
+    /**
+     * Number of days between events of each type kept at the same time of day, 0 for events on random days.
+     */
+    private static final int[] PERIODS = {7, 1, 30, 0, 0, 0};
+
+    /**
+     * First and last minute of the day of the hours of each type of timed event, and their length in minutes.
+     */
+    private static final int[] HOURS_START = {12 * 60, 6 * 60, 21 * 60, 17 * 60, 19 * 60, 0};
+    private static final int[] HOURS_END = {17 * 60, 12 * 60, 23 * 60, 19 * 60, 21 * 60, 0};
+    private static final int[] DURATIONS = {60, 60, 120, 120, 120, 0};
+
+    /**
+     * Start of the slots after 2300 used by events added by commands, and their length in minutes.
+     */
+    private static final int[] ADDED_SLOTS = {23 * 60 + 5, 23 * 60 + 20, 23 * 60 + 35};
+    private static final int ADDED_DURATION = 10;
+
+    private static final String[] INSTRUMENTS = {"Horn", "Violin", "Piano", "Cello", "Flute", "Clarinet"};
+    private static final String[] VENUES = {"Esplanade", "NAFA", "Victoria Hall", "UCC", "Conservatory"};
+    private static final String[] SUBJECTS = {"Theory", "Aural", "Sight-reading", "Music history"};
+    private static final String[] TODOS = {"Buy new reed", "Complete theory homework", "Book practice room",
+        "Print scores", "Renew instrument insurance", "Send recording to teacher"};
+    private static final String[] GOALS = {"Play scales at 120 bpm", "Memorise the first movement",
+        "Work on dynamics", "Record a run-through"};
+    private static final String[] CHECKLIST_ITEMS = {"Bring music stand", "Bring spare reeds", "Print programme"};
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MM-yyyy");
+
+    /**
+     * Kinds of commands, in the order of the command mix.
+     */
+    private static final int ADD = 0;
+    private static final int DELETE = 1;
+    private static final int QUERY = 2;
+    private static final int DETAIL = 3;
+
+    private long seed;
+
+    private LocalDate firstDay;
+
+    private int numDays;
+
+    private int[] eventMix = {10, 30, 5, 1, 1, 15};
+
+    private int[] commandMix = {20, 10, 50, 20};
+
+    /**
+     * Creates a generator with the given seed, covering about ten years around today.
+     */
+    public WorkloadGenerator(long seed) {
+        this.seed = seed;
+        this.numDays = DEFAULT_NUM_DAYS;
+        this.firstDay = LocalDate.now().minusDays(DEFAULT_NUM_DAYS / 2);
+    }
+
+    /**
+     * Sets the days covered by the events. The output only depends on the seed and the settings, so the first
+     * day should be fixed for output that does not change from day to day.
+     *
+     * @param firstDay first day with events
+     * @param numDays  number of days with events
+     * @return this generator
+     */
+    public WorkloadGenerator setSpan(LocalDate firstDay, int numDays) {
+        if (numDays <= 0) {
+            throw new IllegalArgumentException("The span must have at least one day");
+        }
+        this.firstDay = firstDay;
+        this.numDays = numDays;
+        return this;
+    }
+
+    /**
+     * Sets the relative numbers of each type of event, in events generated and events added by commands.
+     *
+     * @return this generator
+     */
+    public WorkloadGenerator setEventMix(int lessons, int practices, int concerts, int exams, int recitals,
+                                        int todos) {
+        eventMix = checkMix(new int[]{lessons, practices, concerts, exams, recitals, todos});
+        return this;
+    }
+
+    /**
+     * Sets the relative numbers of each kind of command: adding events, deleting events, queries (list,
+     * reminder, find, calendar, view, check and budget), and adding goals, contacts and checklist items.
+     *
+     * @return this generator
+     */
+    public WorkloadGenerator setCommandMix(int adds, int deletes, int queries, int details) {
+        commandMix = checkMix(new int[]{adds, deletes, queries, details});
+        return this;
+    }
+
+    private static int[] checkMix(int[] mix) {
+        int total = 0;
+        for (int weight : mix) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights of the mix cannot be negative");
+            }
+            total += weight;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("The mix must have a positive weight");
+        }
+        return mix;
+    }
+
+    /**
+     * Generates the lines of a save file of individual events, in order of their start like the lines of a
+     * saved list.
+     *
+     * @param numEvents number of events
+     * @return lines of the save file
+     */
+    public ArrayList<String> generateSaveFileLines(int numEvents) {
+        Random random = new Random(seed);
+        int[] counts = splitByMix(numEvents, eventMix);
+        ArrayList<long[]> starts = new ArrayList<>(numEvents); //start and index of each line
+        ArrayList<String> lines = new ArrayList<>(numEvents);
+        for (int type = 0; type < EVENT_TYPES.length; type++) {
+            HashSet<Long> usedSlots = new HashSet<>();
+            for (int i = 0; i < counts[type]; i++) {
+                long slot = (PERIODS[type] > 0) ? getPeriodicSlot(type, i, counts[type])
+                        : getRandomSlot(type, random, usedSlots);
+                int day = (int) (slot / getNumTimes(type));
+                int start = HOURS_START[type] + (int) (slot % getNumTimes(type)) * DURATIONS[type];
+                boolean isDone = day < numDays / 2 && random.nextInt(4) != 0;
+                starts.add(new long[]{(long) day * 24 * 60 + start, lines.size()});
+                lines.add(getLine(type, getDescription(type, random), isDone, day, start, random));
+            }
+        }
+        starts.sort(Comparator.comparingLong(start -> start[0]));
+        ArrayList<String> sortedLines = new ArrayList<>(numEvents);
+        for (long[] start : starts) {
+            sortedLines.add(lines.get((int) start[1]));
+        }
+        return sortedLines;
+    }
+
+    /**
+     * Splits a number of items between the kinds of a mix, in proportion to their weights.
+     */
+    private static int[] splitByMix(int total, int[] mix) {
+        int totalWeight = 0;
+        for (int weight : mix) {
+            totalWeight += weight;
+        }
+        int[] counts = new int[mix.length];
+        int assigned = 0;
+        int weightSoFar = 0;
+        for (int kind = 0; kind < mix.length; kind++) {
+            weightSoFar += mix[kind];
+            counts[kind] = (int) ((long) total * weightSoFar / totalWeight) - assigned;
+            assigned += counts[kind];
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the number of times of day a type of event can start at without clashing, 1 for todos.
+     */
+    private static int getNumTimes(int type) {
+        return (DURATIONS[type] == 0) ? 1 : (HOURS_END[type] - HOURS_START[type]) / DURATIONS[type];
+    }
+
+    /**
+     * Gets the slot, i.e. day times number of times of day plus time of day, of an event of a periodic type.
+     * The events are shared out between lanes, each on a day of the period and a time of day, and each lane
+     * takes events one period apart from the start of the span. Lanes beyond those that fit the hours of the
+     * type reuse their times.
+     */
+    private long getPeriodicSlot(int type, int i, int count) {
+        int period = PERIODS[type];
+        int eventsPerLane = Math.max(1, numDays / period);
+        int numLanes = (count + eventsPerLane - 1) / eventsPerLane;
+        int lane = i % numLanes;
+        long day = lane % period + (long) (i / numLanes) * period;
+        return day * getNumTimes(type) + (lane / period) % getNumTimes(type);
+    }
+
+    /**
+     * Gets a random slot of an event of a type on random days, taking the next free slot if it is used, so that
+     * events of the type only clash once all slots are used.
+     */
+    private long getRandomSlot(int type, Random random, HashSet<Long> usedSlots) {
+        long numSlots = (long) numDays * getNumTimes(type);
+        long slot = (long) (random.nextDouble() * numSlots);
+        if (usedSlots.size() < numSlots && DURATIONS[type] > 0) {
+            while (usedSlots.contains(slot)) {
+                slot = (slot + 1) % numSlots;
+            }
+            usedSlots.add(slot);
+        }
+        return slot;
+    }
+
+    private static String getDescription(int type, Random random) {
+        switch (EVENT_TYPES[type]) {
+        case 'L':
+            return pick(INSTRUMENTS, random) + " lesson";
+        case 'P':
+            return pick(INSTRUMENTS, random) + " practice";
+        case 'C':
+            return pick(VENUES, random) + " concert";
+        case 'E':
+            return pick(SUBJECTS, random) + " exam";
+        case 'R':
+            return "Recital at " + pick(VENUES, random);
+        default:
+            return pick(TODOS, random);
+        }
+    }
+
+    private static String pick(String[] words, Random random) {
+        return words[random.nextInt(words.length)];
+    }
+
+    private String getLine(int type, String description, boolean isDone, int day, int start, Random random) {
+        String line = (isDone ? "V" : "X") + EVENT_TYPES[type] + "/" + description + "/" + getDate(day);
+        if (DURATIONS[type] == 0) {
+            return line;
+        }
+        line += " " + getTime(start) + "/" + getDate(day) + " " + getTime(start + DURATIONS[type]);
+        return (EVENT_TYPES[type] == 'C') ? line + "/" + (5 + random.nextInt(36)) : line;
+    }
+
+    private String getDate(int day) {
+        return firstDay.plusDays(day).format(DATE_FORMAT);
+    }
+
+    private static String getTime(int minuteOfDay) {
+        return String.format("%02d%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    /**
+     * Generates a script of commands to run on a list of events, e.g. one loaded from a generated save file.
+     * The script sets a budget no concert added can exceed, and ends with "bye". Events are only deleted or
+     * given goals, contacts and checklist items while the list has events.
+     *
+     * @param numCommands     number of commands, not counting the budget and "bye"
+     * @param numEventsInList number of events in the list the script is run on
+     * @return lines of the script
+     */
+    public ArrayList<String> generateCommands(int numCommands, int numEventsInList) {
+        Random random = new Random(seed);
+        HashSet<Long> usedSlots = new HashSet<>();
+        int numEvents = numEventsInList;
+        ArrayList<String> commands = new ArrayList<>(numCommands + 2);
+        commands.add("budget set " + SCRIPT_BUDGET);
+        for (int i = 0; i < numCommands; i++) {
+            int kind = pickKind(commandMix, random);
+            if (numEvents == 0 && (kind == DELETE || kind == DETAIL)) {
+                kind = ADD;
+            }
+            if (kind == ADD && !hasFreeAddedSlot(usedSlots)) {
+                kind = (numEvents > 0) ? DELETE : QUERY;
+            }
+            switch (kind) {
+            case ADD:
+                commands.add(getAddCommand(random, usedSlots));
+                numEvents++;
+                break;
+            case DELETE:
+                commands.add("delete " + (1 + random.nextInt(numEvents)));
+                numEvents--;
+                break;
+            case DETAIL:
+                commands.add(getDetailCommand(random, 1 + random.nextInt(numEvents)));
+                break;
+            default:
+                commands.add(getQueryCommand(random));
+                break;
+            }
+        }
+        commands.add("bye");
+        return commands;
+    }
+
+    private static int pickKind(int[] mix, Random random) {
+        int totalWeight = 0;
+        for (int weight : mix) {
+            totalWeight += weight;
+        }
+        int pick = random.nextInt(totalWeight);
+        int kind = 0;
+        while (pick >= mix[kind]) {
+            pick -= mix[kind];
+            kind++;
+        }
+        return kind;
+    }
+
+    private boolean hasFreeAddedSlot(HashSet<Long> usedSlots) {
+        return usedSlots.size() < (long) numDays * ADDED_SLOTS.length;
+    }
+
+    private String getAddCommand(Random random, HashSet<Long> usedSlots) {
+        int type = pickKind(eventMix, random);
+        String description = getDescription(type, random);
+        if (DURATIONS[type] == 0) {
+            return "todo " + description + " /" + getDate(random.nextInt(numDays));
+        }
+        long numSlots = (long) numDays * ADDED_SLOTS.length;
+        long slot = (long) (random.nextDouble() * numSlots);
+        while (usedSlots.contains(slot)) {
+            slot = (slot + 1) % numSlots;
+        }
+        usedSlots.add(slot);
+        int start = ADDED_SLOTS[(int) (slot % ADDED_SLOTS.length)];
+        String command = EVENT_COMMANDS[type] + " " + description + " /" + getDate((int) (slot / ADDED_SLOTS.length))
+                + " " + getTime(start) + " " + getTime(start + ADDED_DURATION);
+        return (EVENT_TYPES[type] == 'C') ? command + " /" + (5 + random.nextInt(36)) : command;
+    }
+
+    private static String getDetailCommand(Random random, int eventIndex) {
+        switch (random.nextInt(3)) {
+        case 0:
+            return "goal add " + eventIndex + " /" + pick(GOALS, random);
+        case 1:
+            return "contact add " + eventIndex + " /" + pick(INSTRUMENTS, random) + " teacher,teacher@example.com,"
+                    + (80000000 + random.nextInt(10000000));
+        default:
+            return "checklist add " + eventIndex + " /" + pick(CHECKLIST_ITEMS, random);
+        }
+    }
+
+    private String getQueryCommand(Random random) {
+        LocalDate day = firstDay.plusDays(random.nextInt(numDays));
+        switch (random.nextInt(7)) {
+        case 0:
+            return "list";
+        case 1:
+            return "reminder " + (1 + random.nextInt(14));
+        case 2:
+            return "find " + pick(INSTRUMENTS, random).toLowerCase();
+        case 3:
+            return "calendar";
+        case 4:
+            return "view " + day.format(DATE_FORMAT);
+        case 5:
+            return "check 3 " + day.format(DATE_FORMAT) + " " + day.plusDays(30).format(DATE_FORMAT);
+        default:
+            return "budget " + day.format(MONTH_FORMAT);
+        }
+    }
+
+    /**
+     * Writes a save file of generated events.
+     *
+     * @param file      file to write
+     * @param numEvents number of events
+     * @throws IOException if the file cannot be written
+     */
+    public void writeSaveFile(File file, int numEvents) throws IOException {
+        Files.write(file.toPath(), generateSaveFileLines(numEvents));
+    }
+
+    /**
+     * Writes a script of generated commands, one per line.
+     *
+     * @param file            file to write
+     * @param numCommands     number of commands
+     * @param numEventsInList number of events in the list the script is run on
+     * @throws IOException if the file cannot be written
+     */
+    public void writeCommandScript(File file, int numCommands, int numEventsInList) throws IOException {
+        Files.write(file.toPath(), generateCommands(numCommands, numEventsInList));
+    }
+
+    /**
+     * Writes a save file or command script with the default mix.
+     */
+    public static void main(String[] args) throws IOException {
+        try {
+            if (args.length >= 3 && args.length <= 4 && args[0].equals("save")) {
+                long seed = (args.length == 4) ? Long.parseLong(args[3]) : DEFAULT_SEED;
+                new WorkloadGenerator(seed).writeSaveFile(new File(args[1]), Integer.parseInt(args[2]));
+                return;
+            } else if (args.length >= 4 && args.length <= 5 && args[0].equals("commands")) {
+                long seed = (args.length == 5) ? Long.parseLong(args[4]) : DEFAULT_SEED;
+                new WorkloadGenerator(seed).writeCommandScript(new File(args[1]), Integer.parseInt(args[2]),
+                        Integer.parseInt(args[3]));
+                return;
+            }
+        } catch (NumberFormatException e) {
+            //print the usage below
+        }
+        System.out.println("Usage: save FILE NUM_EVENTS [SEED]\n"
+                + "       commands FILE NUM_COMMANDS NUM_EVENTS_IN_LIST [SEED]");
+    }
+}